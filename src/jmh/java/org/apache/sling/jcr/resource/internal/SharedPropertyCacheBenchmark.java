@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import javax.jcr.Node;
+import javax.jcr.Session;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.sling.jcr.resource.internal.helper.SharedPropertyCache;
+import org.apache.sling.jcr.resource.internal.helper.jcr.BenchmarkSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for reading a property of a node below a root of the
+ * {@link SharedPropertyCache}, with and without the shared cache. Every
+ * invocation creates new helper data like a new resolver does, so the
+ * per resolver cost of looking up the cache key is included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SharedPropertyCacheBenchmark {
+
+    @Param({"true", "false"})
+    boolean shared;
+
+    @Param({"10", "50"})
+    int propertyCount;
+
+    private Session session;
+
+    private Node root;
+
+    private Node node;
+
+    private JcrProviderSettings settings;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        session = BenchmarkSupport.login();
+        root = session.getRootNode().addNode("bench_" + System.nanoTime(), "nt:unstructured");
+        node = session.getNode(BenchmarkSupport.createTree(root, 1, 1, propertyCount, false));
+        session.save();
+
+        settings = new JcrProviderSettings();
+        if (shared) {
+            final SharedPropertyCache cache = new SharedPropertyCache(new String[] {root.getPath()}, 1000, 1000000);
+            cache.setActive(true);
+            settings.setSharedPropertyCache(cache);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        root.remove();
+        session.save();
+        session.logout();
+    }
+
+    @Benchmark
+    public Object firstRead() {
+        final HelperData helper = new HelperData(new AtomicReference<>(), new AtomicReference<>(), null, this.settings);
+        return new JcrValueMap(this.node, helper).get("prop0");
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper;
+
+import javax.jcr.Node;
+
+import java.util.Calendar;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for typed reads of a {@link JcrPropertyMapCacheEntry}. The
+ * {@code repeated} benchmarks read the same entry again and again, like a
+ * template reading a property several times during a request, while the
+ * {@code first} benchmarks convert the value of a new entry every time. As
+ * entries don't remember conversion results, both should be close.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TypedReadBenchmark {
+
+    private static final String DATE = "2026-10-17T10:00:00.000+02:00";
+
+    private static final String NUMBER = "123456789";
+
+    private static final Long LONG = 123456789L;
+
+    private Node node;
+
+    private JcrPropertyMapCacheEntry dateEntry;
+
+    private JcrPropertyMapCacheEntry numberEntry;
+
+    private JcrPropertyMapCacheEntry longEntry;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        node = Mockito.mock(Node.class);
+        dateEntry = new JcrPropertyMapCacheEntry(DATE, "date");
+        numberEntry = new JcrPropertyMapCacheEntry(NUMBER, "number");
+        longEntry = new JcrPropertyMapCacheEntry(LONG, "long");
+    }
+
+    @Benchmark
+    public Calendar stringToCalendarFirst() {
+        return new JcrPropertyMapCacheEntry(DATE, "date").convertToType(Calendar.class, node, null);
+    }
+
+    @Benchmark
+    public Calendar stringToCalendarRepeated() {
+        return dateEntry.convertToType(Calendar.class, node, null);
+    }
+
+    @Benchmark
+    public Long stringToLongFirst() {
+        return new JcrPropertyMapCacheEntry(NUMBER, "number").convertToType(Long.class, node, null);
+    }
+
+    @Benchmark
+    public Long stringToLongRepeated() {
+        return numberEntry.convertToType(Long.class, node, null);
+    }
+
+    @Benchmark
+    public String longToStringFirst() {
+        return new JcrPropertyMapCacheEntry(LONG, "long").convertToType(String.class, node, null);
+    }
+
+    @Benchmark
+    public String longToStringRepeated() {
+        return longEntry.convertToType(String.class, node, null);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link JcrResourceUtil#getUtf8Length(CharSequence)} with encoding
+ * the string, as used for the content length of string properties. The text
+ * mixes ASCII, two and three byte characters and surrogate pairs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Utf8LengthBenchmark {
+
+    private static final String SAMPLE = "Lorem ipsum dolor sit amet, Übersättigung 贛語 😀 ";
+
+    /** The length of the string in chars: 1 KB, 1 MB and 10 MB */
+    @Param({"1024", "1048576", "10485760"})
+    private int length;
+
+    private String value;
+
+    @Setup
+    public void setUp() {
+        final StringBuilder builder = new StringBuilder(this.length + SAMPLE.length());
+        while (builder.length() < this.length) {
+            builder.append(SAMPLE);
+        }
+        builder.setLength(this.length);
+        this.value = builder.toString();
+    }
+
+    @Benchmark
+    public long encode() {
+        return this.value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    @Benchmark
+    public long count() {
+        return JcrResourceUtil.getUtf8Length(this.value);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper.jcr;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.ValueFactory;
+
+import java.io.ByteArrayInputStream;
+import java.util.Calendar;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.jcr.resource.internal.HelperData;
+import org.apache.sling.jcr.resource.internal.JcrProviderSettings;
+import org.apache.sling.jcr.resource.internal.helper.ItemCache;
+import org.apache.sling.spi.resource.provider.ResolveContext;
+import org.apache.sling.spi.resource.provider.ResourceProvider;
+import org.jetbrains.annotations.NotNull;
+import org.mockito.Mockito;
+
+import static javax.jcr.nodetype.NodeType.NT_UNSTRUCTURED;
+
+/**
+ * Shared fixture for the JMH benchmarks. The repository is the in-memory Oak
+ * repository also used by the tests (see {@link SlingRepositoryProvider}).
+ */
+public final class BenchmarkSupport {
+
+    private BenchmarkSupport() {}
+
+    /**
+     * Login an administrative session to the in-memory Oak repository.
+     * @return A new session
+     * @throws Exception If the repository cannot be started or the login fails
+     */
+    public static @NotNull Session login() throws Exception {
+        return SlingRepositoryProvider.getRepository().loginAdministrative(null);
+    }
+
+    /**
+     * Create a new provider state for the given session. The session is not
+     * logged out when the state is closed.
+     * @param session The session
+     * @param itemCacheSize The size of the item cache, 0 to disable it
+     * @return The provider state
+     */
+    public static @NotNull JcrProviderState createProviderState(
+            final @NotNull Session session, final int itemCacheSize) {
+        final ItemCache itemCache = itemCacheSize > 0 ? new ItemCache(itemCacheSize) : null;
+        return new JcrProviderState(
+                session,
+                new HelperData(new AtomicReference<>(), new AtomicReference<>(), itemCache, new JcrProviderSettings()),
+                false);
+    }
+
+    /**
+     * Create a resolve context for the given provider state.
+     * @param state The provider state
+     * @return The resolve context
+     */
+    public static @NotNull ResolveContext<JcrProviderState> createResolveContext(
+            final @NotNull JcrProviderState state) {
+        final ResourceResolver resolver = Mockito.mock(ResourceResolver.class);
+        return new ResolveContext<JcrProviderState>() {
+
+            @Override
+            public ResourceResolver getResourceResolver() {
+                return resolver;
+            }
+
+            @Override
+            public JcrProviderState getProviderState() {
+                return state;
+            }
+
+            @Override
+            public ResolveContext<?> getParentResolveContext() {
+                return null;
+            }
+
+            @Override
+            public ResourceProvider<?> getParentResourceProvider() {
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Create a tree below {@code parent}. Each level has {@code fanOut} children,
+     * only the first child of each level has children itself, so the tree has
+     * {@code depth * fanOut} nodes and the deepest first child is at depth {@code depth}.
+     *
+     * Every node gets {@code propertyCount} properties named {@code prop0} to
+     * {@code propN}, cycling through LONG, numeric STRING, BOOLEAN and DATE values,
+     * and optionally a 1 KB binary property named {@code binary}.
+     *
+     * @param parent The parent node
+     * @param depth The depth of the tree
+     * @param fanOut The number of children per level
+     * @param propertyCount The number of (non-binary) properties per node
+     * @param binary Whether to add a binary property to every node
+     * @return The path of the deepest node
+     * @throws RepositoryException If creating the tree fails
+     */
+    public static @NotNull String createTree(
+            final @NotNull Node parent,
+            final int depth,
+            final int fanOut,
+            final int propertyCount,
+            final boolean binary)
+            throws RepositoryException {
+        final ValueFactory valueFactory = parent.getSession().getValueFactory();
+        final byte[] data = new byte[1024];
+        new Random(42).nextBytes(data);
+        final Calendar date = Calendar.getInstance();
+
+        Node current = parent;
+        for (int level = 0; level < depth; level++) {
+            Node first = null;
+            for (int i = 0; i < fanOut; i++) {
+                final Node child = current.addNode("child" + i, NT_UNSTRUCTURED);
+                for (int p = 0; p < propertyCount; p++) {
+                    switch (p % 4) {
+                        case 0:
+                            child.setProperty("prop" + p, (long) p);
+                            break;
+                        case 1:
+                            child.setProperty("prop" + p, String.valueOf(p * 1000L));
+                            break;
+                        case 2:
+                            child.setProperty("prop" + p, p % 8 == 2);
+                            break;
+                        default:
+                            child.setProperty("prop" + p, date);
+                    }
+                }
+                if (binary) {
+                    child.setProperty("binary", valueFactory.createBinary(new ByteArrayInputStream(data)));
+                }
+                if (first == null) {
+                    first = child;
+                }
+            }
+            current = first;
+        }
+        return current.getPath();
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper.jcr;
+
+import javax.jcr.Node;
+import javax.jcr.Session;
+
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.jcr.resource.internal.JcrModifiableValueMap;
+import org.apache.sling.spi.resource.provider.ResolveContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for creating nodes with many properties: through
+ * {@link JcrResourceProvider#create(ResolveContext, String, Map)} and, for
+ * comparison, by putting the properties one by one into a
+ * {@link ModifiableValueMap}. The created nodes are never saved.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreateBenchmark {
+
+    @Param({"50", "200"})
+    int propertyCount;
+
+    private Session session;
+
+    private Node root;
+
+    private String rootPath;
+
+    private JcrResourceProvider provider;
+
+    private ResolveContext<JcrProviderState> ctx;
+
+    private Map<String, Object> properties;
+
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        session = BenchmarkSupport.login();
+        root = session.getRootNode().addNode("bench_" + System.nanoTime(), "nt:unstructured");
+        session.save();
+        rootPath = root.getPath();
+
+        provider = new JcrResourceProvider();
+        ctx = BenchmarkSupport.createResolveContext(BenchmarkSupport.createProviderState(session, 0));
+
+        final Calendar date = Calendar.getInstance();
+        properties = new LinkedHashMap<>();
+        properties.put("jcr:primaryType", "nt:unstructured");
+        for (int p = 0; p < propertyCount; p++) {
+            switch (p % 4) {
+                case 0:
+                    properties.put("prop" + p, (long) p);
+                    break;
+                case 1:
+                    properties.put("prop" + p, "value" + p);
+                    break;
+                case 2:
+                    properties.put("prop" + p, new String[] {"a", "b", "c"});
+                    break;
+                default:
+                    properties.put("prop" + p, date);
+            }
+        }
+    }
+
+    // the time of a single invocation is long enough for invocation level fixtures
+    @TearDown(Level.Invocation)
+    public void discardChanges() throws Exception {
+        session.refresh(false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        root.remove();
+        session.save();
+        session.logout();
+    }
+
+    @Benchmark
+    public Resource create() throws PersistenceException {
+        return provider.create(ctx, rootPath + "/node" + counter++, properties);
+    }
+
+    @Benchmark
+    public Node putEach() throws Exception {
+        final Node node = root.addNode("node" + counter++, "nt:unstructured");
+        final ModifiableValueMap map =
+                new JcrModifiableValueMap(node, ctx.getProviderState().getHelperData());
+        for (final Map.Entry<String, Object> entry : properties.entrySet()) {
+            if (!"jcr:primaryType".equals(entry.getKey())) {
+                map.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return node;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper.jcr;
+
+import javax.jcr.Node;
+import javax.jcr.Session;
+
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.jcr.resource.internal.JcrValueMap;
+import org.apache.sling.spi.resource.provider.ResolveContext;
+import org.apache.sling.spi.resource.provider.ResourceContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the resource resolution hot path of the {@link JcrResourceProvider}:
+ * resolving resources, listing children, getting the parent, adapting to a
+ * {@link ValueMap} and typed value map reads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResourceResolutionBenchmark {
+
+    @Param({"2", "8"})
+    int depth;
+
+    @Param({"10", "100"})
+    int fanOut;
+
+    @Param({"4", "32"})
+    int propertyCount;
+
+    @Param({"false", "true"})
+    boolean binary;
+
+    @Param({"0", "1000"})
+    int itemCacheSize;
+
+    private Session session;
+
+    private Node root;
+
+    private JcrResourceProvider provider;
+
+    private ResolveContext<JcrProviderState> ctx;
+
+    private String leafPath;
+
+    private Resource leaf;
+
+    private Resource leafParent;
+
+    private JcrValueMap valueMap;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        session = BenchmarkSupport.login();
+        root = session.getRootNode().addNode("bench_" + System.nanoTime(), "nt:unstructured");
+        leafPath = BenchmarkSupport.createTree(root, depth, fanOut, propertyCount, binary);
+        session.save();
+
+        // the provider methods used here only rely on the resolve context, no activation required
+        provider = new JcrResourceProvider();
+        ctx = BenchmarkSupport.createResolveContext(BenchmarkSupport.createProviderState(session, itemCacheSize));
+        leaf = provider.getResource(ctx, leafPath, ResourceContext.EMPTY_CONTEXT, null);
+        leafParent = provider.getParent(ctx, leaf);
+        valueMap = (JcrValueMap) leaf.adaptTo(ValueMap.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        root.remove();
+        session.save();
+        session.logout();
+    }
+
+    @Benchmark
+    public Resource getResource() {
+        return provider.getResource(ctx, leafPath, ResourceContext.EMPTY_CONTEXT, null);
+    }
+
+    @Benchmark
+    public void listChildren(final Blackhole blackhole) {
+        final Iterator<Resource> children = provider.listChildren(ctx, leafParent);
+        while (children != null && children.hasNext()) {
+            blackhole.consume(children.next());
+        }
+    }
+
+    @Benchmark
+    public Resource getParent() {
+        return provider.getParent(ctx, leaf);
+    }
+
+    @Benchmark
+    public Object adaptToValueMap() {
+        return leaf.adaptTo(ValueMap.class).get("prop0");
+    }
+
+    @Benchmark
+    public int adaptToValueMapReadFully() {
+        return leaf.adaptTo(ValueMap.class).size();
+    }
+
+    @Benchmark
+    public String valueMapGetLongAsString() {
+        return valueMap.get("prop0", String.class);
+    }
+
+    @Benchmark
+    public Long valueMapGetStringAsLong() {
+        return valueMap.get("prop1", Long.class);
+    }
+
+    @Benchmark
+    public Calendar valueMapGetCalendar() {
+        return valueMap.get("prop3", Calendar.class);
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.api;
+
+import org.apache.sling.api.resource.ValueMap;
+import org.jetbrains.annotations.NotNull;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * A {@link ValueMap} of a JCR node which can read several properties in one
+ * call. Code reading many properties of the same resource can check whether
+ * its value map implements this interface and use {@link #getAll(String[], Class[])}
+ * instead of calling {@link ValueMap#get(String, Class)} for each property.
+ *
+ * @since 1.2.0
+ */
+@ProviderType
+public interface BulkReadValueMap extends ValueMap {
+
+    /**
+     * Get the values of several properties at once. Depending on how many of
+     * the properties have been read already, the implementation either reads
+     * all properties of the node in one pass or looks up each property.
+     *
+     * @param names The names of the properties
+     * @param types The types to convert the values to, at the same index as the
+     *        name. A {@code null} type returns the value as {@link #get(Object)} does.
+     * @return The values at the same index as the name. A value is {@code null}
+     *         if the property does not exist or cannot be converted.
+     * @throws IllegalArgumentException If the arrays have different lengths or the
+     *         properties cannot be read
+     */
+    @NotNull
+    Object[] getAll(@NotNull String[] names, @NotNull Class<?>[] types);
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.api;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.sling.api.resource.PersistenceException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.osgi.annotation.versioning.ProviderType;
+
+/**
+ * Creates many JCR backed resources at once, e.g. when importing content.
+ * A writer is obtained by adapting a resource resolver to this interface.
+ *
+ * Resources are created like with
+ * {@link org.apache.sling.api.resource.ResourceResolver#create(org.apache.sling.api.resource.Resource, String, Map)}.
+ * As long as they are created in document order, i.e. each parent before its
+ * children, every parent is looked up at most once. If a batch size is set,
+ * the changes are committed whenever that many resources have been created,
+ * otherwise committing is up to the caller. Besides creating resources, the
+ * writer can apply a complete order to the children of a resource.
+ *
+ * A writer is bound to the resource resolver it has been obtained from and
+ * must not be used concurrently.
+ *
+ * @since 1.2.0
+ */
+@ProviderType
+public interface BulkResourceWriter {
+
+    /**
+     * Set the number of resources after which the changes are committed.
+     *
+     * @param batchSize The batch size, {@code 0} to never commit automatically
+     * @return This writer
+     */
+    @NotNull
+    BulkResourceWriter setBatchSize(int batchSize);
+
+    /**
+     * Create a resource. The parent must exist or must have been created before.
+     *
+     * @param path The absolute path of the new resource
+     * @param properties The properties of the new resource, might be {@code null}
+     * @throws PersistenceException If the resource can't be created or committing fails
+     */
+    void create(@NotNull String path, @Nullable Map<String, Object> properties) throws PersistenceException;
+
+    /**
+     * Create a tree of resources. The map is iterated in its order, so parents
+     * must be contained before their children, e.g. by using a
+     * {@link java.util.LinkedHashMap}.
+     *
+     * @param resources The absolute paths of the new resources and their properties
+     * @throws PersistenceException If a resource can't be created or committing fails
+     */
+    void createAll(@NotNull Map<String, Map<String, Object>> resources) throws PersistenceException;
+
+    /**
+     * Order the children of a resource. The listed children are ordered as in
+     * the list, followed by the children which are not listed in their current
+     * order. The current order is read once and only the children which are
+     * not at their target position are moved, which is much cheaper than
+     * calling {@link org.apache.sling.api.resource.ResourceResolver#orderBefore(org.apache.sling.api.resource.Resource, String, String)}
+     * for each child of a large ordered resource.
+     *
+     * @param path The absolute path of the parent resource
+     * @param names The names of the children in their target order
+     * @return {@code true} if any child has been moved
+     * @throws PersistenceException If the resource doesn't support ordering, a
+     *         child does not exist or a name is listed twice
+     */
+    boolean orderChildren(@NotNull String path, @NotNull List<String> names) throws PersistenceException;
+
+    /**
+     * Commit all resources created since the last commit.
+     *
+     * @throws PersistenceException If committing fails
+     */
+    void commit() throws PersistenceException;
+
+    /**
+     * The number of resources created by this writer
+     *
+     * @return The number of created resources
+     */
+    long getCreatedCount();
+
+    /**
+     * The number of commits done by this writer
+     *
+     * @return The number of commits
+     */
+    long getCommitCount();
+
+    /**
+     * The number of resources created per second, measured from the first
+     * resource created by this writer until the last one
+     *
+     * @return The throughput or {@code 0} if nothing has been created
+     */
+    double getThroughput();
+}
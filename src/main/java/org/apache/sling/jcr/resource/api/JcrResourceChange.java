@@ -18,10 +18,14 @@
  */
 package org.apache.sling.jcr.resource.api;
 
+import java.util.Set;
+
 import org.apache.sling.api.resource.observation.ResourceChange;
 
 /**
  * Extension of {@code ResourceChange} to support user id and user data (if available)
+ * and the names of the changed properties for changes of type
+ * {@link ResourceChange.ChangeType#CHANGED}.
  */
 public final class JcrResourceChange extends ResourceChange {
 
@@ -39,6 +43,33 @@ public final class JcrResourceChange extends ResourceChange {
         this.userData = userData;
     }
 
+    /**
+     * Create a change with the names of the added, changed and removed properties
+     * @param changeType The change type
+     * @param path The path of the resource
+     * @param isExternal Whether the change happened on another cluster node
+     * @param userId The user id (may be {@code null})
+     * @param userData The user data (may be {@code null})
+     * @param addedPropertyNames The names of the added properties (may be {@code null})
+     * @param changedPropertyNames The names of the changed properties (may be {@code null})
+     * @param removedPropertyNames The names of the removed properties (may be {@code null})
+     * @since 1.2.0
+     */
+    @SuppressWarnings("deprecation")
+    public JcrResourceChange(
+            final ResourceChange.ChangeType changeType,
+            final String path,
+            final boolean isExternal,
+            final String userId,
+            final String userData,
+            final Set<String> addedPropertyNames,
+            final Set<String> changedPropertyNames,
+            final Set<String> removedPropertyNames) {
+        super(changeType, path, isExternal, addedPropertyNames, changedPropertyNames, removedPropertyNames);
+        this.userId = userId;
+        this.userData = userData;
+    }
+
     @Override
     public String getUserId() {
         return userId;
@@ -51,4 +82,40 @@ public final class JcrResourceChange extends ResourceChange {
     public String getUserData() {
         return userData;
     }
+
+    /**
+     * Get the names of the properties added to the resource, taken from the
+     * JCR observation events
+     * @return the property names or {@code null} if they are not known
+     * @since 1.2.0
+     */
+    @SuppressWarnings("deprecation")
+    @Override
+    public Set<String> getAddedPropertyNames() {
+        return super.getAddedPropertyNames();
+    }
+
+    /**
+     * Get the names of the properties of the resource which have been changed,
+     * taken from the JCR observation events
+     * @return the property names or {@code null} if they are not known
+     * @since 1.2.0
+     */
+    @SuppressWarnings("deprecation")
+    @Override
+    public Set<String> getChangedPropertyNames() {
+        return super.getChangedPropertyNames();
+    }
+
+    /**
+     * Get the names of the properties removed from the resource, taken from
+     * the JCR observation events
+     * @return the property names or {@code null} if they are not known
+     * @since 1.2.0
+     */
+    @SuppressWarnings("deprecation")
+    @Override
+    public Set<String> getRemovedPropertyNames() {
+        return super.getRemovedPropertyNames();
+    }
 }
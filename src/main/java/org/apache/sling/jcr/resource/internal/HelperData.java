@@ -18,15 +18,27 @@
  */
 package org.apache.sling.jcr.resource.internal;
 
+import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.sling.api.resource.external.URIProvider;
+import org.apache.sling.api.resource.path.PathSet;
 import org.apache.sling.commons.classloader.DynamicClassLoaderManager;
+import org.apache.sling.jcr.resource.internal.helper.ItemCache;
+import org.apache.sling.jcr.resource.internal.helper.NamespacePrefixCache;
+import org.apache.sling.jcr.resource.internal.helper.PropertySnapshot;
+import org.apache.sling.jcr.resource.internal.helper.SharedPropertyCache;
+import org.apache.sling.jcr.resource.internal.helper.VersionCache;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This is a helper class used to pass several services/data to the resource
@@ -34,25 +46,164 @@ import org.jetbrains.annotations.Nullable;
  */
 public class HelperData {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(HelperData.class);
+
     private static final URIProvider[] EMPTY_URLPROVIDERS = new URIProvider[0];
 
     private final AtomicReference<DynamicClassLoaderManager> dynamicClassLoaderManagerReference;
     private final AtomicReference<URIProvider[]> uriProviderReference;
 
-    private volatile String[] namespacePrefixes;
+    private final ItemCache itemCache;
+
+    private final SharedPropertyCache sharedPropertyCache;
+
+    /**
+     * The generation of the shared property cache when the helper data has
+     * been created, which happens right after the login of the session
+     */
+    private final long propertyCacheView;
+
+    private final NamespacePrefixCache namespacePrefixCache;
+
+    private final long serializationSpillThreshold;
+
+    private final AtomicReference<PathSet> excludedPathsReference;
+
+    private final VersionCache versionCache;
+
+    /**
+     * The generation of the version cache when the helper data has been
+     * created, which happens right after the login of the session
+     */
+    private final long versionCacheView;
+
+    /** The namespace prefixes of the session, only used if the shared cache is not used */
+    private volatile Set<String> namespacePrefixes;
+
+    /**
+     * Whether the session uses the prefixes of the namespace registry and
+     * therefore the shared cache, {@code null} if not checked yet
+     */
+    private volatile Boolean registryNamespacePrefixes;
 
     public HelperData(
             final @NotNull AtomicReference<DynamicClassLoaderManager> dynamicClassLoaderManagerReference,
             @NotNull AtomicReference<URIProvider[]> uriProviderReference) {
+        this(dynamicClassLoaderManagerReference, uriProviderReference, null, new JcrProviderSettings());
+    }
+
+    /**
+     * Create the helper data of a resolver
+     * @param dynamicClassLoaderManagerReference The dynamic class loader manager
+     * @param uriProviderReference The URI providers
+     * @param itemCache The item cache of the resolver, {@code null} if items are not cached
+     * @param settings The settings of the resource provider
+     */
+    public HelperData(
+            final @NotNull AtomicReference<DynamicClassLoaderManager> dynamicClassLoaderManagerReference,
+            final @NotNull AtomicReference<URIProvider[]> uriProviderReference,
+            final @Nullable ItemCache itemCache,
+            final @NotNull JcrProviderSettings settings) {
         this.dynamicClassLoaderManagerReference = dynamicClassLoaderManagerReference;
         this.uriProviderReference = uriProviderReference;
+        this.itemCache = itemCache;
+        this.sharedPropertyCache = settings.getSharedPropertyCache();
+        this.propertyCacheView = this.sharedPropertyCache == null ? -1 : this.sharedPropertyCache.getGeneration();
+        this.namespacePrefixCache = settings.getNamespacePrefixCache();
+        this.serializationSpillThreshold = settings.getSerializationSpillThreshold();
+        this.excludedPathsReference = settings.getExcludedPathsReference();
+        this.versionCache = settings.getVersionCache();
+        this.versionCacheView = this.versionCache == null ? -1 : this.versionCache.getGeneration();
+    }
+
+    /**
+     * Check whether a prefix is a registered namespace prefix. The prefixes are
+     * taken from the cache shared by all sessions if it can be used, otherwise
+     * they are read once from the session.
+     * @param session The session
+     * @param prefix The prefix
+     * @return {@code true} if the prefix is registered
+     * @throws RepositoryException If reading the prefixes fails
+     */
+    public boolean isNamespacePrefix(final @NotNull Session session, final @NotNull String prefix)
+            throws RepositoryException {
+        final NamespacePrefixCache cache = this.getNamespacePrefixCache(session);
+        if (cache != null) {
+            return cache.isPrefix(session, prefix);
+        }
+        return this.getSessionNamespacePrefixes(session).contains(prefix);
     }
 
-    public @NotNull String[] getNamespacePrefixes(final @NotNull Session session) throws RepositoryException {
-        if (this.namespacePrefixes == null) {
-            this.namespacePrefixes = session.getNamespacePrefixes();
+    private @NotNull Set<String> getSessionNamespacePrefixes(final @NotNull Session session)
+            throws RepositoryException {
+        Set<String> set = this.namespacePrefixes;
+        if (set == null) {
+            set = new HashSet<>(Arrays.asList(session.getNamespacePrefixes()));
+            this.namespacePrefixes = set;
         }
-        return this.namespacePrefixes;
+        return set;
+    }
+
+    /**
+     * The cache of namespace prefixes and escaped names shared by all
+     * sessions. It is not used for a session which remapped a namespace
+     * prefix. Like the prefixes of the session, this is checked once per
+     * session.
+     * @param session The session
+     * @return The cache or {@code null} if it is not active or the session remapped a prefix
+     * @throws RepositoryException If reading the prefixes fails
+     */
+    public @Nullable NamespacePrefixCache getNamespacePrefixCache(final @NotNull Session session)
+            throws RepositoryException {
+        final NamespacePrefixCache cache = this.namespacePrefixCache;
+        if (cache == null || !cache.isActive()) {
+            return null;
+        }
+        Boolean registryPrefixes = this.registryNamespacePrefixes;
+        if (registryPrefixes == null) {
+            registryPrefixes = cache.getPrefixes(session).equals(this.getSessionNamespacePrefixes(session));
+            this.registryNamespacePrefixes = registryPrefixes;
+        }
+        return registryPrefixes ? cache : null;
+    }
+
+    /**
+     * The size in bytes above which serialized objects are buffered in a
+     * temporary file while they are stored
+     * @return The threshold, {@code 0} if they are always buffered on the heap
+     */
+    public long getSerializationSpillThreshold() {
+        return this.serializationSpillThreshold;
+    }
+
+    /**
+     * The paths below the provider root which are served by other resource providers
+     * @return The excluded paths
+     */
+    public @NotNull PathSet getExcludedPaths() {
+        final PathSet paths = this.excludedPathsReference == null ? null : this.excludedPathsReference.get();
+        return paths == null ? PathSet.EMPTY_SET : paths;
+    }
+
+    /**
+     * The cache of versionable ancestors and frozen nodes shared by all
+     * sessions. Like the shared property cache, it is bypassed as soon as it
+     * has been invalidated after the session has been opened, as the session
+     * is not refreshed.
+     * @return The cache or {@code null} if it is not active or can't be used with the session
+     */
+    public @Nullable VersionCache getVersionCache() {
+        final VersionCache cache = this.versionCache;
+        return cache != null && cache.isActive() && cache.getGeneration() == this.versionCacheView ? cache : null;
+    }
+
+    /**
+     * The generation of the version cache to add entries with, which is the
+     * generation when the session has been opened.
+     * @return The generation of the version cache
+     */
+    public long getVersionCacheView() {
+        return this.versionCacheView;
     }
 
     public @Nullable ClassLoader getDynamicClassLoader() {
@@ -70,4 +221,64 @@ public class HelperData {
         }
         return ups;
     }
+
+    /**
+     * The item cache of the session
+     * @return The item cache or {@code null} if caching is disabled
+     */
+    public @Nullable ItemCache getItemCache() {
+        return this.itemCache;
+    }
+
+    /**
+     * Get the properties of a node from the cache shared by all sessions. The
+     * snapshot is only returned (and created if missing) if the node is below
+     * one of the cached roots, the session has a user id and no pending
+     * changes. Snapshots are only served to sessions of the same user.
+     *
+     * Snapshots must match the view of the session, which is not refreshed by
+     * this method. Therefore the shared cache is bypassed as soon as it has
+     * been invalidated after the session has been opened.
+     * @param node The node
+     * @return The snapshot or {@code null} if the shared cache can't be used for the node
+     */
+    public @Nullable PropertySnapshot getPropertySnapshot(final @NotNull Node node) {
+        final SharedPropertyCache cache = this.sharedPropertyCache;
+        if (cache == null || !cache.isActive() || cache.getGeneration() != this.propertyCacheView) {
+            return null;
+        }
+        try {
+            final String path = node.getPath();
+            if (cache.getRoot(path) == null) {
+                return null;
+            }
+            final Session session = node.getSession();
+            if (session.hasPendingChanges()) {
+                return null;
+            }
+            final String userId = session.getUserID();
+            if (userId == null) {
+                return null;
+            }
+            PropertySnapshot snapshot = cache.get(path, userId);
+            if (snapshot == null) {
+                snapshot = PropertySnapshot.create(node);
+                cache.put(path, userId, snapshot, this.propertyCacheView);
+            }
+            return snapshot;
+        } catch (final RepositoryException e) {
+            LOGGER.debug("Unable to use shared property cache for {}", node, e);
+            return null;
+        }
+    }
+
+    /**
+     * Invalidate all data cached for the session. This must be called
+     * whenever the session is modified, saved or refreshed.
+     */
+    public void invalidateCaches() {
+        if (this.itemCache != null) {
+            this.itemCache.clear();
+        }
+    }
 }
@@ -26,25 +26,47 @@ import javax.jcr.observation.ObservationManager;
 
 import java.io.Closeable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import org.apache.jackrabbit.api.observation.JackrabbitEventFilter;
 import org.apache.jackrabbit.api.observation.JackrabbitObservationManager;
 import org.apache.jackrabbit.oak.jcr.observation.filter.FilterFactory;
 import org.apache.jackrabbit.oak.jcr.observation.filter.OakEventFilter;
+import org.apache.sling.api.resource.observation.ResourceChange;
 import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
 import org.apache.sling.api.resource.path.Path;
 import org.apache.sling.jcr.api.SlingRepository;
 import org.apache.sling.spi.resource.provider.ObservationReporter;
 import org.apache.sling.spi.resource.provider.ObserverConfiguration;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This is the base configuration for a JCR listener, shared
  * by all registered {@link JcrResourceListener}s.
+ *
+ * If a shared listener is used, the {@link JcrResourceListener}s are not
+ * registered with the observation manager themselves. Instead a single
+ * {@link JcrResourceChangeDispatcher} is registered for the union of their
+ * paths, which passes the changes to the matching listeners.
+ *
+ * If a dispatch queue size is configured, the {@link JcrResourceListener}s
+ * report their changes through a {@link ResourceChangeQueue} on an executor
+ * instead of on the observation thread. If a coalescing window is configured,
+ * they merge their changes for the duration of the window before handing them
+ * to their queue, which is unbounded if no dispatch queue size is configured.
  */
 public class JcrListenerBaseConfig implements Closeable {
 
@@ -54,39 +76,233 @@ public class JcrListenerBaseConfig implements Closeable {
 
     private final ObservationReporter reporter;
 
-    @SuppressWarnings("deprecation")
+    /** The listener for all resource listeners, if a shared listener is used */
+    private final JcrResourceChangeDispatcher dispatcher;
+
+    /** The executor reporting the changes, if changes are queued or coalesced */
+    private final ExecutorService executor;
+
+    private final int dispatchQueueSize;
+
+    private final ResourceChangeQueue.OverflowPolicy overflowPolicy;
+
+    /** The queues of the resource listeners which are not closed yet */
+    private final Set<ResourceChangeQueue> queues = ConcurrentHashMap.newKeySet();
+
+    /** The scheduler ending the coalescing windows, if changes are coalesced */
+    private final ScheduledExecutorService coalesceScheduler;
+
+    private final long coalesceWindow;
+
+    private final int coalesceMaxChanges;
+
+    private final boolean collapseSubtrees;
+
     public JcrListenerBaseConfig(final @NotNull ObservationReporter reporter, final @NotNull SlingRepository repository)
             throws RepositoryException {
+        this(reporter, repository, new JcrProviderSettings());
+    }
+
+    /**
+     * Create a new base configuration
+     * @param reporter The observation reporter
+     * @param repository The repository
+     * @param settings The settings of the resource provider, defining whether a shared listener is used and how
+     *     the changes are queued, coalesced and collapsed
+     * @throws RepositoryException If the observation session can't be created
+     */
+    @SuppressWarnings("deprecation")
+    public JcrListenerBaseConfig(
+            final @NotNull ObservationReporter reporter,
+            final @NotNull SlingRepository repository,
+            final @NotNull JcrProviderSettings settings)
+            throws RepositoryException {
         this.reporter = reporter;
         // The session should have read access on the whole repository
         this.session = repository.loginService("observation", repository.getDefaultWorkspace());
+        this.collapseSubtrees = settings.isCollapseSubtrees();
+        this.dispatcher =
+                settings.isSharedObservationListener() ? new JcrResourceChangeDispatcher(this.collapseSubtrees) : null;
+        this.dispatchQueueSize = settings.getDispatchQueueSize();
+        this.overflowPolicy = settings.getDispatchOverflowPolicy();
+        this.coalesceWindow = settings.getCoalesceWindow();
+        this.coalesceMaxChanges = settings.getCoalesceMaxChanges();
+        this.executor = this.dispatchQueueSize > 0 || this.coalesceWindow > 0
+                ? createExecutor(settings.getDispatchThreads(), settings.isDispatchVirtualThreads())
+                : null;
+        this.coalesceScheduler = this.coalesceWindow > 0
+                ? Executors.newSingleThreadScheduledExecutor(newThreadFactory("sling-jcr-resource-coalesce-"))
+                : null;
+    }
+
+    private static ThreadFactory newThreadFactory(final String prefix) {
+        final AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Create the executor for reporting queued or coalesced changes. Virtual threads are
+     * looked up by reflection as they are not available on all supported
+     * Java versions.
+     */
+    private ExecutorService createExecutor(final int threads, final boolean virtualThreads) {
+        if (virtualThreads) {
+            try {
+                return (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor")
+                        .invoke(null);
+            } catch (final ReflectiveOperationException e) {
+                logger.info("Virtual threads are not available, using platform threads for reporting changes");
+            }
+        }
+        return Executors.newFixedThreadPool(Math.max(1, threads), newThreadFactory("sling-jcr-resource-dispatch-"));
+    }
+
+    /**
+     * Create a queue for reporting the changes of a resource listener
+     * asynchronously. If changes are only coalesced but not queued, the queue
+     * is unbounded, so the coalescers never have to wait for it.
+     * @param consumer The consumer reporting the changes
+     * @return The queue or {@code null} if changes are reported on the observation thread
+     */
+    public @Nullable ResourceChangeQueue createQueue(final @NotNull Consumer<List<ResourceChange>> consumer) {
+        final ResourceChangeQueue queue;
+        if (this.dispatchQueueSize > 0) {
+            queue = new ResourceChangeQueue(this.executor, this.dispatchQueueSize, this.overflowPolicy, consumer);
+        } else if (this.coalesceScheduler != null) {
+            queue = new ResourceChangeQueue(this.executor, Integer.MAX_VALUE, this.overflowPolicy, consumer);
+        } else {
+            return null;
+        }
+        this.queues.add(queue);
+        return queue;
+    }
+
+    /**
+     * Close a queue created by {@link #createQueue(Consumer)}
+     * @param queue The queue
+     */
+    public void closeQueue(final @NotNull ResourceChangeQueue queue) {
+        queue.close();
+        this.queues.remove(queue);
+    }
+
+    /**
+     * The queues of the resource listeners
+     * @return The queues which are not closed yet
+     */
+    public @NotNull Collection<ResourceChangeQueue> getQueues() {
+        return new ArrayList<>(this.queues);
+    }
+
+    /**
+     * Create a coalescer merging the changes of a resource listener
+     * @param queue The queue of the listener reporting the merged changes, see {@link #createQueue(Consumer)}
+     * @param collapsible Whether an addition or removal covers the changes below its path,
+     *     {@code null} to keep all changes
+     * @return The coalescer or {@code null} if changes are not coalesced
+     */
+    @Nullable
+    ResourceChangeCoalescer createCoalescer(
+            final @NotNull ResourceChangeQueue queue, final @Nullable Predicate<ResourceChange> collapsible) {
+        if (this.coalesceScheduler == null) {
+            return null;
+        }
+        return new ResourceChangeCoalescer(
+                this.coalesceScheduler, this.coalesceWindow, this.coalesceMaxChanges, queue, collapsible);
+    }
+
+    /**
+     * Whether the resource listeners drop the changes below an added or
+     * removed resource, if they observe the addition or removal itself
+     * @return {@code true} if subtrees are collapsed
+     */
+    public boolean isCollapseSubtrees() {
+        return this.collapseSubtrees;
+    }
+
+    /**
+     * Whether the resource listeners share a single JCR event listener
+     * @return {@code true} if a shared listener is used
+     */
+    public boolean isSharedListener() {
+        return this.dispatcher != null;
     }
 
     /**
      * Dispose this config
-     * Close session.
+     * Close session and stop the executors.
      */
     @Override
     public void close() {
+        if (this.executor != null) {
+            this.executor.shutdown();
+        }
+        if (this.coalesceScheduler != null) {
+            this.coalesceScheduler.shutdown();
+        }
         this.session.logout();
     }
 
     /**
-     * Register a JCR event listener
+     * Register a JCR event listener. If a shared listener is used, a
+     * {@link JcrResourceListener} is added to it instead and the shared
+     * listener is registered again for the union of all paths.
      * @param listener The listener
      * @param config The configuration
      * @throws RepositoryException If registration fails.
      */
     public void register(final @NotNull EventListener listener, final @NotNull ObserverConfiguration config)
             throws RepositoryException {
+        if (this.dispatcher != null && listener instanceof JcrResourceListener) {
+            this.dispatcher.add((JcrResourceListener) listener, config);
+            this.registerDispatcher();
+        } else {
+            this.register(
+                    listener,
+                    config.getPaths().toStringSet(),
+                    config.getExcludedPaths().toStringSet(),
+                    config.includeExternal(),
+                    config.getChangeTypes());
+        }
+    }
+
+    /**
+     * Register the shared listener for the union of the paths of the resource
+     * listeners, which replaces a previous registration, or unregister it if
+     * there are no resource listeners.
+     */
+    private synchronized void registerDispatcher() throws RepositoryException {
+        if (this.dispatcher.isEmpty()) {
+            this.session.getWorkspace().getObservationManager().removeEventListener(this.dispatcher);
+        } else {
+            this.register(
+                    this.dispatcher,
+                    this.dispatcher.getPaths(),
+                    this.dispatcher.getExcludedPaths(),
+                    this.dispatcher.includeExternal(),
+                    this.dispatcher.getChangeTypes());
+        }
+    }
+
+    private void register(
+            final @NotNull EventListener listener,
+            final @NotNull Set<String> paths,
+            final @NotNull Set<String> excludePaths,
+            final boolean includeExternal,
+            final @NotNull Collection<ChangeType> changeTypes)
+            throws RepositoryException {
         final ObservationManager mgr = this.session.getWorkspace().getObservationManager();
         if (mgr instanceof JackrabbitObservationManager) {
             final OakEventFilter filter = FilterFactory.wrap(new JackrabbitEventFilter());
             // paths
-            setFilterPaths(filter, config);
+            setFilterPaths(filter, paths);
 
             // exclude paths
-            final Set<String> excludePaths = config.getExcludedPaths().toStringSet();
             if (!excludePaths.isEmpty()) {
                 filter.setExcludedPaths(excludePaths.toArray(new String[0]));
             }
@@ -94,10 +310,10 @@ public class JcrListenerBaseConfig implements Closeable {
             filter.setIsDeep(true);
 
             // external
-            filter.setNoExternal(!config.includeExternal());
+            filter.setNoExternal(!includeExternal);
 
             // types
-            filter.setEventTypes(getTypes(config));
+            filter.setEventTypes(getTypes(changeTypes));
 
             // nt:file handling
             filter.withNodeTypeAggregate(new String[] {"nt:file"}, new String[] {"", "jcr:content"});
@@ -111,8 +327,40 @@ public class JcrListenerBaseConfig implements Closeable {
         }
     }
 
+    /**
+     * Register a JCR event listener for all changes, including external ones,
+     * below the paths.
+     * @param listener The listener
+     * @param paths The paths
+     * @throws RepositoryException If registration fails.
+     */
+    public void register(final @NotNull EventListener listener, final @NotNull String[] paths)
+            throws RepositoryException {
+        final ObservationManager mgr = this.session.getWorkspace().getObservationManager();
+        if (mgr instanceof JackrabbitObservationManager) {
+            final OakEventFilter filter = FilterFactory.wrap(new JackrabbitEventFilter());
+            filter.setAdditionalPaths(paths);
+            filter.setIsDeep(true);
+            filter.setNoExternal(false);
+            filter.setEventTypes(Event.NODE_ADDED
+                    | Event.NODE_REMOVED
+                    | Event.NODE_MOVED
+                    | Event.PROPERTY_ADDED
+                    | Event.PROPERTY_CHANGED
+                    | Event.PROPERTY_REMOVED);
+            filter.withIncludeAncestorsRemove();
+
+            ((JackrabbitObservationManager) mgr).addEventListener(listener, filter);
+        } else {
+            throw new RepositoryException("Observation manager is not a JackrabbitObservationManager");
+        }
+    }
+
     protected static void setFilterPaths(@NotNull OakEventFilter filter, @NotNull ObserverConfiguration config) {
-        final Set<String> paths = config.getPaths().toStringSet();
+        setFilterPaths(filter, config.getPaths().toStringSet());
+    }
+
+    private static void setFilterPaths(@NotNull OakEventFilter filter, @NotNull Set<String> paths) {
         // avoid any resizing of these lists
         List<String> pathList = new ArrayList<>(paths.size());
         List<String> globList = new ArrayList<>(paths.size());
@@ -133,13 +381,13 @@ public class JcrListenerBaseConfig implements Closeable {
     }
 
     /**
-     * Get the event types based on the configuration
-     * @param c The configuration
+     * Get the event types based on the change types of the configuration
+     * @param changeTypes The change types
      * @return The event type mask
      */
-    private static int getTypes(final @NotNull ObserverConfiguration c) {
+    private static int getTypes(final @NotNull Collection<ChangeType> changeTypes) {
         int result = 0;
-        for (ChangeType t : c.getChangeTypes()) {
+        for (ChangeType t : changeTypes) {
             switch (t) {
                 case ADDED:
                     result = result | Event.NODE_ADDED;
@@ -164,6 +412,14 @@ public class JcrListenerBaseConfig implements Closeable {
      * @param listener The listener
      */
     public void unregister(final EventListener listener) {
+        if (this.dispatcher != null && this.dispatcher.remove(listener)) {
+            try {
+                this.registerDispatcher();
+            } catch (final RepositoryException e) {
+                logger.warn("Unable to update shared session listener: " + this, e);
+            }
+            return;
+        }
         try {
             this.session.getWorkspace().getObservationManager().removeEventListener(listener);
         } catch (final RepositoryException e) {
@@ -51,6 +51,66 @@ public class JcrModifiableValueMap extends JcrValueMap implements ModifiableValu
      */
     @Override
     public Object put(final String aKey, final Object value) {
+        final String key = checkPutKey(aKey, value);
+        readFully();
+        final Object oldValue = this.get(key);
+        this.helper.invalidateCaches();
+        try {
+            this.cache.put(key, this.setValue(escapeKeyName(key), value));
+        } catch (final IOException | RepositoryException re) {
+            throw newPutException(key, value, re);
+        }
+        this.valueCache = null;
+
+        return oldValue;
+    }
+
+    /**
+     * Set a property like {@link #put(String, Object)}, but without reading all
+     * properties to return the previous value. The value is converted to a JCR
+     * value only once and the property is only read again when it is accessed.
+     * This is used whenever many properties are written at once, e.g. by
+     * {@link #putAll(Map)} and when creating a resource.
+     * @param aKey The key
+     * @param value The value
+     * @throws IllegalArgumentException If the value can't be stored
+     * @throws NullPointerException If the key or value is {@code null}
+     */
+    public void write(final String aKey, final Object value) {
+        final String key = checkPutKey(aKey, value);
+        this.helper.invalidateCaches();
+        try {
+            this.setValue(escapeKeyName(key), value);
+        } catch (final IOException | RepositoryException re) {
+            throw newPutException(key, value, re);
+        }
+        this.uncache(key);
+    }
+
+    /**
+     * Set a property, converting the value to a JCR value only once.
+     * @param name The JCR name of the property
+     * @param value The value
+     * @return The cache entry for the value
+     */
+    private @NotNull JcrPropertyMapCacheEntry setValue(final String name, final Object value)
+            throws IOException, RepositoryException {
+        if (JcrConstants.JCR_MIXINTYPES.equals(name) || JcrConstants.JCR_PRIMARYTYPE.equals(name)) {
+            final JcrPropertyMapCacheEntry entry = new JcrPropertyMapCacheEntry(value, this.node);
+            setSpecialProperty(name, entry);
+            return entry;
+        }
+        final Object jcrValue =
+                JcrPropertyMapCacheEntry.toJcrValue(value, this.node, this.helper.getSerializationSpillThreshold());
+        if (jcrValue instanceof Value[]) {
+            node.setProperty(name, (Value[]) jcrValue);
+        } else {
+            node.setProperty(name, (Value) jcrValue);
+        }
+        return new JcrPropertyMapCacheEntry(value, name);
+    }
+
+    private String checkPutKey(final String aKey, final Object value) {
         final String key = checkKey(aKey);
         if (key.indexOf('/') != -1) {
             throw new IllegalArgumentException("Invalid key: " + key);
@@ -58,31 +118,31 @@ public class JcrModifiableValueMap extends JcrValueMap implements ModifiableValu
         if (value == null) {
             throw new NullPointerException("Value should not be null (key = " + key + ")");
         }
-        readFully();
-        final Object oldValue = this.get(key);
-        try {
-            final JcrPropertyMapCacheEntry entry = new JcrPropertyMapCacheEntry(value, this.node);
-            this.cache.put(key, entry);
-            final String name = escapeKeyName(key);
-            if (JcrConstants.JCR_MIXINTYPES.equals(name)) {
-                NodeUtil.handleMixinTypes(
-                        node, entry.convertToType(String[].class, node, this.helper.getDynamicClassLoader()));
-            } else if ("jcr:primaryType".equals(name)) {
-                node.setPrimaryType(entry.convertToType(String.class, node, this.helper.getDynamicClassLoader()));
-            } else if (entry.isArray()) {
-                node.setProperty(name, entry.convertToType(Value[].class, node, this.helper.getDynamicClassLoader()));
-            } else {
-                node.setProperty(name, entry.convertToType(Value.class, node, this.helper.getDynamicClassLoader()));
-            }
-        } catch (final IOException | RepositoryException re) {
-            throw new IllegalArgumentException(
-                    "Value of class '" + value.getClass() + "' for property '" + key + "' can't be put into node '"
-                            + getPath() + "'.",
-                    re);
+        return key;
+    }
+
+    /**
+     * Handle the properties which are not set as properties.
+     * @return {@code true} if the property has been handled
+     */
+    private boolean setSpecialProperty(final String name, final JcrPropertyMapCacheEntry entry)
+            throws RepositoryException {
+        if (JcrConstants.JCR_MIXINTYPES.equals(name)) {
+            NodeUtil.handleMixinTypes(
+                    node, entry.convertToType(String[].class, node, this.helper.getDynamicClassLoader()));
+            return true;
+        } else if (JcrConstants.JCR_PRIMARYTYPE.equals(name)) {
+            node.setPrimaryType(entry.convertToType(String.class, node, this.helper.getDynamicClassLoader()));
+            return true;
         }
-        this.valueCache.put(key, value);
+        return false;
+    }
 
-        return oldValue;
+    private IllegalArgumentException newPutException(final String key, final Object value, final Exception cause) {
+        return new IllegalArgumentException(
+                "Value of class '" + value.getClass() + "' for property '" + key + "' can't be put into node '"
+                        + getPath() + "'.",
+                cause);
     }
 
     /**
@@ -96,7 +156,7 @@ public class JcrModifiableValueMap extends JcrValueMap implements ModifiableValu
                 @SuppressWarnings("unchecked")
                 final Map.Entry<? extends String, ? extends Object> entry =
                         (Map.Entry<? extends String, ? extends Object>) i.next();
-                put(entry.getKey(), entry.getValue());
+                write(entry.getKey(), entry.getValue());
             }
         }
     }
@@ -108,8 +168,10 @@ public class JcrModifiableValueMap extends JcrValueMap implements ModifiableValu
     public Object remove(final Object aKey) {
         final String key = checkKey(aKey.toString());
         readFully();
-        this.cache.remove(key);
-        final Object oldValue = this.valueCache.remove(key);
+        final JcrPropertyMapCacheEntry oldEntry = this.cache.remove(key);
+        final Object oldValue = oldEntry == null ? null : oldEntry.getPropertyValueOrNull();
+        this.valueCache = null;
+        this.helper.invalidateCaches();
         try {
             final String name = escapeKeyName(key);
             Property property = NodeUtil.getPropertyOrNull(node, name);
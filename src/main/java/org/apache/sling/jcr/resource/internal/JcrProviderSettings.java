@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.sling.api.resource.path.PathSet;
+import org.apache.sling.jcr.resource.internal.helper.NamespacePrefixCache;
+import org.apache.sling.jcr.resource.internal.helper.SharedPropertyCache;
+import org.apache.sling.jcr.resource.internal.helper.VersionCache;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The settings of the JCR resource provider, together with the caches shared
+ * by all resolvers. They are created once from the configuration of the
+ * provider and passed to the provider states, the {@link HelperData} and the
+ * {@link JcrListenerBaseConfig}. A new instance has the defaults, which
+ * disable all caches and report changes synchronously.
+ */
+public class JcrProviderSettings {
+
+    private int itemCacheSize;
+
+    private SharedPropertyCache sharedPropertyCache;
+
+    private NamespacePrefixCache namespacePrefixCache;
+
+    private long serializationSpillThreshold;
+
+    private AtomicReference<PathSet> excludedPathsReference;
+
+    private VersionCache versionCache;
+
+    private boolean sharedObservationListener;
+
+    private int dispatchQueueSize;
+
+    private ResourceChangeQueue.OverflowPolicy dispatchOverflowPolicy = ResourceChangeQueue.OverflowPolicy.COALESCE;
+
+    private int dispatchThreads = 1;
+
+    private boolean dispatchVirtualThreads;
+
+    private long coalesceWindow;
+
+    private int coalesceMaxChanges;
+
+    private boolean collapseSubtrees;
+
+    /**
+     * The maximum number of items cached per resolver
+     * @return The size, {@code 0} if items are not cached
+     */
+    public int getItemCacheSize() {
+        return this.itemCacheSize;
+    }
+
+    public void setItemCacheSize(final int itemCacheSize) {
+        this.itemCacheSize = itemCacheSize;
+    }
+
+    /**
+     * The property cache shared by all resolvers
+     * @return The cache or {@code null} if it is not configured
+     */
+    public @Nullable SharedPropertyCache getSharedPropertyCache() {
+        return this.sharedPropertyCache;
+    }
+
+    public void setSharedPropertyCache(final @Nullable SharedPropertyCache sharedPropertyCache) {
+        this.sharedPropertyCache = sharedPropertyCache;
+    }
+
+    /**
+     * The namespace prefixes and escaped names shared by all resolvers
+     * @return The cache or {@code null} if it is disabled
+     */
+    public @Nullable NamespacePrefixCache getNamespacePrefixCache() {
+        return this.namespacePrefixCache;
+    }
+
+    public void setNamespacePrefixCache(final @Nullable NamespacePrefixCache namespacePrefixCache) {
+        this.namespacePrefixCache = namespacePrefixCache;
+    }
+
+    /**
+     * The size in bytes above which serialized objects are buffered in a temporary file
+     * @return The threshold, {@code 0} if they are always buffered on the heap
+     */
+    public long getSerializationSpillThreshold() {
+        return this.serializationSpillThreshold;
+    }
+
+    public void setSerializationSpillThreshold(final long serializationSpillThreshold) {
+        this.serializationSpillThreshold = serializationSpillThreshold;
+    }
+
+    /**
+     * The paths below the provider root which are served by other resource providers
+     * @return The reference to the paths or {@code null} if there are none
+     */
+    public @Nullable AtomicReference<PathSet> getExcludedPathsReference() {
+        return this.excludedPathsReference;
+    }
+
+    public void setExcludedPathsReference(final @Nullable AtomicReference<PathSet> excludedPathsReference) {
+        this.excludedPathsReference = excludedPathsReference;
+    }
+
+    /**
+     * The cache of versionable ancestors and frozen nodes shared by all resolvers
+     * @return The cache or {@code null} if it is not configured
+     */
+    public @Nullable VersionCache getVersionCache() {
+        return this.versionCache;
+    }
+
+    public void setVersionCache(final @Nullable VersionCache versionCache) {
+        this.versionCache = versionCache;
+    }
+
+    /**
+     * Whether the resource listeners share a single JCR event listener
+     * @return {@code true} if a shared listener is used
+     */
+    public boolean isSharedObservationListener() {
+        return this.sharedObservationListener;
+    }
+
+    public void setSharedObservationListener(final boolean sharedObservationListener) {
+        this.sharedObservationListener = sharedObservationListener;
+    }
+
+    /**
+     * The maximum number of changes queued per resource listener
+     * @return The size, {@code 0} to report the changes on the observation thread
+     */
+    public int getDispatchQueueSize() {
+        return this.dispatchQueueSize;
+    }
+
+    public void setDispatchQueueSize(final int dispatchQueueSize) {
+        this.dispatchQueueSize = dispatchQueueSize;
+    }
+
+    /**
+     * What happens with changes which don't fit into a queue
+     * @return The overflow policy
+     */
+    public @NotNull ResourceChangeQueue.OverflowPolicy getDispatchOverflowPolicy() {
+        return this.dispatchOverflowPolicy;
+    }
+
+    public void setDispatchOverflowPolicy(final @NotNull ResourceChangeQueue.OverflowPolicy dispatchOverflowPolicy) {
+        this.dispatchOverflowPolicy = dispatchOverflowPolicy;
+    }
+
+    /**
+     * The number of platform threads reporting queued or coalesced changes
+     * @return The number of threads
+     */
+    public int getDispatchThreads() {
+        return this.dispatchThreads;
+    }
+
+    public void setDispatchThreads(final int dispatchThreads) {
+        this.dispatchThreads = dispatchThreads;
+    }
+
+    /**
+     * Whether queued or coalesced changes are reported by virtual threads, if available
+     * @return {@code true} if virtual threads are used
+     */
+    public boolean isDispatchVirtualThreads() {
+        return this.dispatchVirtualThreads;
+    }
+
+    public void setDispatchVirtualThreads(final boolean dispatchVirtualThreads) {
+        this.dispatchVirtualThreads = dispatchVirtualThreads;
+    }
+
+    /**
+     * The time in milliseconds a resource listener merges changes before reporting them
+     * @return The window, {@code 0} to report them per observation event batch
+     */
+    public long getCoalesceWindow() {
+        return this.coalesceWindow;
+    }
+
+    public void setCoalesceWindow(final long coalesceWindow) {
+        this.coalesceWindow = coalesceWindow;
+    }
+
+    /**
+     * The maximum number of merged changes after which a window ends early
+     * @return The number of changes, {@code 0} for no limit
+     */
+    public int getCoalesceMaxChanges() {
+        return this.coalesceMaxChanges;
+    }
+
+    public void setCoalesceMaxChanges(final int coalesceMaxChanges) {
+        this.coalesceMaxChanges = coalesceMaxChanges;
+    }
+
+    /**
+     * Whether changes below an added or removed resource are dropped
+     * @return {@code true} if subtrees are collapsed
+     */
+    public boolean isCollapseSubtrees() {
+        return this.collapseSubtrees;
+    }
+
+    public void setCollapseSubtrees(final boolean collapseSubtrees) {
+        this.collapseSubtrees = collapseSubtrees;
+    }
+}
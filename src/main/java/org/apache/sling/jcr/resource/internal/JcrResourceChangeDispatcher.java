@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.apache.sling.api.resource.path.Path;
+import org.apache.sling.spi.resource.provider.ObserverConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A single JCR observation listener for all {@link JcrResourceListener}s of a
+ * {@link JcrListenerBaseConfig}, which is registered for the union of their
+ * paths. The events are translated into resource changes once and each change
+ * is passed to the listeners whose configuration matches it. The listeners are
+ * found with a {@link PathTrie} of the observed paths, so the effort per change
+ * depends on the depth of its path rather than on the number of listeners.
+ *
+ * Like the filters of separately registered listeners, a removal is also
+ * passed to the listeners observing a path below the removed node.
+ *
+ * If subtrees are collapsed, the changes below an addition or removal are
+ * already dropped while translating the events, as long as every listener
+ * observes the addition or removal itself. Otherwise each listener drops them
+ * when the changes are reported to it.
+ *
+ * The listeners are called one after the other on the observation thread, so
+ * unlike with separately registered listeners a slow listener delays all
+ * others. With a dispatch queue or a coalescing window the listeners only
+ * hand the changes over and report them on the executor of the
+ * {@link JcrListenerBaseConfig}.
+ */
+class JcrResourceChangeDispatcher implements EventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(JcrResourceChangeDispatcher.class);
+
+    /** The registered listeners and their configuration */
+    private final Map<JcrResourceListener, ObserverConfiguration> listeners = new LinkedHashMap<>();
+
+    /** The trie of the observed paths, replaced whenever the listeners change */
+    private volatile PathTrie<Target> trie = new PathTrie<>();
+
+    /** The listeners, replaced whenever the listeners change */
+    private volatile List<JcrResourceListener> listenerList = new ArrayList<>();
+
+    /** Whether an addition or removal covers the changes below its path, {@code null} to keep all changes */
+    private final Predicate<ResourceChange> collapsible;
+
+    /**
+     * A listener attached to one of the paths of its configuration
+     */
+    private static final class Target {
+
+        private final JcrResourceListener listener;
+
+        private final ObserverConfiguration config;
+
+        private final Path path;
+
+        Target(final JcrResourceListener listener, final ObserverConfiguration config, final Path path) {
+            this.listener = listener;
+            this.config = config;
+            this.path = path;
+        }
+
+        /**
+         * Check whether the change is reported to the listener. Apart from
+         * patterns, the path has been matched by the trie already.
+         */
+        boolean matches(final ResourceChange change) {
+            if (change.isExternal() && !this.config.includeExternal()) {
+                return false;
+            }
+            if (!this.config.getChangeTypes().contains(change.getType())) {
+                return false;
+            }
+            if (this.config.getExcludedPaths().matches(change.getPath()) != null) {
+                return false;
+            }
+            return !this.path.isPattern() || this.path.matches(change.getPath());
+        }
+    }
+
+    JcrResourceChangeDispatcher() {
+        this(false);
+    }
+
+    /**
+     * Create a new dispatcher
+     * @param collapseSubtrees Whether changes below an added or removed resource are dropped
+     */
+    JcrResourceChangeDispatcher(final boolean collapseSubtrees) {
+        this.collapsible = collapseSubtrees ? this::isCollapsible : null;
+    }
+
+    /**
+     * Add a listener or update its configuration
+     * @param listener The listener
+     * @param config The configuration
+     */
+    synchronized void add(final @NotNull JcrResourceListener listener, final @NotNull ObserverConfiguration config) {
+        this.listeners.put(listener, config);
+        this.updateTrie();
+    }
+
+    /**
+     * Remove a listener
+     * @param listener The listener
+     * @return {@code true} if the listener has been registered
+     */
+    synchronized boolean remove(final @NotNull EventListener listener) {
+        if (this.listeners.remove(listener) != null) {
+            this.updateTrie();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether no listener is registered
+     * @return {@code true} if no listener is registered
+     */
+    synchronized boolean isEmpty() {
+        return this.listeners.isEmpty();
+    }
+
+    /**
+     * The union of the paths observed by the listeners
+     * @return The paths and glob patterns
+     */
+    synchronized @NotNull Set<String> getPaths() {
+        final Set<String> paths = new HashSet<>();
+        for (final ObserverConfiguration config : this.listeners.values()) {
+            paths.addAll(config.getPaths().toStringSet());
+        }
+        return paths;
+    }
+
+    /**
+     * The paths excluded by all listeners
+     * @return The excluded paths
+     */
+    synchronized @NotNull Set<String> getExcludedPaths() {
+        Set<String> paths = null;
+        for (final ObserverConfiguration config : this.listeners.values()) {
+            if (paths == null) {
+                paths = new HashSet<>(config.getExcludedPaths().toStringSet());
+            } else {
+                paths.retainAll(config.getExcludedPaths().toStringSet());
+            }
+        }
+        return paths == null ? new HashSet<>() : paths;
+    }
+
+    /**
+     * Whether any listener is interested in external changes
+     * @return {@code true} if external changes are observed
+     */
+    synchronized boolean includeExternal() {
+        for (final ObserverConfiguration config : this.listeners.values()) {
+            if (config.includeExternal()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The union of the change types observed by the listeners
+     * @return The change types
+     */
+    synchronized @NotNull Set<ChangeType> getChangeTypes() {
+        final Set<ChangeType> types = EnumSet.noneOf(ChangeType.class);
+        for (final ObserverConfiguration config : this.listeners.values()) {
+            types.addAll(config.getChangeTypes());
+        }
+        return types;
+    }
+
+    private void updateTrie() {
+        final PathTrie<Target> newTrie = new PathTrie<>();
+        for (final Map.Entry<JcrResourceListener, ObserverConfiguration> entry : this.listeners.entrySet()) {
+            for (final Path path : entry.getValue().getPaths()) {
+                newTrie.add(path.getPath(), new Target(entry.getKey(), entry.getValue(), path));
+            }
+        }
+        this.trie = newTrie;
+        this.listenerList = new ArrayList<>(this.listeners.keySet());
+    }
+
+    /**
+     * Check whether an addition or removal covers the changes below its path
+     * for all listeners, which is the case if each of them observes the change
+     * itself.
+     * @param change The change
+     * @return {@code true} if the change covers its subtree
+     */
+    boolean isCollapsible(final @NotNull ResourceChange change) {
+        final List<JcrResourceListener> current = this.listenerList;
+        if (current.isEmpty()) {
+            return false;
+        }
+        for (final JcrResourceListener listener : current) {
+            if (!listener.isCollapsible(change)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @see javax.jcr.observation.EventListener#onEvent(javax.jcr.observation.EventIterator)
+     */
+    @Override
+    public void onEvent(final EventIterator events) {
+        final List<ResourceChange> changes = JcrResourceListener.toResourceChanges(events, this.collapsible);
+        if (!changes.isEmpty()) {
+            this.dispatch(changes);
+        }
+    }
+
+    /**
+     * Pass the changes to the matching listeners, one listener after the other
+     * @param changes The changes
+     */
+    void dispatch(final @NotNull List<ResourceChange> changes) {
+        final PathTrie<Target> current = this.trie;
+        final Map<JcrResourceListener, List<ResourceChange>> matches = new LinkedHashMap<>();
+        for (final ResourceChange change : changes) {
+            current.collect(change.getPath(), change.getType() == ChangeType.REMOVED, target -> {
+                if (target.matches(change)) {
+                    final List<ResourceChange> list =
+                            matches.computeIfAbsent(target.listener, key -> new ArrayList<>());
+                    // a configuration with several matching paths gets the change once
+                    if (list.isEmpty() || list.get(list.size() - 1) != change) {
+                        list.add(change);
+                    }
+                }
+            });
+        }
+        for (final Map.Entry<JcrResourceListener, List<ResourceChange>> entry : matches.entrySet()) {
+            try {
+                entry.getKey().report(entry.getValue());
+            } catch (final RuntimeException e) {
+                logger.warn("Unable to report changes to {}", entry.getKey(), e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "JcrResourceChangeDispatcher [listeners=" + this.listeners.size() + "]";
+    }
+}
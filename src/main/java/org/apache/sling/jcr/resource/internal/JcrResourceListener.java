@@ -24,10 +24,12 @@ import javax.jcr.observation.EventIterator;
 import javax.jcr.observation.EventListener;
 
 import java.io.Closeable;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
 import org.apache.jackrabbit.api.observation.JackrabbitEvent;
 import org.apache.sling.api.resource.observation.ResourceChange;
@@ -55,12 +57,27 @@ public class JcrResourceListener implements EventListener, Closeable {
 
     private final JcrListenerBaseConfig baseConfig;
 
+    /** The queue of changes which are reported asynchronously, {@code null} if they are reported right away */
+    private final ResourceChangeQueue queue;
+
+    /** The coalescer merging changes before they are reported, {@code null} if they are not merged */
+    private final ResourceChangeCoalescer coalescer;
+
+    /**
+     * Whether a change covers the changes below its path, {@code null} if
+     * subtrees are not collapsed
+     */
+    private final Predicate<ResourceChange> collapsible;
+
     private static final Logger logger = LoggerFactory.getLogger(JcrResourceListener.class);
 
     public JcrResourceListener(final JcrListenerBaseConfig listenerConfig, final ObserverConfiguration config)
             throws RepositoryException {
         this.baseConfig = listenerConfig;
         this.config = config;
+        this.collapsible = this.baseConfig.isCollapseSubtrees() ? this::isCollapsible : null;
+        this.queue = this.baseConfig.createQueue(this::reportChanges);
+        this.coalescer = this.queue == null ? null : this.baseConfig.createCoalescer(this.queue, this.collapsible);
         this.baseConfig.register(this, config);
     }
 
@@ -88,6 +105,14 @@ public class JcrResourceListener implements EventListener, Closeable {
     public void close() {
         // unregister from observations
         this.baseConfig.unregister(this);
+        if (this.coalescer != null) {
+            logger.debug("Closing coalescer for {}: {}", this.config.getPaths(), this.coalescer);
+            this.coalescer.close();
+        }
+        if (this.queue != null) {
+            logger.debug("Closing queue for {}: {}", this.config.getPaths(), this.queue);
+            this.baseConfig.closeQueue(this.queue);
+        }
     }
 
     /**
@@ -95,9 +120,102 @@ public class JcrResourceListener implements EventListener, Closeable {
      */
     @Override
     public void onEvent(final EventIterator events) {
-        final Map<String, ResourceChange> addedEvents = new HashMap<>();
-        final Map<String, ResourceChange> changedEvents = new HashMap<>();
-        final Map<String, ResourceChange> removedEvents = new HashMap<>();
+        this.submit(toResourceChanges(events, this.collapsible));
+    }
+
+    /**
+     * Report resource changes to the observation reporter, either right away
+     * or through the coalescer and the queue. If subtrees are collapsed, the
+     * changes below an added or removed resource are dropped first.
+     *
+     * @param changes The changes matching the observation configuration
+     */
+    void report(final List<ResourceChange> changes) {
+        if (this.collapsible != null) {
+            final ResourceChangeMerger merger = new ResourceChangeMerger(this.collapsible);
+            merger.addAll(changes);
+            this.submit(merger.getChanges());
+        } else {
+            this.submit(changes);
+        }
+    }
+
+    private void submit(final List<ResourceChange> changes) {
+        if (this.coalescer != null) {
+            this.coalescer.add(changes);
+        } else {
+            this.deliver(changes);
+        }
+    }
+
+    private void deliver(final List<ResourceChange> changes) {
+        if (this.queue != null) {
+            this.queue.offer(changes);
+        } else {
+            this.reportChanges(changes);
+        }
+    }
+
+    private void reportChanges(final List<ResourceChange> changes) {
+        this.baseConfig.getReporter().reportChanges(this.config, changes, false);
+    }
+
+    /**
+     * Check whether an addition or removal may replace the changes below its
+     * path. This is only the case if the listener is interested in the change
+     * itself, otherwise it would not learn about the subtree at all.
+     *
+     * @param change The change
+     * @return {@code true} if the change covers its subtree
+     */
+    boolean isCollapsible(final ResourceChange change) {
+        final ObserverConfiguration cfg = this.config;
+        if (change.getType() == ChangeType.CHANGED || !cfg.getChangeTypes().contains(change.getType())) {
+            return false;
+        }
+        if (change.isExternal() && !cfg.includeExternal()) {
+            return false;
+        }
+        return cfg.getPaths().matches(change.getPath()) != null
+                && cfg.getExcludedPaths().matches(change.getPath()) == null;
+    }
+
+    /**
+     * Get the queue of changes
+     * @return The queue or {@code null} if changes are reported right away
+     */
+    ResourceChangeQueue getQueue() {
+        return this.queue;
+    }
+
+    /**
+     * Translate JCR observation events into resource changes. Property events
+     * are reported as a change of their node carrying the property names, and
+     * per path a removal is stronger than an addition which is stronger than a
+     * change.
+     *
+     * @param events The events
+     * @return The resource changes
+     */
+    static List<ResourceChange> toResourceChanges(final EventIterator events) {
+        return toResourceChanges(events, null);
+    }
+
+    /**
+     * Translate JCR observation events into resource changes, optionally
+     * collapsing subtrees.
+     *
+     * @param events The events
+     * @param collapsible Whether an addition or removal covers the changes below its path,
+     *     {@code null} to keep all changes
+     * @return The resource changes
+     * @see ResourceChangeMerger#ResourceChangeMerger(Predicate)
+     */
+    static List<ResourceChange> toResourceChanges(
+            final EventIterator events, final Predicate<ResourceChange> collapsible) {
+        final ResourceChangeMerger merger = new ResourceChangeMerger(collapsible);
+        // the property events per resource, reported once all events are known
+        final Map<String, PropertyEvents> propertyEvents = new LinkedHashMap<>();
 
         while (events.hasNext()) {
             final Event event = events.nextEvent();
@@ -116,48 +234,79 @@ public class JcrResourceListener implements EventListener, Closeable {
             final String eventPath = (identifier != null && identifier.startsWith("/") ? identifier : path);
             final int type = event.getType();
 
+            final String rsrcPath;
+            final ChangeType changeType;
             if (type == PROPERTY_ADDED && path.endsWith("/jcr:primaryType")) {
                 final int lastSlash = path.lastIndexOf('/');
-                final String rsrcPath = path.substring(0, lastSlash);
-
-                // add is stronger than update
-                changedEvents.remove(rsrcPath);
-                addedEvents.put(rsrcPath, createResourceChange(event, rsrcPath, ChangeType.ADDED));
+                rsrcPath = path.substring(0, lastSlash);
+                changeType = ChangeType.ADDED;
             } else if (type == PROPERTY_ADDED || type == PROPERTY_REMOVED || type == PROPERTY_CHANGED) {
-                final String rsrcPath;
                 if (identifier == null || !identifier.startsWith("/")) {
                     final int lastSlash = eventPath.lastIndexOf('/');
                     rsrcPath = eventPath.substring(0, lastSlash);
                 } else {
                     rsrcPath = eventPath;
                 }
-                if (!addedEvents.containsKey(rsrcPath)
-                        && !removedEvents.containsKey(rsrcPath)
-                        && !changedEvents.containsKey(rsrcPath)) {
-
-                    changedEvents.put(rsrcPath, createResourceChange(event, rsrcPath, ChangeType.CHANGED));
+                // only collect the property if the change is not superseded anyway
+                if (!merger.contains(rsrcPath) && !merger.isCollapsed(rsrcPath)) {
+                    propertyEvents
+                            .computeIfAbsent(rsrcPath, key -> new PropertyEvents(event))
+                            .add(type, path.substring(path.lastIndexOf('/') + 1));
                 }
+                continue;
             } else if (type == NODE_ADDED) {
-                // add is stronger than update
-                changedEvents.remove(eventPath);
-                addedEvents.put(eventPath, createResourceChange(event, eventPath, ChangeType.ADDED));
+                rsrcPath = eventPath;
+                changeType = ChangeType.ADDED;
             } else if (type == NODE_REMOVED) {
-                // remove is stronger than add and change
-                addedEvents.remove(eventPath);
-                changedEvents.remove(eventPath);
-                removedEvents.put(eventPath, createResourceChange(event, eventPath, ChangeType.REMOVED));
+                rsrcPath = eventPath;
+                changeType = ChangeType.REMOVED;
+            } else {
+                continue;
+            }
+            // nor if it is covered by the change of an ancestor
+            if (!merger.isCollapsed(rsrcPath)) {
+                merger.add(createResourceChange(event, rsrcPath, changeType, null));
             }
         }
+        for (final Map.Entry<String, PropertyEvents> entry : propertyEvents.entrySet()) {
+            final PropertyEvents properties = entry.getValue();
+            merger.add(createResourceChange(properties.event, entry.getKey(), ChangeType.CHANGED, properties));
+        }
 
-        final List<ResourceChange> changes = new ArrayList<>();
-        changes.addAll(addedEvents.values());
-        changes.addAll(removedEvents.values());
-        changes.addAll(changedEvents.values());
-        this.baseConfig.getReporter().reportChanges(this.config, changes, false);
+        return merger.getChanges();
+    }
+
+    /**
+     * The names of the properties of a resource from the property events
+     */
+    private static final class PropertyEvents {
+
+        /** The first event, providing user id and user data */
+        private final Event event;
+
+        private final Set<String> added = new HashSet<>();
+
+        private final Set<String> changed = new HashSet<>();
+
+        private final Set<String> removed = new HashSet<>();
+
+        PropertyEvents(final Event event) {
+            this.event = event;
+        }
+
+        void add(final int type, final String name) {
+            if (type == PROPERTY_ADDED) {
+                this.added.add(name);
+            } else if (type == PROPERTY_CHANGED) {
+                this.changed.add(name);
+            } else {
+                this.removed.add(name);
+            }
+        }
     }
 
     private static ResourceChange createResourceChange(
-            final Event event, final String path, final ChangeType changeType) {
+            final Event event, final String path, final ChangeType changeType, final PropertyEvents properties) {
         final boolean isExternal = isExternal(event);
         String userId = null;
         String userData = null;
@@ -171,6 +320,17 @@ public class JcrResourceListener implements EventListener, Closeable {
                 logger.debug("Could not access user data from event {} ", event, e);
             }
         }
+        if (properties != null) {
+            return new JcrResourceChange(
+                    changeType,
+                    path,
+                    isExternal,
+                    userId,
+                    userData,
+                    properties.added,
+                    properties.changed,
+                    properties.removed);
+        }
         return new JcrResourceChange(changeType, path, isExternal, userId, userData);
     }
 
@@ -36,8 +36,10 @@ import java.util.Set;
 import org.apache.jackrabbit.util.ISO9075;
 import org.apache.jackrabbit.util.Text;
 import org.apache.sling.api.resource.ModifiableValueMap;
-import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.jcr.resource.api.BulkReadValueMap;
 import org.apache.sling.jcr.resource.internal.helper.JcrPropertyMapCacheEntry;
+import org.apache.sling.jcr.resource.internal.helper.NamespacePrefixCache;
+import org.apache.sling.jcr.resource.internal.helper.PropertySnapshot;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -45,7 +47,14 @@ import org.jetbrains.annotations.Nullable;
  * This implementation of the value map allows to change
  * the properties.
  */
-public class JcrValueMap implements ValueMap {
+public class JcrValueMap implements BulkReadValueMap {
+
+    /**
+     * The number of properties not read yet from which on a bulk read reads
+     * all properties of the node in one pass instead of looking them up one by
+     * one, provided they are at least half of the properties of the node.
+     */
+    static final int BULK_READ_THRESHOLD = 8;
 
     /** The underlying node. */
     protected final Node node;
@@ -53,12 +62,22 @@ public class JcrValueMap implements ValueMap {
     /** A cache for the properties. */
     protected final Map<String, JcrPropertyMapCacheEntry> cache = new LinkedHashMap<>();
 
-    /** A cache for the values. */
-    protected final Map<String, Object> valueCache = new LinkedHashMap<>();
+    /**
+     * The values of all properties, only created on demand as the cache entries
+     * keep primitive values unboxed. Must be reset to {@code null} whenever the
+     * cache is modified.
+     */
+    protected Map<String, Object> valueCache;
 
     /** Has the node been read completely? */
     private boolean fullyRead = false;
 
+    /** Has the shared property cache been checked already? */
+    private boolean snapshotChecked = false;
+
+    /** The snapshot of the shared property cache, if any */
+    private PropertySnapshot snapshot;
+
     /** Helper data object */
     protected final HelperData helper;
 
@@ -140,6 +159,54 @@ public class JcrValueMap implements ValueMap {
         return value;
     }
 
+    /**
+     * @see org.apache.sling.jcr.resource.api.BulkReadValueMap#getAll(java.lang.String[], java.lang.Class[])
+     */
+    @Override
+    public @NotNull Object[] getAll(final @NotNull String[] names, final @NotNull Class<?>[] types) {
+        if (names.length != types.length) {
+            throw new IllegalArgumentException(
+                    "Got " + names.length + " names but " + types.length + " types for bulk read.");
+        }
+        final String[] keys = new String[names.length];
+        int unread = 0;
+        for (int i = 0; i < names.length; i++) {
+            keys[i] = checkKey(names[i]);
+            if (!fullyRead && keys[i].indexOf('/') == -1 && !cache.containsKey(keys[i])) {
+                unread++;
+            }
+        }
+        // a single pass over all properties avoids escaping and looking up each name,
+        // unless the node has many more properties than requested
+        if (unread >= BULK_READ_THRESHOLD && unread * 2L >= this.getUnreadPropertyCount()) {
+            readFully();
+        }
+        final ClassLoader dynamicClassLoader = helper.getDynamicClassLoader();
+        final Object[] values = new Object[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            final JcrPropertyMapCacheEntry entry = this.read(keys[i]);
+            if (entry != null) {
+                values[i] = types[i] == null
+                        ? entry.getPropertyValueOrNull()
+                        : entry.convertToType(types[i], node, dynamicClassLoader);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * The number of properties of the node not read yet
+     * @return The number of properties or {@link Long#MAX_VALUE} if it is not known
+     */
+    private long getUnreadPropertyCount() {
+        try {
+            final long size = node.getProperties().getSize();
+            return size < 0 ? Long.MAX_VALUE : size - cache.size();
+        } catch (final RepositoryException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
     // ---------- Map
 
     /**
@@ -165,8 +232,7 @@ public class JcrValueMap implements ValueMap {
      */
     @Override
     public boolean containsValue(final Object value) {
-        readFully();
-        return valueCache.containsValue(value);
+        return getValues().containsValue(value);
     }
 
     /**
@@ -191,14 +257,7 @@ public class JcrValueMap implements ValueMap {
      */
     @Override
     public @NotNull Set<java.util.Map.Entry<String, Object>> entrySet() {
-        readFully();
-        final Map<String, Object> sourceMap;
-        if (cache.size() == valueCache.size()) {
-            sourceMap = valueCache;
-        } else {
-            sourceMap = transformEntries(cache);
-        }
-        return Collections.unmodifiableSet(sourceMap.entrySet());
+        return Collections.unmodifiableSet(getValues().entrySet());
     }
 
     /**
@@ -215,14 +274,19 @@ public class JcrValueMap implements ValueMap {
      */
     @Override
     public @NotNull Collection<Object> values() {
+        return Collections.unmodifiableCollection(getValues().values());
+    }
+
+    /**
+     * Read all properties and get their values
+     * @return The values by key
+     */
+    private @NotNull Map<String, Object> getValues() {
         readFully();
-        final Map<String, Object> sourceMap;
-        if (cache.size() == valueCache.size()) {
-            sourceMap = valueCache;
-        } else {
-            sourceMap = transformEntries(cache);
+        if (valueCache == null || valueCache.size() != cache.size()) {
+            valueCache = transformEntries(cache);
         }
-        return Collections.unmodifiableCollection(sourceMap.values());
+        return valueCache;
     }
 
     /**
@@ -249,25 +313,11 @@ public class JcrValueMap implements ValueMap {
      */
     private @NotNull JcrPropertyMapCacheEntry cacheProperty(final @NotNull Property prop) {
         try {
-            // calculate the key
-            final String name = prop.getName();
-            String key = null;
-            if (name.contains("_x")) {
-                // for compatibility with older versions we use the (wrong)
-                // ISO9075 path encoding
-                key = ISO9075.decode(name);
-                if (key.equals(name)) {
-                    key = null;
-                }
-            }
-            if (key == null) {
-                key = Text.unescapeIllegalJcrChars(name);
-            }
+            final String key = toKey(prop.getName());
             JcrPropertyMapCacheEntry entry = cache.get(key);
             if (entry == null) {
                 entry = new JcrPropertyMapCacheEntry(prop);
                 cache.put(key, entry);
-                valueCache.put(key, entry.getPropertyValue());
             }
             return entry;
         } catch (final RepositoryException re) {
@@ -275,6 +325,85 @@ public class JcrValueMap implements ValueMap {
         }
     }
 
+    /**
+     * Calculate the key for a property name
+     * @param name The JCR name of the property
+     * @return The key
+     */
+    private static @NotNull String toKey(final @NotNull String name) {
+        String key = null;
+        if (name.contains("_x")) {
+            // for compatibility with older versions we use the (wrong)
+            // ISO9075 path encoding
+            key = ISO9075.decode(name);
+            if (key.equals(name)) {
+                key = null;
+            }
+        }
+        if (key == null) {
+            key = Text.unescapeIllegalJcrChars(name);
+        }
+        return key;
+    }
+
+    /**
+     * Get the snapshot of the node from the shared property cache if it is
+     * configured for the node. The cache is never used for modifiable value maps.
+     * @return The snapshot or {@code null}
+     */
+    private @Nullable PropertySnapshot getSnapshot() {
+        if (!this.snapshotChecked) {
+            this.snapshotChecked = true;
+            if (!(this instanceof ModifiableValueMap)) {
+                this.snapshot = this.helper.getPropertySnapshot(this.node);
+            }
+        }
+        return this.snapshot;
+    }
+
+    /**
+     * Read all properties from the shared property cache if it is configured
+     * for the node.
+     * @return {@code true} if all properties have been read
+     * @throws IllegalArgumentException if a repository exception occurs
+     */
+    private boolean readFromSnapshot() {
+        final PropertySnapshot snapshot = this.getSnapshot();
+        if (snapshot == null) {
+            return false;
+        }
+        for (int i = 0; i < snapshot.size(); i++) {
+            cacheProperty(snapshot, i);
+        }
+        fullyRead = true;
+        return true;
+    }
+
+    /**
+     * Put a property of a snapshot into the cache.
+     * @throws IllegalArgumentException if a repository exception occurs
+     */
+    private @NotNull JcrPropertyMapCacheEntry cacheProperty(final @NotNull PropertySnapshot snapshot, final int index) {
+        final String name = snapshot.getName(index);
+        final String key = toKey(name);
+        JcrPropertyMapCacheEntry entry = cache.get(key);
+        if (entry == null) {
+            final Object value = snapshot.getValue(index);
+            try {
+                if (value == null) {
+                    // binary values are not part of the snapshot
+                    entry = new JcrPropertyMapCacheEntry(node.getProperty(name));
+                } else {
+                    entry = new JcrPropertyMapCacheEntry(value, name);
+                }
+            } catch (final RepositoryException re) {
+                throw new IllegalArgumentException(re);
+            }
+            cache.put(key, entry);
+        }
+        return entry;
+    }
+
     /**
      * Read a single property.
      * @throws IllegalArgumentException if a repository exception occurs
@@ -295,9 +424,13 @@ public class JcrValueMap implements ValueMap {
         if (fullyRead || cachedValued != null) {
             return cachedValued;
         }
-
+        final PropertySnapshot snapshot = this.getSnapshot();
         try {
             final String key = escapeKeyName(name);
+            if (snapshot != null) {
+                final int index = snapshot.indexOf(key);
+                return index < 0 ? null : cacheProperty(snapshot, index);
+            }
             Property property = NodeUtil.getPropertyOrNull(node, key);
             if (property != null) {
                 return cacheProperty(property);
@@ -358,25 +491,46 @@ public class JcrValueMap implements ValueMap {
      * @throws RepositoryException if the repository's namespace prefixes cannot be retrieved
      */
     protected @NotNull String escapeKeyName(final @NotNull String key) throws RepositoryException {
+        final NamespacePrefixCache namespaceCache = this.helper.getNamespacePrefixCache(this.node.getSession());
+        String name = namespaceCache == null ? null : namespaceCache.getEscapedName(key);
+        if (name == null) {
+            name = doEscapeKeyName(key);
+            if (namespaceCache != null) {
+                namespaceCache.putEscapedName(key, name);
+            }
+        }
+        return name;
+    }
+
+    private @NotNull String doEscapeKeyName(final @NotNull String key) throws RepositoryException {
         final int indexOfPrefix = key.indexOf(':');
         // check if colon is neither the first nor the last character
         if (indexOfPrefix > 0 && key.length() > indexOfPrefix + 1) {
             final String prefix = key.substring(0, indexOfPrefix);
-            for (final String existingPrefix : this.helper.getNamespacePrefixes(this.node.getSession())) {
-                if (existingPrefix.equals(prefix)) {
-                    return prefix + ":" + Text.escapeIllegalJcrChars(key.substring(indexOfPrefix + 1));
-                }
+            if (this.helper.isNamespacePrefix(this.node.getSession(), prefix)) {
+                return prefix + ":" + Text.escapeIllegalJcrChars(key.substring(indexOfPrefix + 1));
             }
         }
         return Text.escapeIllegalJcrChars(key);
     }
 
+    /**
+     * Remove a property from the cache, e.g. after it has been written. The
+     * property is read again from the node when it is accessed the next time.
+     * @param key The key of the property
+     */
+    protected void uncache(final @NotNull String key) {
+        this.cache.remove(key);
+        this.valueCache = null;
+        this.fullyRead = false;
+    }
+
     /**
      * Read all properties.
      * @throws IllegalArgumentException if a repository exception occurs
      */
     void readFully() {
-        if (!fullyRead) {
+        if (!fullyRead && !readFromSnapshot()) {
             try {
                 final PropertyIterator pi = node.getProperties();
                 while (pi.hasNext()) {
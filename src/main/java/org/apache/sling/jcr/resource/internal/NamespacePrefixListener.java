@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+
+import java.io.Closeable;
+
+import org.apache.sling.jcr.resource.internal.helper.NamespacePrefixCache;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Observation listener clearing the {@link NamespacePrefixCache} whenever
+ * the namespace registry changes. The cache is only active while this
+ * listener is registered.
+ */
+public class NamespacePrefixListener implements EventListener, Closeable {
+
+    /** The node holding the namespace registry */
+    static final String NAMESPACES_PATH = "/jcr:system/rep:namespaces";
+
+    private final JcrListenerBaseConfig baseConfig;
+
+    private final NamespacePrefixCache cache;
+
+    public NamespacePrefixListener(
+            final @NotNull JcrListenerBaseConfig listenerConfig, final @NotNull NamespacePrefixCache cache)
+            throws RepositoryException {
+        this.baseConfig = listenerConfig;
+        this.cache = cache;
+        this.baseConfig.register(this, new String[] {NAMESPACES_PATH});
+        this.cache.setActive(true);
+    }
+
+    /**
+     * Dispose this listener and deactivate the cache.
+     */
+    @Override
+    public void close() {
+        this.cache.setActive(false);
+        this.baseConfig.unregister(this);
+    }
+
+    /**
+     * @see javax.jcr.observation.EventListener#onEvent(javax.jcr.observation.EventIterator)
+     */
+    @Override
+    public void onEvent(final EventIterator events) {
+        if (events.hasNext()) {
+            this.cache.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NamespacePrefixListener [" + cache + "]";
+    }
+}
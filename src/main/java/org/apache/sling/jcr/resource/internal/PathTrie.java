@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.sling.api.resource.path.Path;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A tree of path segments with values attached to paths. It is used to find
+ * the values registered for the ancestors of a path (and optionally for its
+ * descendants) with one lookup per path segment, independent of the number of
+ * registered values.
+ *
+ * Glob patterns are attached to their longest prefix without wildcards, so
+ * the values found for a pattern still have to be matched against the path.
+ *
+ * The trie is not thread safe, it must not be modified once it is shared.
+ */
+class PathTrie<T> {
+
+    private final Node<T> root = new Node<>();
+
+    private static final class Node<T> {
+
+        private final Map<String, Node<T>> children = new HashMap<>(4);
+
+        private final List<T> values = new ArrayList<>(1);
+    }
+
+    /**
+     * Attach a value to a path
+     * @param path The absolute path or a glob pattern
+     * @param value The value
+     */
+    public void add(final @NotNull String path, final @NotNull T value) {
+        final String prefix = getStaticPrefix(path);
+        Node<T> node = this.root;
+        for (final String segment : prefix.split("/")) {
+            if (!segment.isEmpty()) {
+                node = node.children.computeIfAbsent(segment, key -> new Node<>());
+            }
+        }
+        node.values.add(value);
+    }
+
+    /**
+     * Pass all values attached to the path or one of its ancestors to the
+     * consumer, starting with the root.
+     * @param path The absolute path
+     * @param includeDescendants Whether the values attached to descendants of the path are passed as well
+     * @param consumer The consumer
+     */
+    public void collect(final @NotNull String path, final boolean includeDescendants, final Consumer<T> consumer) {
+        Node<T> node = this.root;
+        int start = 1;
+        while (node != null) {
+            node.values.forEach(consumer);
+            if (start >= path.length()) {
+                break;
+            }
+            int end = path.indexOf('/', start);
+            if (end == -1) {
+                end = path.length();
+            }
+            node = node.children.get(path.substring(start, end));
+            start = end + 1;
+        }
+        if (node != null && includeDescendants) {
+            for (final Node<T> child : node.children.values()) {
+                collectAll(child, consumer);
+            }
+        }
+    }
+
+    private static <T> void collectAll(final Node<T> node, final Consumer<T> consumer) {
+        node.values.forEach(consumer);
+        for (final Node<T> child : node.children.values()) {
+            collectAll(child, consumer);
+        }
+    }
+
+    /**
+     * Get the path of the parent of the first segment of a glob pattern
+     * containing a wildcard
+     * @param path The path or pattern
+     * @return The path itself if it's not a pattern
+     */
+    static @NotNull String getStaticPrefix(final @NotNull String path) {
+        if (!path.startsWith(Path.GLOB_PREFIX)) {
+            return path;
+        }
+        final String pattern = path.substring(Path.GLOB_PREFIX.length());
+        int wildcard = pattern.length();
+        for (int i = 0; i < pattern.length(); i++) {
+            final char c = pattern.charAt(i);
+            if (c == '*' || c == '?') {
+                wildcard = i;
+                break;
+            }
+        }
+        if (wildcard == pattern.length()) {
+            return pattern;
+        }
+        final int lastSlash = pattern.lastIndexOf('/', wildcard);
+        return lastSlash <= 0 ? "/" : pattern.substring(0, lastSlash);
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the resource changes of a single listener for a time window and
+ * reports them merged with a {@link ResourceChangeMerger}, so a burst of
+ * observation events results in a single report. The window starts with the
+ * first change and ends after a fixed time or once a maximum number of merged
+ * changes is reached, whichever comes first.
+ *
+ * If a resource is added again after it has been removed within the window,
+ * the changes collected so far are reported first, so the removal isn't
+ * reported after the addition.
+ *
+ * The merged changes of a window are handed to the {@link ResourceChangeQueue}
+ * of the listener, which reports them in order on an executor. The listener
+ * is therefore neither called on the scheduler thread, which is shared by all
+ * coalescers, nor while holding the lock of the coalescer. The queue is owned
+ * by the listener and is not closed with the coalescer.
+ */
+class ResourceChangeCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceChangeCoalescer.class);
+
+    private final ScheduledExecutorService scheduler;
+
+    private final long window;
+
+    private final int maxChanges;
+
+    /** The queue reporting the merged changes */
+    private final ResourceChangeQueue output;
+
+    private final Predicate<ResourceChange> collapsible;
+
+    /** The changes of the current window, guarded by this */
+    private ResourceChangeMerger pending;
+
+    /** The end of the current window */
+    private ScheduledFuture<?> flush;
+
+    private boolean closed;
+
+    private long receivedCount;
+
+    private long reportedCount;
+
+    /**
+     * Create a new coalescer
+     * @param scheduler The scheduler ending the windows
+     * @param window The length of a window in milliseconds
+     * @param maxChanges The maximum number of merged changes per window, {@code 0} for no limit
+     * @param output The queue reporting the merged changes
+     * @param collapsible Whether an addition or removal covers the changes below its path,
+     *     {@code null} to keep all changes
+     */
+    ResourceChangeCoalescer(
+            final @NotNull ScheduledExecutorService scheduler,
+            final long window,
+            final int maxChanges,
+            final @NotNull ResourceChangeQueue output,
+            final @Nullable Predicate<ResourceChange> collapsible) {
+        this.scheduler = scheduler;
+        this.window = window;
+        this.maxChanges = maxChanges;
+        this.output = output;
+        this.collapsible = collapsible;
+        this.pending = new ResourceChangeMerger(collapsible);
+    }
+
+    /**
+     * Add changes to the current window
+     * @param changes The changes
+     */
+    synchronized void add(final @NotNull List<ResourceChange> changes) {
+        if (this.closed || changes.isEmpty()) {
+            return;
+        }
+        for (final ResourceChange change : changes) {
+            if (change.getType() == ChangeType.ADDED && this.pending.isRemoved(change.getPath())) {
+                this.report();
+                break;
+            }
+        }
+        this.pending.addAll(changes);
+        this.receivedCount += changes.size();
+        if (this.maxChanges > 0 && this.pending.size() >= this.maxChanges) {
+            this.report();
+        } else if (this.flush == null && this.pending.size() > 0) {
+            try {
+                this.flush = this.scheduler.schedule(this::flush, this.window, TimeUnit.MILLISECONDS);
+            } catch (final RejectedExecutionException e) {
+                logger.warn("Unable to schedule reporting of resource changes, reporting them right away", e);
+                this.report();
+            }
+        }
+    }
+
+    /**
+     * End the current window
+     */
+    synchronized void flush() {
+        this.report();
+    }
+
+    /**
+     * Hand the pending changes to the output queue, called with the lock held
+     * so windows are queued in order.
+     */
+    private void report() {
+        if (this.flush != null) {
+            this.flush.cancel(false);
+            this.flush = null;
+        }
+        if (this.closed || this.pending.size() == 0) {
+            return;
+        }
+        final List<ResourceChange> changes = this.pending.getChanges();
+        this.pending = new ResourceChangeMerger(this.collapsible);
+        this.reportedCount += changes.size();
+        this.output.offer(changes);
+    }
+
+    /**
+     * Discard the pending changes and stop accepting new ones.
+     */
+    synchronized void close() {
+        if (this.flush != null) {
+            this.flush.cancel(false);
+            this.flush = null;
+        }
+        this.closed = true;
+        this.pending = new ResourceChangeMerger(this.collapsible);
+    }
+
+    /**
+     * The number of changes added
+     * @return The number of changes
+     */
+    synchronized long getReceivedCount() {
+        return this.receivedCount;
+    }
+
+    /**
+     * The number of merged changes reported
+     * @return The number of changes
+     */
+    synchronized long getReportedCount() {
+        return this.reportedCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ResourceChangeCoalescer [window=" + this.window + "ms, maxChanges=" + this.maxChanges
+                + ", pending=" + this.pending.size() + ", received=" + this.receivedCount + ", reported="
+                + this.reportedCount + "]";
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.apache.sling.jcr.resource.api.JcrResourceChange;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Merges resource changes per path. A removal is stronger than an addition
+ * and an addition is stronger than a change, so adding a resource drops a
+ * previous change of it, removing it drops a previous addition or change and
+ * a change is only kept if there is no addition or removal for the path. The
+ * property names of several changes of the same path are combined.
+ *
+ * The merged changes are returned ordered by type, first the additions, then
+ * the removals and then the changes.
+ *
+ * Optionally subtrees are collapsed: an addition or removal accepted by a
+ * predicate covers all changes below its path, which are dropped.
+ */
+class ResourceChangeMerger {
+
+    private final NavigableMap<String, ResourceChange> added = new TreeMap<>();
+
+    private final NavigableMap<String, ResourceChange> changed = new TreeMap<>();
+
+    private final NavigableMap<String, ResourceChange> removed = new TreeMap<>();
+
+    /** Whether a change covers its subtree, {@code null} if subtrees are not collapsed */
+    private final Predicate<ResourceChange> collapsible;
+
+    /** The paths of the changes covering their subtree */
+    private final NavigableSet<String> roots = new TreeSet<>();
+
+    ResourceChangeMerger() {
+        this(null);
+    }
+
+    /**
+     * Create a new merger
+     * @param collapsible Whether an addition or removal covers the changes below its path,
+     *     {@code null} to keep all changes
+     */
+    ResourceChangeMerger(final @Nullable Predicate<ResourceChange> collapsible) {
+        this.collapsible = collapsible;
+    }
+
+    /**
+     * Check whether there is a change for the path
+     * @param path The path
+     * @return {@code true} if any change has been added for the path
+     */
+    boolean contains(final @NotNull String path) {
+        return this.added.containsKey(path) || this.removed.containsKey(path) || this.changed.containsKey(path);
+    }
+
+    /**
+     * Check whether there is a removal for the path
+     * @param path The path
+     * @return {@code true} if a removal has been added for the path
+     */
+    boolean isRemoved(final @NotNull String path) {
+        return this.removed.containsKey(path);
+    }
+
+    /**
+     * Check whether a change for the path would be dropped as it is covered
+     * by the addition or removal of an ancestor
+     * @param path The path
+     * @return {@code true} if an ancestor covers the path
+     */
+    boolean isCollapsed(final @NotNull String path) {
+        if (this.roots.isEmpty()) {
+            return false;
+        }
+        int index = path.lastIndexOf('/');
+        while (index >= 0 && path.length() > 1) {
+            if (this.roots.contains(index == 0 ? "/" : path.substring(0, index))) {
+                return true;
+            }
+            index = index == 0 ? -1 : path.lastIndexOf('/', index - 1);
+        }
+        return false;
+    }
+
+    /**
+     * Add a change
+     * @param change The change
+     */
+    void add(final @NotNull ResourceChange change) {
+        final String path = change.getPath();
+        if (this.collapsible != null && this.isCollapsed(path)) {
+            return;
+        }
+        switch (change.getType()) {
+            case ADDED:
+                // add is stronger than update
+                this.changed.remove(path);
+                this.added.put(path, change);
+                break;
+            case REMOVED:
+                // remove is stronger than add and change
+                this.added.remove(path);
+                this.changed.remove(path);
+                this.removed.put(path, change);
+                break;
+            case CHANGED:
+                if (!this.added.containsKey(path) && !this.removed.containsKey(path)) {
+                    final ResourceChange previous = this.changed.get(path);
+                    this.changed.put(path, previous == null ? change : mergePropertyNames(previous, change));
+                }
+                break;
+            default:
+                break;
+        }
+        if (this.collapsible != null
+                && change.getType() != ChangeType.CHANGED
+                && this.collapsible.test(change)
+                && this.roots.add(path)) {
+            this.removeDescendants(path);
+        }
+    }
+
+    /**
+     * Merge two changes of the same resource, combining the names of the
+     * changed properties if both provide them. User id and user data are
+     * taken from the first change.
+     */
+    private static ResourceChange mergePropertyNames(final ResourceChange first, final ResourceChange second) {
+        if (!(first instanceof JcrResourceChange) || !(second instanceof JcrResourceChange)) {
+            return first;
+        }
+        final JcrResourceChange previous = (JcrResourceChange) first;
+        final JcrResourceChange next = (JcrResourceChange) second;
+        if (previous.getAddedPropertyNames() == null
+                || previous.getChangedPropertyNames() == null
+                || previous.getRemovedPropertyNames() == null
+                || next.getAddedPropertyNames() == null
+                || next.getChangedPropertyNames() == null
+                || next.getRemovedPropertyNames() == null) {
+            return first;
+        }
+        return new JcrResourceChange(
+                previous.getType(),
+                previous.getPath(),
+                previous.isExternal(),
+                previous.getUserId(),
+                previous.getUserData(),
+                union(previous.getAddedPropertyNames(), next.getAddedPropertyNames()),
+                union(previous.getChangedPropertyNames(), next.getChangedPropertyNames()),
+                union(previous.getRemovedPropertyNames(), next.getRemovedPropertyNames()));
+    }
+
+    private static Set<String> union(final Set<String> first, final Set<String> second) {
+        final Set<String> result = new HashSet<>(first);
+        result.addAll(second);
+        return result;
+    }
+
+    private void removeDescendants(final String path) {
+        final boolean isRoot = "/".equals(path);
+        // '0' is the character following '/'
+        final String from = isRoot ? path : path + '/';
+        final String to = isRoot ? "0" : path + '0';
+        this.added.subMap(from, !isRoot, to, false).clear();
+        this.changed.subMap(from, !isRoot, to, false).clear();
+        this.removed.subMap(from, !isRoot, to, false).clear();
+        this.roots.subSet(from, !isRoot, to, false).clear();
+    }
+
+    /**
+     * Add changes in their order
+     * @param changes The changes
+     */
+    void addAll(final @NotNull Iterable<ResourceChange> changes) {
+        for (final ResourceChange change : changes) {
+            this.add(change);
+        }
+    }
+
+    /**
+     * The number of merged changes
+     * @return The number of changes
+     */
+    int size() {
+        return this.added.size() + this.removed.size() + this.changed.size();
+    }
+
+    /**
+     * Get the merged changes
+     * @return The changes
+     */
+    @NotNull
+    List<ResourceChange> getChanges() {
+        final List<ResourceChange> changes = new ArrayList<>(this.size());
+        changes.addAll(this.added.values());
+        changes.addAll(this.removed.values());
+        changes.addAll(this.changed.values());
+        return changes;
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded queue of resource changes of a single listener, which are
+ * reported by a task of an executor. This decouples the JCR observation thread
+ * from the consumers of the changes. The changes of a queue are reported in
+ * order, by at most one task at a time.
+ *
+ * The queue is bounded by the number of changes. A batch larger than the
+ * capacity is only accepted if the queue is empty. If a batch doesn't fit,
+ * the {@link OverflowPolicy} decides what happens.
+ */
+public class ResourceChangeQueue {
+
+    /**
+     * What happens with changes which don't fit into the queue
+     */
+    public enum OverflowPolicy {
+        /**
+         * Wait until the queue has room. This applies backpressure to the
+         * thread offering the changes, which is the JCR observation thread or
+         * the scheduler of the coalescers. As these are shared, a slow
+         * listener then delays the observation of the whole repository for
+         * all listeners, so this should only be used if no change may be lost.
+         */
+        BLOCK,
+        /**
+         * Merge the queued changes and the new ones into a single batch, so
+         * changes of the same path only take up room once. If they still
+         * don't fit, or a removed resource is added again, drop them like
+         * {@link #DROP}.
+         */
+        COALESCE,
+        /** Drop the new changes and count them */
+        DROP
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceChangeQueue.class);
+
+    /** The maximum number of batches reported by one task, before other queues get their turn */
+    static final int MAX_BATCHES_PER_TASK = 16;
+
+    private final Executor executor;
+
+    private final int capacity;
+
+    private final OverflowPolicy policy;
+
+    private final Consumer<List<ResourceChange>> consumer;
+
+    /** The queued batches, guarded by this */
+    private final Deque<Batch> batches = new ArrayDeque<>();
+
+    /** The number of queued changes */
+    private int size;
+
+    /** Whether a task is scheduled or running */
+    private boolean scheduled;
+
+    private boolean closed;
+
+    private long reportedCount;
+
+    private long droppedCount;
+
+    private long coalescedCount;
+
+    private static final class Batch {
+
+        private final List<ResourceChange> changes;
+
+        /** When the oldest of the changes has been queued */
+        private final long queued;
+
+        Batch(final List<ResourceChange> changes, final long queued) {
+            this.changes = changes;
+            this.queued = queued;
+        }
+    }
+
+    /**
+     * Create a new queue
+     * @param executor The executor running the reporting tasks
+     * @param capacity The maximum number of queued changes
+     * @param policy The overflow policy
+     * @param consumer The consumer reporting the changes
+     */
+    public ResourceChangeQueue(
+            final @NotNull Executor executor,
+            final int capacity,
+            final @NotNull OverflowPolicy policy,
+            final @NotNull Consumer<List<ResourceChange>> consumer) {
+        this.executor = executor;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.consumer = consumer;
+    }
+
+    /**
+     * Queue changes for reporting
+     * @param changes The changes
+     */
+    public synchronized void offer(final @NotNull List<ResourceChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        long queued = System.nanoTime();
+        List<ResourceChange> toQueue = changes;
+        while (!this.closed && this.size > 0 && this.size + toQueue.size() > this.capacity) {
+            if (this.policy == OverflowPolicy.COALESCE) {
+                final List<ResourceChange> merged = this.coalesce(changes);
+                if (merged != null) {
+                    this.coalescedCount += this.size + changes.size() - merged.size();
+                    queued = this.batches.getFirst().queued;
+                    this.batches.clear();
+                    this.size = 0;
+                    toQueue = merged;
+                    break;
+                }
+            }
+            if (this.policy != OverflowPolicy.BLOCK) {
+                if (this.droppedCount == 0) {
+                    logger.warn("Queue is full, dropping resource changes: {}", this);
+                }
+                this.droppedCount += changes.size();
+                return;
+            }
+            try {
+                this.wait();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while waiting for the queue, dropping resource changes: {}", this);
+                this.droppedCount += changes.size();
+                return;
+            }
+        }
+        if (this.closed) {
+            return;
+        }
+        this.batches.add(new Batch(toQueue, queued));
+        this.size += toQueue.size();
+        if (!this.scheduled) {
+            this.schedule();
+        }
+    }
+
+    /**
+     * Merge the queued changes and the new ones. As with the
+     * {@link ResourceChangeCoalescer}, nothing is merged if a resource is
+     * added again after it has been removed, so the removal isn't reported
+     * after the addition.
+     * @param changes The new changes
+     * @return The merged changes or {@code null} if they can't be merged or don't fit
+     */
+    private @Nullable List<ResourceChange> coalesce(final @NotNull List<ResourceChange> changes) {
+        final ResourceChangeMerger merger = new ResourceChangeMerger();
+        for (final Batch batch : this.batches) {
+            merger.addAll(batch.changes);
+        }
+        for (final ResourceChange change : changes) {
+            if (change.getType() == ChangeType.ADDED && merger.isRemoved(change.getPath())) {
+                return null;
+            }
+        }
+        merger.addAll(changes);
+        return merger.size() <= this.capacity ? merger.getChanges() : null;
+    }
+
+    private void schedule() {
+        this.scheduled = true;
+        try {
+            this.executor.execute(this::report);
+        } catch (final RejectedExecutionException e) {
+            this.scheduled = false;
+            logger.warn("Unable to schedule reporting of resource changes: {}", this, e);
+        }
+    }
+
+    /**
+     * Report queued batches, reschedule if there are more left
+     */
+    private void report() {
+        for (int i = 0; i < MAX_BATCHES_PER_TASK; i++) {
+            final Batch batch;
+            synchronized (this) {
+                batch = this.batches.poll();
+                if (batch == null) {
+                    this.scheduled = false;
+                    return;
+                }
+                this.size -= batch.changes.size();
+                this.notifyAll();
+            }
+            try {
+                this.consumer.accept(batch.changes);
+            } catch (final RuntimeException e) {
+                logger.warn("Unable to report resource changes: {}", this, e);
+            }
+            synchronized (this) {
+                this.reportedCount += batch.changes.size();
+            }
+        }
+        synchronized (this) {
+            if (this.batches.isEmpty()) {
+                this.scheduled = false;
+            } else {
+                this.schedule();
+            }
+        }
+    }
+
+    /**
+     * Discard all queued changes and stop accepting new ones.
+     */
+    public synchronized void close() {
+        this.closed = true;
+        this.batches.clear();
+        this.size = 0;
+        this.notifyAll();
+    }
+
+    /**
+     * The number of queued changes
+     * @return The queue depth
+     */
+    public synchronized int getDepth() {
+        return this.size;
+    }
+
+    /**
+     * The time the oldest queued change is waiting for
+     * @return The lag in milliseconds, {@code 0} if the queue is empty
+     */
+    public synchronized long getLag() {
+        final Batch oldest = this.batches.peek();
+        return oldest == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.queued);
+    }
+
+    /**
+     * The number of reported changes
+     * @return The number of changes
+     */
+    public synchronized long getReportedCount() {
+        return this.reportedCount;
+    }
+
+    /**
+     * The number of changes dropped as the queue was full
+     * @return The number of changes
+     */
+    public synchronized long getDroppedCount() {
+        return this.droppedCount;
+    }
+
+    /**
+     * The number of changes saved by coalescing the queue
+     * @return The number of changes
+     */
+    public synchronized long getCoalescedCount() {
+        return this.coalescedCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ResourceChangeQueue [policy=" + this.policy + ", capacity=" + this.capacity + ", depth=" + this.size
+                + ", lag=" + this.getLag() + "ms, reported=" + this.reportedCount + ", dropped=" + this.droppedCount
+                + ", coalesced=" + this.coalescedCount + "]";
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.Supplier;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Exposes the statistics of the {@link ResourceChangeQueue}s of the current
+ * {@link JcrListenerBaseConfig} through JMX. As the listeners are registered
+ * again whenever the repository or the observers change, the base
+ * configuration is looked up on every call and the counts only cover the
+ * queues which are currently open.
+ */
+public class ResourceChangeQueueStatistics implements ResourceChangeQueueStatisticsMBean {
+
+    /** The name of the MBean, registered through the JMX whiteboard */
+    public static final String OBJECT_NAME = "org.apache.sling:type=JcrResourceProvider,name=ResourceChangeQueues";
+
+    private final Supplier<JcrListenerBaseConfig> listenerConfig;
+
+    public ResourceChangeQueueStatistics(final @NotNull Supplier<JcrListenerBaseConfig> listenerConfig) {
+        this.listenerConfig = listenerConfig;
+    }
+
+    private Collection<ResourceChangeQueue> getQueues() {
+        final JcrListenerBaseConfig config = this.listenerConfig.get();
+        return config == null ? Collections.emptyList() : config.getQueues();
+    }
+
+    @Override
+    public int getQueueCount() {
+        return this.getQueues().size();
+    }
+
+    @Override
+    public long getDepth() {
+        long result = 0;
+        for (final ResourceChangeQueue queue : this.getQueues()) {
+            result += queue.getDepth();
+        }
+        return result;
+    }
+
+    @Override
+    public long getLag() {
+        long result = 0;
+        for (final ResourceChangeQueue queue : this.getQueues()) {
+            result = Math.max(result, queue.getLag());
+        }
+        return result;
+    }
+
+    @Override
+    public long getReportedCount() {
+        long result = 0;
+        for (final ResourceChangeQueue queue : this.getQueues()) {
+            result += queue.getReportedCount();
+        }
+        return result;
+    }
+
+    @Override
+    public long getDroppedCount() {
+        long result = 0;
+        for (final ResourceChangeQueue queue : this.getQueues()) {
+            result += queue.getDroppedCount();
+        }
+        return result;
+    }
+
+    @Override
+    public long getCoalescedCount() {
+        long result = 0;
+        for (final ResourceChangeQueue queue : this.getQueues()) {
+            result += queue.getCoalescedCount();
+        }
+        return result;
+    }
+}
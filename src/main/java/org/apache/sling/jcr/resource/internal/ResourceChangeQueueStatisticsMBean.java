@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+/**
+ * Management interface of the queues reporting resource changes, summed up
+ * over the queues of all resource listeners.
+ */
+public interface ResourceChangeQueueStatisticsMBean {
+
+    /**
+     * The number of queues
+     * @return The number of resource listeners with a queue
+     */
+    int getQueueCount();
+
+    /**
+     * The number of queued changes
+     * @return The sum of the depths of the queues
+     */
+    long getDepth();
+
+    /**
+     * The time the oldest queued change is waiting for
+     * @return The maximum lag of the queues in milliseconds
+     */
+    long getLag();
+
+    /**
+     * The number of reported changes
+     * @return The sum of the reported changes of the queues
+     */
+    long getReportedCount();
+
+    /**
+     * The number of changes dropped as a queue was full
+     * @return The sum of the dropped changes of the queues
+     */
+    long getDroppedCount();
+
+    /**
+     * The number of changes saved by coalescing
+     * @return The sum of the coalesced changes of the queues
+     */
+    long getCoalescedCount();
+}
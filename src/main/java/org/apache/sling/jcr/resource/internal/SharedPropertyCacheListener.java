@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+
+import java.io.Closeable;
+
+import org.apache.sling.jcr.resource.internal.helper.SharedPropertyCache;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static javax.jcr.observation.Event.PROPERTY_ADDED;
+import static javax.jcr.observation.Event.PROPERTY_CHANGED;
+import static javax.jcr.observation.Event.PROPERTY_REMOVED;
+
+/**
+ * Observation listener removing changed nodes from the {@link SharedPropertyCache}.
+ * The cache is only active while this listener is registered.
+ */
+public class SharedPropertyCacheListener implements EventListener, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedPropertyCacheListener.class);
+
+    private final JcrListenerBaseConfig baseConfig;
+
+    private final SharedPropertyCache cache;
+
+    public SharedPropertyCacheListener(
+            final @NotNull JcrListenerBaseConfig listenerConfig, final @NotNull SharedPropertyCache cache)
+            throws RepositoryException {
+        this.baseConfig = listenerConfig;
+        this.cache = cache;
+        this.baseConfig.register(this, cache.getRoots());
+        this.cache.setActive(true);
+    }
+
+    /**
+     * Dispose this listener and deactivate the cache.
+     */
+    @Override
+    public void close() {
+        this.cache.setActive(false);
+        this.baseConfig.unregister(this);
+    }
+
+    /**
+     * @see javax.jcr.observation.EventListener#onEvent(javax.jcr.observation.EventIterator)
+     */
+    @Override
+    public void onEvent(final EventIterator events) {
+        while (events.hasNext()) {
+            final Event event = events.nextEvent();
+            try {
+                final String path = event.getPath();
+                final int type = event.getType();
+                if (type == PROPERTY_ADDED || type == PROPERTY_CHANGED || type == PROPERTY_REMOVED) {
+                    final int lastSlash = path.lastIndexOf('/');
+                    this.cache.invalidate(lastSlash > 0 ? path.substring(0, lastSlash) : "/");
+                } else {
+                    this.cache.invalidateTree(path);
+                }
+            } catch (final RepositoryException e) {
+                // we don't know what changed, so start over
+                logger.debug("Unable to get path of event {}, clearing the shared property cache", event, e);
+                this.cache.clear();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SharedPropertyCacheListener [" + cache + "]";
+    }
+}
@@ -30,98 +30,96 @@ import org.jetbrains.annotations.NotNull;
  */
 public class BooleanConverter implements Converter {
 
-    private final Boolean value;
+    /** The shared instance */
+    public static final BooleanConverter INSTANCE = new BooleanConverter();
 
-    public BooleanConverter(final Boolean val) {
-        this.value = val;
-    }
+    protected BooleanConverter() {}
 
     /**
-     * @see java.lang.Object#toString()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toString(java.lang.Object)
      */
-    @Override
-    public String toString() {
-        return this.value.toString();
+    public @NotNull String toString(final @NotNull Object value) {
+        return value.toString();
     }
 
-    private Integer getNumber() {
-        return (value.booleanValue() ? 1 : 0);
+    private Integer getNumber(final Object value) {
+        return (((Boolean) value).booleanValue() ? 1 : 0);
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toLong()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toLong(java.lang.Object)
      */
-    public @NotNull Long toLong() {
-        return this.getNumber().longValue();
+    public @NotNull Long toLong(final @NotNull Object value) {
+        return this.getNumber(value).longValue();
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toByte()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toByte(java.lang.Object)
      */
-    public @NotNull Byte toByte() {
-        return this.getNumber().byteValue();
+    public @NotNull Byte toByte(final @NotNull Object value) {
+        return this.getNumber(value).byteValue();
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toShort()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toShort(java.lang.Object)
      */
-    public @NotNull Short toShort() {
-        return this.getNumber().shortValue();
+    public @NotNull Short toShort(final @NotNull Object value) {
+        return this.getNumber(value).shortValue();
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toInteger()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toInteger(java.lang.Object)
      */
-    public @NotNull Integer toInteger() {
-        return this.getNumber().intValue();
+    public @NotNull Integer toInteger(final @NotNull Object value) {
+        return this.getNumber(value).intValue();
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toDouble()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toDouble(java.lang.Object)
      */
-    public @NotNull Double toDouble() {
-        return this.getNumber().doubleValue();
+    public @NotNull Double toDouble(final @NotNull Object value) {
+        return this.getNumber(value).doubleValue();
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toFloat()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toFloat(java.lang.Object)
      */
-    public @NotNull Float toFloat() {
-        return this.getNumber().floatValue();
+    public @NotNull Float toFloat(final @NotNull Object value) {
+        return this.getNumber(value).floatValue();
     }
 
     @Override
-    public @NotNull ZonedDateTime toZonedDateTime() {
-        return new CalendarConverter(toCalendar()).toZonedDateTime();
+    public @NotNull ZonedDateTime toZonedDateTime(final @NotNull Object value) {
+        return CalendarConverter.INSTANCE.toZonedDateTime(toCalendar(value));
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toCalendar()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toCalendar(java.lang.Object)
      */
-    public @NotNull Calendar toCalendar() {
+    public @NotNull Calendar toCalendar(final @NotNull Object value) {
         final Calendar c = Calendar.getInstance();
-        c.setTimeInMillis(this.toLong());
+        c.setTimeInMillis(this.toLong(value));
         return c;
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toDate()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toDate(java.lang.Object)
      */
-    public @NotNull Date toDate() {
-        return new Date(this.toLong());
+    public @NotNull Date toDate(final @NotNull Object value) {
+        return new Date(this.toLong(value));
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toBoolean()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toBoolean(java.lang.Object)
      */
-    public @NotNull Boolean toBoolean() {
-        return this.value;
+    public @NotNull Boolean toBoolean(final @NotNull Object value) {
+        return (Boolean) value;
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toBigDecimal()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toBigDecimal(java.lang.Object)
      */
-    public @NotNull BigDecimal toBigDecimal() {
-        return new BigDecimal(this.getNumber().toString());
+    public @NotNull BigDecimal toBigDecimal(final @NotNull Object value) {
+        return new BigDecimal(this.getNumber(value).toString());
     }
 }
@@ -30,37 +30,41 @@ import org.jetbrains.annotations.NotNull;
  */
 public class CalendarConverter extends NumberConverter implements Converter {
 
-    private final Calendar value;
+    /** The shared instance */
+    public static final CalendarConverter INSTANCE = new CalendarConverter();
 
-    public CalendarConverter(final Calendar val) {
-        super(val.getTimeInMillis());
-        this.value = val;
+    protected CalendarConverter() {}
+
+    @Override
+    protected @NotNull Number toNumber(final @NotNull Object value) {
+        return this.toCalendar(value).getTimeInMillis();
     }
 
     @Override
-    public @NotNull ZonedDateTime toZonedDateTime() {
+    public @NotNull ZonedDateTime toZonedDateTime(final @NotNull Object value) {
+        final Calendar calendar = this.toCalendar(value);
         return ZonedDateTime.ofInstant(
-                this.value.toInstant(), this.value.getTimeZone().toZoneId().normalized());
+                calendar.toInstant(), calendar.getTimeZone().toZoneId().normalized());
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toCalendar()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toCalendar(java.lang.Object)
      */
     @Override
-    public @NotNull Calendar toCalendar() {
-        return this.value;
+    public @NotNull Calendar toCalendar(final @NotNull Object value) {
+        return (Calendar) value;
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toDate()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toDate(java.lang.Object)
      */
     @Override
-    public @NotNull Date toDate() {
-        return this.value.getTime();
+    public @NotNull Date toDate(final @NotNull Object value) {
+        return this.toCalendar(value).getTime();
     }
 
     @Override
-    public String toString() {
-        return ISO8601.format(this.value);
+    public @NotNull String toString(final @NotNull Object value) {
+        return ISO8601.format(this.toCalendar(value));
     }
 }
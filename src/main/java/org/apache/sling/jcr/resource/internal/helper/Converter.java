@@ -26,94 +26,114 @@ import java.util.Date;
 import org.jetbrains.annotations.NotNull;
 
 /**
- * A converter converts a value to a specific target type.
+ * A converter converts a value to a specific target type. Converters are
+ * stateless, the value to convert is passed to each method.
  */
 public interface Converter {
 
+    /**
+     * Convert to String.
+     * @param value The value to convert
+     * @return String representation of the converted value
+     */
+    @NotNull
+    String toString(@NotNull Object value);
+
     /**
      * Convert to Long.
+     * @param value The value to convert
      * @return Long representation of the converted value
      * @throws NumberFormatException if the conversion fails
      */
     @NotNull
-    Long toLong();
+    Long toLong(@NotNull Object value);
 
     /**
      * Convert to Byte.
+     * @param value The value to convert
      * @return Byte representation of the converted value
      * @throws NumberFormatException if the conversion fails
      */
     @NotNull
-    Byte toByte();
+    Byte toByte(@NotNull Object value);
 
     /**
      * Convert to Short.
+     * @param value The value to convert
      * @return Short representation of the converted value
      * @throws NumberFormatException if the conversion fails
      */
     @NotNull
-    Short toShort();
+    Short toShort(@NotNull Object value);
 
     /**
      * Convert to Integer.
+     * @param value The value to convert
      * @return Integer representation of the converted value
      * @throws NumberFormatException if the conversion fails
      */
     @NotNull
-    Integer toInteger();
+    Integer toInteger(@NotNull Object value);
 
     /**
      * Convert to Double.
+     * @param value The value to convert
      * @return Double representation of the converted value
      * @throws NumberFormatException if the conversion fails
      */
     @NotNull
-    Double toDouble();
+    Double toDouble(@NotNull Object value);
 
     /**
      * Convert to Float.
+     * @param value The value to convert
      * @return Float representation of the converted value
      * @throws NumberFormatException if the conversion fails
      */
     @NotNull
-    Float toFloat();
+    Float toFloat(@NotNull Object value);
 
     /**
      * Convert to ZonedDateTime.
+     * @param value The value to convert
      * @return Calendar representation of the converted value
      * @throws IllegalArgumentException  if the value cannot be parsed into a calendar
      */
     @NotNull
-    ZonedDateTime toZonedDateTime();
+    ZonedDateTime toZonedDateTime(@NotNull Object value);
 
     /**
      * Convert to Calendar.
+     * @param value The value to convert
      * @return Calendar representation of the converted value
      * @throws IllegalArgumentException  if the value cannot be parsed into a calendar
      */
     @NotNull
-    Calendar toCalendar();
+    Calendar toCalendar(@NotNull Object value);
 
     /**
      * Convert to Date.
+     * @param value The value to convert
      * @return Date representation of the converted value
      * @throws IllegalArgumentException  if the value cannot be parsed into a date
      */
     @NotNull
-    Date toDate();
+    Date toDate(@NotNull Object value);
 
     /**
      * Convert to boolean.
+     * @param value The value to convert
      * @return  Boolean representation of the converted value
      */
     @NotNull
-    Boolean toBoolean();
+    Boolean toBoolean(@NotNull Object value);
 
     /**
      * Convert to BigDecimal.
+     * @param value The value to convert
      * @return BigDecimal representation of the converted value
      * @throws NumberFormatException if the conversion fails
      */
     @NotNull
-    BigDecimal toBigDecimal();
+    BigDecimal toBigDecimal(@NotNull Object value);
 }
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Registry of the conversions between value classes. For each source class
+ * the table of conversions to all supported target classes is computed once
+ * and all conversions use the stateless {@link Converter} singletons, so a
+ * conversion does not allocate anything except its result.
+ */
+public final class ConverterRegistry {
+
+    /**
+     * A conversion of a value of a specific source class to a specific target class.
+     */
+    @FunctionalInterface
+    interface Conversion {
+
+        /**
+         * Convert the value
+         * @param value The value
+         * @return The converted value
+         * @throws IllegalArgumentException If the value can't be converted
+         */
+        @NotNull
+        Object convert(@NotNull Object value);
+    }
+
+    private static final Map<Class<?>, Conversion> NUMBER_CONVERSIONS = conversions(NumberConverter.INSTANCE);
+
+    private static final Map<Class<?>, Conversion> BOOLEAN_CONVERSIONS = conversions(BooleanConverter.INSTANCE);
+
+    private static final Map<Class<?>, Conversion> DATE_CONVERSIONS = conversions(DateConverter.INSTANCE);
+
+    private static final Map<Class<?>, Conversion> CALENDAR_CONVERSIONS = conversions(CalendarConverter.INSTANCE);
+
+    private static final Map<Class<?>, Conversion> ZONED_DATE_TIME_CONVERSIONS =
+            conversions(ZonedDateTimeConverter.INSTANCE);
+
+    private static final Map<Class<?>, Conversion> STRING_CONVERSIONS = conversions(StringConverter.INSTANCE);
+
+    /** The conversion table for each source class */
+    private static final ClassValue<Map<Class<?>, Conversion>> CONVERSIONS =
+            new ClassValue<Map<Class<?>, Conversion>>() {
+                @Override
+                protected Map<Class<?>, Conversion> computeValue(final Class<?> type) {
+                    if (Number.class.isAssignableFrom(type)) {
+                        // byte, short, int, long, double, float, BigDecimal
+                        return NUMBER_CONVERSIONS;
+                    } else if (Boolean.class == type) {
+                        return BOOLEAN_CONVERSIONS;
+                    } else if (Date.class.isAssignableFrom(type)) {
+                        return DATE_CONVERSIONS;
+                    } else if (Calendar.class.isAssignableFrom(type)) {
+                        return CALENDAR_CONVERSIONS;
+                    } else if (ZonedDateTime.class == type) {
+                        return ZONED_DATE_TIME_CONVERSIONS;
+                    }
+                    // default string based
+                    return STRING_CONVERSIONS;
+                }
+            };
+
+    private ConverterRegistry() {}
+
+    private static Map<Class<?>, Conversion> conversions(final Converter converter) {
+        final Map<Class<?>, Conversion> map = new IdentityHashMap<>();
+        map.put(String.class, converter::toString);
+        map.put(Byte.class, converter::toByte);
+        map.put(Short.class, converter::toShort);
+        map.put(Integer.class, converter::toInteger);
+        map.put(Long.class, converter::toLong);
+        map.put(Float.class, converter::toFloat);
+        map.put(Double.class, converter::toDouble);
+        map.put(BigDecimal.class, converter::toBigDecimal);
+        map.put(Boolean.class, converter::toBoolean);
+        map.put(Date.class, converter::toDate);
+        map.put(Calendar.class, converter::toCalendar);
+        map.put(ZonedDateTime.class, converter::toZonedDateTime);
+        return map;
+    }
+
+    /**
+     * Convert a value
+     * @param value The value
+     * @param type The target type
+     * @param <T> The target type
+     * @return The converted value or {@code null} if the target type is not supported
+     * @throws IllegalArgumentException If the value can't be converted
+     */
+    @SuppressWarnings("unchecked")
+    public static @Nullable <T> T convert(final @NotNull Object value, final @NotNull Class<T> type) {
+        final Conversion conversion = CONVERSIONS.get(value.getClass()).get(type);
+        return conversion == null ? null : (T) conversion.convert(value);
+    }
+}
@@ -30,38 +30,41 @@ import org.jetbrains.annotations.NotNull;
  */
 public class DateConverter extends NumberConverter implements Converter {
 
-    private final Date value;
+    /** The shared instance */
+    public static final DateConverter INSTANCE = new DateConverter();
 
-    public DateConverter(final Date val) {
-        super(val.getTime());
-        this.value = val;
+    protected DateConverter() {}
+
+    @Override
+    protected @NotNull Number toNumber(final @NotNull Object value) {
+        return ((Date) value).getTime();
     }
 
     @Override
-    public @NotNull ZonedDateTime toZonedDateTime() {
-        return new CalendarConverter(toCalendar()).toZonedDateTime();
+    public @NotNull ZonedDateTime toZonedDateTime(final @NotNull Object value) {
+        return CalendarConverter.INSTANCE.toZonedDateTime(toCalendar(value));
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toCalendar()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toCalendar(java.lang.Object)
      */
     @Override
-    public @NotNull Calendar toCalendar() {
+    public @NotNull Calendar toCalendar(final @NotNull Object value) {
         final Calendar c = Calendar.getInstance();
-        c.setTimeInMillis(this.toLong());
+        c.setTimeInMillis(((Date) value).getTime());
         return c;
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toDate()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toDate(java.lang.Object)
      */
     @Override
-    public @NotNull Date toDate() {
-        return this.value;
+    public @NotNull Date toDate(final @NotNull Object value) {
+        return (Date) value;
     }
 
     @Override
-    public String toString() {
-        return ISO8601.format(this.toCalendar());
+    public @NotNull String toString(final @NotNull Object value) {
+        return ISO8601.format(this.toCalendar(value));
     }
 }
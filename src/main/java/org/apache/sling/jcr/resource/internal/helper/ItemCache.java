@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper;
+
+import javax.jcr.Item;
+import javax.jcr.RepositoryException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A bounded cache of JCR items by path, used per provider state (and therefore
+ * per session). Once the maximum size is reached, the least recently used entry
+ * is evicted.
+ *
+ * A cached item is only returned if it still exists at the requested path, so
+ * items removed or moved through the session directly are not served. All
+ * entries are dropped by {@link #clear()} which must be called whenever the
+ * session is modified, saved or refreshed.
+ *
+ * As the underlying session, this class is not thread safe.
+ */
+public class ItemCache {
+
+    private final Map<String, Item> items;
+
+    private long hits;
+
+    private long misses;
+
+    /**
+     * Create a new cache
+     * @param maxSize The maximum number of cached items, must be greater than 0
+     */
+    public ItemCache(final int maxSize) {
+        this.items = new LinkedHashMap<String, Item>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Item> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Get the cached item for the path
+     * @param path The absolute path
+     * @return The item or {@code null} if the item is not cached or not valid anymore
+     */
+    public @Nullable Item get(final @NotNull String path) {
+        final Item item = this.items.get(path);
+        if (item != null) {
+            try {
+                // fails if the item has been removed in the meantime
+                if (path.equals(item.getPath())) {
+                    this.hits++;
+                    return item;
+                }
+            } catch (final RepositoryException e) {
+                // stale item, fall through
+            }
+            this.items.remove(path);
+        }
+        this.misses++;
+        return null;
+    }
+
+    /**
+     * Cache an item
+     * @param path The absolute path
+     * @param item The item found at that path
+     */
+    public void put(final @NotNull String path, final @NotNull Item item) {
+        this.items.put(path, item);
+    }
+
+    /**
+     * Remove all cached items.
+     */
+    public void clear() {
+        this.items.clear();
+    }
+
+    /**
+     * The number of lookups answered from the cache
+     * @return The number of cache hits
+     */
+    public long getHitCount() {
+        return this.hits;
+    }
+
+    /**
+     * The number of lookups not answered from the cache
+     * @return The number of cache misses
+     */
+    public long getMissCount() {
+        return this.misses;
+    }
+
+    @Override
+    public String toString() {
+        return "ItemCache [size=" + this.items.size() + ", hits=" + this.hits + ", misses=" + this.misses + "]";
+    }
+}
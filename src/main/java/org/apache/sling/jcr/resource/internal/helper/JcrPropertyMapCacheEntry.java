@@ -24,9 +24,9 @@ import javax.jcr.PropertyType;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.Value;
+import javax.jcr.ValueFactory;
 import javax.jcr.ValueFormatException;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -35,13 +35,13 @@ import java.io.ObjectOutputStream;
 import java.io.ObjectStreamClass;
 import java.io.Serializable;
 import java.lang.reflect.Array;
-import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
-import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.GregorianCalendar;
 import java.util.List;
+import java.util.TimeZone;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.jetbrains.annotations.NotNull;
@@ -54,15 +54,33 @@ public class JcrPropertyMapCacheEntry {
     /** Global logger */
     private static final Logger LOGGER = LoggerFactory.getLogger(JcrPropertyMapCacheEntry.class);
 
-    /** The JCR property - only set for existing values. */
-    private final Property property;
+    /** The kind of a value stored as it is */
+    private static final byte OBJECT = 0;
+
+    /** The kind of a single date stored as {@link DateValue} */
+    private static final byte DATE = 1;
+
+    /** The kind of multiple long, double or boolean values stored as primitive array */
+    private static final byte PRIMITIVE_ARRAY = 2;
+
+    /**
+     * The JCR property, or its name if the property is only retrieved from the
+     * node when required - {@code null} for new values.
+     */
+    private Object property;
+
+    /**
+     * The value of the object, stored as described by {@link #kind} -
+     * {@code null} for binary properties, which are read when required.
+     */
+    private Object value;
+
+    /** How the value is stored: {@link #OBJECT}, {@link #DATE} or {@link #PRIMITIVE_ARRAY} */
+    private byte kind;
 
     /** Whether this is an array or a single value. */
     private final boolean isArray;
 
-    /** The value of the object. */
-    private final Object propertyValue;
-
     /**
      * Create a new cache entry from a property.
      *
@@ -72,11 +90,54 @@ public class JcrPropertyMapCacheEntry {
     public JcrPropertyMapCacheEntry(final @NotNull Property prop) throws RepositoryException {
         this.property = prop;
         this.isArray = prop.isMultiple();
-        if (property.getType() != PropertyType.BINARY) {
-            this.propertyValue = JcrResourceUtil.toJavaObject(prop);
+        final int type = prop.getType();
+        if (type == PropertyType.BINARY) {
+            this.value = null;
+        } else if (this.isArray
+                && (type == PropertyType.LONG || type == PropertyType.DOUBLE || type == PropertyType.BOOLEAN)) {
+            final Object array = readPrimitiveArray(type, prop.getValues());
+            if (array != null) {
+                this.value = array;
+                this.kind = PRIMITIVE_ARRAY;
+            } else {
+                // keep the type of empty arrays as before
+                this.value = JcrResourceUtil.toJavaObject(prop);
+            }
+        } else if (!this.isArray && type == PropertyType.DATE) {
+            this.value = new DateValue(prop.getValue().getDate());
+            this.kind = DATE;
         } else {
-            this.propertyValue = null;
+            this.value = JcrResourceUtil.toJavaObject(prop);
+        }
+    }
+
+    /**
+     * Read multiple long, double or boolean values into a primitive array
+     * @return The array or {@code null} if there are no values
+     */
+    private static @Nullable Object readPrimitiveArray(final int type, final @NotNull Value[] values)
+            throws RepositoryException {
+        if (values.length == 0) {
+            return null;
+        }
+        if (type == PropertyType.LONG) {
+            final long[] array = new long[values.length];
+            for (int i = 0; i < values.length; i++) {
+                array[i] = values[i].getLong();
+            }
+            return array;
+        } else if (type == PropertyType.DOUBLE) {
+            final double[] array = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                array[i] = values[i].getDouble();
+            }
+            return array;
+        }
+        final boolean[] array = new boolean[values.length];
+        for (int i = 0; i < values.length; i++) {
+            array[i] = values[i].getBoolean();
         }
+        return array;
     }
 
     /**
@@ -88,7 +149,7 @@ public class JcrPropertyMapCacheEntry {
     public JcrPropertyMapCacheEntry(final @NotNull Object value, final @NotNull Node node)
             throws IOException, RepositoryException {
         this.property = null;
-        this.propertyValue = value;
+        this.value = value;
         this.isArray = value.getClass().isArray();
         // check if values can be stored in JCR
         if (isArray) {
@@ -108,35 +169,100 @@ public class JcrPropertyMapCacheEntry {
             // eats its contents
             return;
         }
-        final Value val = createValue(value, node);
+        createStorableValue(value, node, 0);
+    }
+
+    /**
+     * Create a new cache entry for an existing property whose value has been
+     * read or stored before (e.g. from a {@link PropertySnapshot}). The property
+     * itself is only retrieved from the node if required.
+     * @param value the value
+     * @param propertyName the name of the property
+     */
+    public JcrPropertyMapCacheEntry(final @NotNull Object value, final @NotNull String propertyName) {
+        this.property = propertyName;
+        this.value = value;
+        this.isArray = value.getClass().isArray();
+    }
+
+    private @Nullable Property getProperty(final @Nullable Node node) throws RepositoryException {
+        if (this.property instanceof String) {
+            if (node == null) {
+                return null;
+            }
+            this.property = node.getProperty((String) this.property);
+        }
+        return (Property) this.property;
+    }
+
+    /**
+     * Create the JCR value for storing an object. Unlike creating a cache entry
+     * and converting it to a {@link Value}, the object is only converted once.
+     * @param value The object, might be an array
+     * @param node The node
+     * @param spillThreshold The size in bytes above which serialized objects are
+     *        buffered in a temporary file, {@code 0} to always buffer them on the heap
+     * @return A {@link Value} or a {@code Value[]} if the object is an array
+     * @throws IllegalArgumentException If the object can't be stored
+     * @throws IOException If serializing the object fails
+     * @throws RepositoryException If creating the value fails
+     */
+    public static @NotNull Object toJcrValue(
+            final @NotNull Object value, final @NotNull Node node, final long spillThreshold)
+            throws IOException, RepositoryException {
+        if (value.getClass().isArray()) {
+            final Object[] values = convertToObjectArray(value);
+            final Value[] result = new Value[values.length];
+            for (int i = 0; i < values.length; i++) {
+                result[i] = createStorableValue(values[i], node, spillThreshold);
+            }
+            return result;
+        }
+        return createStorableValue(value, node, spillThreshold);
+    }
+
+    private static @NotNull Value createStorableValue(
+            final @NotNull Object value, final @NotNull Node node, final long spillThreshold)
+            throws IOException, RepositoryException {
+        final Value val = createValue(value, node, spillThreshold);
         if (val == null) {
             throw new IllegalArgumentException(
                     "Value can't be stored in the repository as it is having an unsupported type " + value.getClass());
         }
+        return val;
     }
 
     /**
      * Create a value for the object.
      * If the value type is supported directly through a jcr property type,
      * the corresponding value is created. If the value is serializable,
-     * it is serialized through an object stream. Otherwise null is returned.
+     * it is serialized through an object stream, which is buffered in a
+     * temporary file once it exceeds the threshold. Otherwise null is returned.
      *
      * @param obj the object
-     * @param  node the node
+     * @param node the node
+     * @param spillThreshold the size in bytes above which the serialized object
+     *        is buffered in a temporary file, {@code 0} to always buffer it on the heap
      * @return the converted value
      */
-    private static @Nullable Value createValue(final @NotNull Object obj, final @NotNull Node node)
+    private static @Nullable Value createValue(
+            final @NotNull Object obj, final @NotNull Node node, final long spillThreshold)
             throws IOException, RepositoryException {
         final Session session = node.getSession();
         Value value = JcrResourceUtil.createValue(obj, session);
         if (value == null && obj instanceof Serializable) {
-            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            final ObjectOutputStream oos = new ObjectOutputStream(baos);
-            oos.writeObject(obj);
-            oos.close();
-            final ByteArrayInputStream bais = new ByteArrayInputStream(baos.toByteArray());
-            value = session.getValueFactory()
-                    .createValue(session.getValueFactory().createBinary(bais));
+            final SpillingOutputStream out = new SpillingOutputStream(spillThreshold);
+            try {
+                try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+                    oos.writeObject(obj);
+                }
+                try (InputStream in = out.getInputStream()) {
+                    final ValueFactory valueFactory = session.getValueFactory();
+                    value = valueFactory.createValue(valueFactory.createBinary(in));
+                }
+            } finally {
+                out.discard();
+            }
         }
         return value;
     }
@@ -184,7 +310,26 @@ public class JcrPropertyMapCacheEntry {
      * @throws RepositoryException If something goes wrong
      */
     public @NotNull Object getPropertyValue() throws RepositoryException {
-        return this.propertyValue != null ? this.propertyValue : JcrResourceUtil.toJavaObject(property);
+        if (this.kind != OBJECT) {
+            // the boxed value is kept from now on
+            this.value = box();
+            this.kind = OBJECT;
+        }
+        return this.value != null ? this.value : JcrResourceUtil.toJavaObject(getProperty(null));
+    }
+
+    /**
+     * Create the object for a value stored as {@link #DATE} or {@link #PRIMITIVE_ARRAY}.
+     */
+    private @NotNull Object box() {
+        if (this.kind == DATE) {
+            return ((DateValue) this.value).toCalendar();
+        } else if (this.value instanceof long[]) {
+            return ArrayUtils.toObject((long[]) this.value);
+        } else if (this.value instanceof double[]) {
+            return ArrayUtils.toObject((double[]) this.value);
+        }
+        return ArrayUtils.toObject((boolean[]) this.value);
     }
 
     /**
@@ -200,7 +345,7 @@ public class JcrPropertyMapCacheEntry {
     }
 
     /**
-     * Convert the default value to the given type
+     * Convert the default value to the given type.
      * @param type The type class
      * @param node The node
      * @param dynamicClassLoader The classloader
@@ -213,6 +358,10 @@ public class JcrPropertyMapCacheEntry {
         T result = null;
 
         try {
+            if (this.kind == DATE && type == Date.class) {
+                return (T) new Date(((DateValue) this.value).time);
+            }
+
             final boolean targetIsArray = type.isArray();
 
             if (this.isArray) {
@@ -318,10 +467,11 @@ public class JcrPropertyMapCacheEntry {
             // any number: length of binary
         } else if (Number.class.isAssignableFrom(type)) {
             // avoid NPE if this instance has not been created from a property (see SLING-11465)
-            if (property == null) {
+            final Property prop = getProperty(node);
+            if (prop == null) {
                 return null;
             }
-            return convert(propertyToLength(property, index), type, node);
+            return convert(propertyToLength(prop, index), type, node);
 
             // string: read binary
         } else if (String.class == type) {
@@ -371,76 +521,41 @@ public class JcrPropertyMapCacheEntry {
 
     private @Nullable <T> T convert(final @NotNull Object value, final @NotNull Class<T> type, final @NotNull Node node)
             throws IOException, RepositoryException {
-        if (String.class == type) {
-            return (T) getConverter(value).toString();
-
-        } else if (Byte.class == type) {
-            return (T) getConverter(value).toByte();
-
-        } else if (Short.class == type) {
-            return (T) getConverter(value).toShort();
-
-        } else if (Integer.class == type) {
-            return (T) getConverter(value).toInteger();
+        if (Value.class == type) {
+            return (T) createValue(value, node, 0);
 
-        } else if (Long.class == type) {
-            return (T) getConverter(value).toLong();
-
-        } else if (Float.class == type) {
-            return (T) getConverter(value).toFloat();
-
-        } else if (Double.class == type) {
-            return (T) getConverter(value).toDouble();
-
-        } else if (BigDecimal.class == type) {
-            return (T) getConverter(value).toBigDecimal();
+        } else if (Property.class == type) {
+            return (T) getProperty(node);
+        }
 
-        } else if (Boolean.class == type) {
-            return (T) getConverter(value).toBoolean();
+        // null in case of unsupported type
+        return ConverterRegistry.convert(value, type);
+    }
 
-        } else if (Date.class == type) {
-            return (T) getConverter(value).toDate();
+    /**
+     * A single date, which is much smaller than a {@link Calendar}.
+     */
+    private static final class DateValue {
 
-        } else if (Calendar.class == type) {
-            return (T) getConverter(value).toCalendar();
+        private final long time;
 
-        } else if (ZonedDateTime.class == type) {
-            Calendar calendar = getConverter(value).toCalendar();
-            return (T) ZonedDateTime.ofInstant(
-                    calendar.toInstant(), calendar.getTimeZone().toZoneId().normalized());
+        private final TimeZone timeZone;
 
-        } else if (Value.class == type) {
-            return (T) createValue(value, node);
+        private final boolean lenient;
 
-        } else if (Property.class == type) {
-            return (T) this.property;
+        DateValue(final @NotNull Calendar date) {
+            this.time = date.getTimeInMillis();
+            this.timeZone = date.getTimeZone();
+            this.lenient = date.isLenient();
         }
 
-        // fallback in case of unsupported type
-        return null;
-    }
-
-    /**
-     * Create a converter for an object.
-     *
-     * @param value The object to convert
-     * @return A converter for {@code value}
-     */
-    private static @NotNull Converter getConverter(final @NotNull Object value) {
-        if (value instanceof Number) {
-            // byte, short, int, long, double, float, BigDecimal
-            return new NumberConverter((Number) value);
-        } else if (value instanceof Boolean) {
-            return new BooleanConverter((Boolean) value);
-        } else if (value instanceof Date) {
-            return new DateConverter((Date) value);
-        } else if (value instanceof Calendar) {
-            return new CalendarConverter((Calendar) value);
-        } else if (value instanceof ZonedDateTime) {
-            return new ZonedDateTimeConverter((ZonedDateTime) value);
+        @NotNull
+        Calendar toCalendar() {
+            final Calendar date = new GregorianCalendar(this.timeZone);
+            date.setLenient(this.lenient);
+            date.setTimeInMillis(this.time);
+            return date;
         }
-        // default string based
-        return new StringConverter(value);
     }
 
     /**
@@ -154,7 +154,7 @@ public class JcrResourceUtil {
         Value val;
         ValueFactory fac = session.getValueFactory();
         if (value instanceof ZonedDateTime) {
-            val = fac.createValue(new ZonedDateTimeConverter((ZonedDateTime) value).toCalendar());
+            val = fac.createValue(ZonedDateTimeConverter.INSTANCE.toCalendar(value));
         } else if (value instanceof Calendar) {
             val = fac.createValue((Calendar) value);
         } else if (value instanceof InputStream) {
@@ -180,4 +180,35 @@ public class JcrResourceUtil {
         }
         return val;
     }
+
+    /**
+     * Count the bytes of the UTF-8 encoding of a character sequence without
+     * encoding it. The result is the same as the length of
+     * {@code value.toString().getBytes(StandardCharsets.UTF_8)}, so unpaired
+     * surrogates count as one byte each, as they are encoded as '?'.
+     *
+     * @param value the character sequence
+     * @return the number of bytes
+     */
+    public static long getUtf8Length(final @NotNull CharSequence value) {
+        final int chars = value.length();
+        long length = chars;
+        for (int i = 0; i < chars; i++) {
+            final char c = value.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    length += 1;
+                } else if (Character.isHighSurrogate(c)
+                        && i + 1 < chars
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    // 4 bytes for both chars of the pair
+                    length += 2;
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    length += 2;
+                }
+            }
+        }
+        return length;
+    }
 }
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The namespace prefixes of the repository and the escaped JCR names of value
+ * map keys, shared by all sessions of the resource provider.
+ *
+ * The prefixes are read once from the namespace registry and kept in an
+ * immutable set. Sessions which remapped a prefix with
+ * {@link Session#setNamespacePrefix(String, String)} must not use the cache. The escaped names
+ * are kept in a bounded map, evicting the least recently used name once the
+ * maximum is reached. As the escaped names depend on the prefixes, both are
+ * cleared whenever the namespace
+ * registry changes. The cache is only used while it is
+ * {@link #setActive(boolean) active}, which is the case as long as the
+ * observation listener for the namespace registry is registered.
+ */
+public class NamespacePrefixCache {
+
+    /** The maximum number of escaped names */
+    static final int MAX_ESCAPED_NAMES = 4096;
+
+    /** The escaped names in access order, guarded by itself */
+    private final Map<String, String> escapedNames = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+            return size() > MAX_ESCAPED_NAMES;
+        }
+    };
+
+    private volatile Set<String> prefixes;
+
+    private volatile boolean active;
+
+    /** Incremented on every change, to not keep prefixes read before a change */
+    private long generation;
+
+    /**
+     * Enable or disable the cache. Disabling the cache clears it.
+     * @param flag Whether the cache is active
+     */
+    public void setActive(final boolean flag) {
+        this.active = flag;
+        if (!flag) {
+            this.clear();
+        }
+    }
+
+    /**
+     * Whether the cache is currently used
+     * @return {@code true} if the cache is active
+     */
+    public boolean isActive() {
+        return this.active;
+    }
+
+    /**
+     * Check whether a prefix is a registered namespace prefix
+     * @param session The session used to read the prefixes if they are not cached
+     * @param prefix The prefix
+     * @return {@code true} if the prefix is registered
+     * @throws RepositoryException If reading the prefixes fails
+     */
+    public boolean isPrefix(final @NotNull Session session, final @NotNull String prefix) throws RepositoryException {
+        return this.getPrefixes(session).contains(prefix);
+    }
+
+    /**
+     * Get the registered namespace prefixes. They are read from the namespace
+     * registry, so prefixes remapped by the session are not included.
+     * @param session The session used to read the prefixes if they are not cached
+     * @return The prefixes
+     * @throws RepositoryException If reading the prefixes fails
+     */
+    public @NotNull Set<String> getPrefixes(final @NotNull Session session) throws RepositoryException {
+        Set<String> set = this.prefixes;
+        if (set == null) {
+            final long current;
+            synchronized (this) {
+                current = this.generation;
+            }
+            set = Collections.unmodifiableSet(new HashSet<>(
+                    Arrays.asList(session.getWorkspace().getNamespaceRegistry().getPrefixes())));
+            synchronized (this) {
+                if (this.active && current == this.generation) {
+                    this.prefixes = set;
+                }
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Get the cached escaped JCR name of a value map key
+     * @param key The key
+     * @return The escaped name or {@code null}
+     */
+    public @Nullable String getEscapedName(final @NotNull String key) {
+        if (!this.active) {
+            return null;
+        }
+        synchronized (this.escapedNames) {
+            return this.escapedNames.get(key);
+        }
+    }
+
+    /**
+     * Cache the escaped JCR name of a value map key
+     * @param key The key
+     * @param name The escaped name
+     */
+    public void putEscapedName(final @NotNull String key, final @NotNull String name) {
+        if (this.active) {
+            synchronized (this.escapedNames) {
+                this.escapedNames.put(key, name);
+            }
+        }
+    }
+
+    /**
+     * Remove the prefixes and all escaped names, e.g. if the namespace registry changed.
+     */
+    public void clear() {
+        synchronized (this) {
+            this.generation++;
+            this.prefixes = null;
+        }
+        synchronized (this.escapedNames) {
+            this.escapedNames.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        final Set<String> set = this.prefixes;
+        final int names;
+        synchronized (this.escapedNames) {
+            names = this.escapedNames.size();
+        }
+        return "NamespacePrefixCache [prefixes=" + (set == null ? "-" : set.size()) + ", escapedNames=" + names + "]";
+    }
+}
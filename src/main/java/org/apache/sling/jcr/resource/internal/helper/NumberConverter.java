@@ -30,97 +30,105 @@ import org.jetbrains.annotations.NotNull;
  */
 public class NumberConverter implements Converter {
 
-    private final Number value;
+    /** The shared instance */
+    public static final NumberConverter INSTANCE = new NumberConverter();
 
-    public NumberConverter(final Number val) {
-        this.value = val;
+    protected NumberConverter() {}
+
+    /**
+     * Get the number a value represents
+     * @param value The value
+     * @return The number
+     */
+    protected @NotNull Number toNumber(final @NotNull Object value) {
+        return (Number) value;
     }
 
     /**
-     * @see java.lang.Object#toString()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toString(java.lang.Object)
      */
-    @Override
-    public String toString() {
-        return this.value.toString();
+    public @NotNull String toString(final @NotNull Object value) {
+        return value.toString();
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toLong()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toLong(java.lang.Object)
      */
-    public @NotNull Long toLong() {
-        return this.value.longValue();
+    public @NotNull Long toLong(final @NotNull Object value) {
+        return this.toNumber(value).longValue();
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toByte()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toByte(java.lang.Object)
      */
-    public @NotNull Byte toByte() {
-        return this.value.byteValue();
+    public @NotNull Byte toByte(final @NotNull Object value) {
+        return this.toNumber(value).byteValue();
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toShort()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toShort(java.lang.Object)
      */
-    public @NotNull Short toShort() {
-        return this.value.shortValue();
+    public @NotNull Short toShort(final @NotNull Object value) {
+        return this.toNumber(value).shortValue();
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toInteger()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toInteger(java.lang.Object)
      */
-    public @NotNull Integer toInteger() {
-        return this.value.intValue();
+    public @NotNull Integer toInteger(final @NotNull Object value) {
+        return this.toNumber(value).intValue();
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toDouble()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toDouble(java.lang.Object)
      */
-    public @NotNull Double toDouble() {
-        return this.value.doubleValue();
+    public @NotNull Double toDouble(final @NotNull Object value) {
+        return this.toNumber(value).doubleValue();
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toFloat()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toFloat(java.lang.Object)
      */
-    public @NotNull Float toFloat() {
-        return this.value.floatValue();
+    public @NotNull Float toFloat(final @NotNull Object value) {
+        return this.toNumber(value).floatValue();
     }
 
     @Override
-    public @NotNull ZonedDateTime toZonedDateTime() {
-        return new CalendarConverter(toCalendar()).toZonedDateTime();
+    public @NotNull ZonedDateTime toZonedDateTime(final @NotNull Object value) {
+        return CalendarConverter.INSTANCE.toZonedDateTime(toCalendar(value));
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toCalendar()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toCalendar(java.lang.Object)
      */
-    public @NotNull Calendar toCalendar() {
+    public @NotNull Calendar toCalendar(final @NotNull Object value) {
         final Calendar c = Calendar.getInstance();
-        c.setTimeInMillis(this.toLong());
+        c.setTimeInMillis(this.toLong(value));
         return c;
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toDate()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toDate(java.lang.Object)
      */
-    public @NotNull Date toDate() {
-        return new Date(this.toLong());
+    public @NotNull Date toDate(final @NotNull Object value) {
+        return new Date(this.toLong(value));
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toBoolean()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toBoolean(java.lang.Object)
      */
-    public @NotNull Boolean toBoolean() {
+    public @NotNull Boolean toBoolean(final @NotNull Object value) {
         return false;
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toBigDecimal()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toBigDecimal(java.lang.Object)
      */
-    public @NotNull BigDecimal toBigDecimal() {
-        if (this.value instanceof BigDecimal) {
-            return (BigDecimal) this.value;
+    public @NotNull BigDecimal toBigDecimal(final @NotNull Object value) {
+        final Number number = this.toNumber(value);
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
         }
-        return new BigDecimal(this.value.toString());
+        return new BigDecimal(number.toString());
     }
 }
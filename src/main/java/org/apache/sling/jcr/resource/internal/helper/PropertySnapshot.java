@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper;
+
+import javax.jcr.Node;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
+import javax.jcr.PropertyType;
+import javax.jcr.RepositoryException;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable copy of all properties of a node, as stored in the
+ * {@link SharedPropertyCache}. The values are kept in the order the
+ * repository returned the properties.
+ *
+ * Binary properties are not copied, only their name is recorded and
+ * {@link #getValue(int)} returns {@code null} for them. Mutable values
+ * (calendars and arrays) are copied when the snapshot is created and
+ * again whenever they are handed out, so callers can never modify the
+ * shared state.
+ */
+public class PropertySnapshot {
+
+    /** Rough size of a snapshot and of each property without its value */
+    private static final int ENTRY_OVERHEAD = 64;
+
+    private final String[] names;
+
+    private final Object[] values;
+
+    private final long weight;
+
+    /** Last access, used for eviction */
+    volatile long lastAccess;
+
+    private PropertySnapshot(final String[] names, final Object[] values) {
+        this.names = names;
+        this.values = values;
+        long w = ENTRY_OVERHEAD;
+        for (int i = 0; i < names.length; i++) {
+            w += ENTRY_OVERHEAD + 2L * names[i].length() + estimateSize(values[i]);
+        }
+        this.weight = w;
+    }
+
+    /**
+     * Read all properties of the node
+     * @param node The node
+     * @return The snapshot
+     * @throws RepositoryException If reading fails
+     */
+    public static @NotNull PropertySnapshot create(final @NotNull Node node) throws RepositoryException {
+        final List<String> names = new ArrayList<>();
+        final List<Object> values = new ArrayList<>();
+        final PropertyIterator pi = node.getProperties();
+        while (pi.hasNext()) {
+            final Property prop = pi.nextProperty();
+            names.add(prop.getName());
+            if (prop.getType() == PropertyType.BINARY) {
+                values.add(null);
+            } else {
+                values.add(copy(JcrResourceUtil.toJavaObject(prop)));
+            }
+        }
+        return new PropertySnapshot(names.toArray(new String[0]), values.toArray());
+    }
+
+    /**
+     * The number of properties
+     * @return The number of properties
+     */
+    public int size() {
+        return this.names.length;
+    }
+
+    /**
+     * The JCR name of a property
+     * @param index The index of the property
+     * @return The name
+     */
+    public @NotNull String getName(final int index) {
+        return this.names[index];
+    }
+
+    /**
+     * The value of a property
+     * @param index The index of the property
+     * @return A copy of the value or {@code null} for binary properties
+     */
+    public @Nullable Object getValue(final int index) {
+        return copy(this.values[index]);
+    }
+
+    /**
+     * The value of a property
+     * @param name The JCR name of the property
+     * @return A copy of the value or {@code null} if there is no such property or it is binary
+     */
+    public @Nullable Object getValue(final @NotNull String name) {
+        final int index = this.indexOf(name);
+        return index < 0 ? null : getValue(index);
+    }
+
+    /**
+     * The index of a property
+     * @param name The JCR name of the property
+     * @return The index or {@code -1} if there is no such property
+     */
+    public int indexOf(final @NotNull String name) {
+        for (int i = 0; i < this.names.length; i++) {
+            if (this.names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check whether another snapshot has the same properties
+     * @param other The other snapshot
+     * @return {@code true} if the names and values of all properties are equal
+     */
+    public boolean hasSameProperties(final @NotNull PropertySnapshot other) {
+        return Arrays.equals(this.names, other.names) && Arrays.deepEquals(this.values, other.values);
+    }
+
+    /**
+     * The estimated memory footprint of this snapshot in bytes
+     * @return The weight
+     */
+    public long getWeight() {
+        return this.weight;
+    }
+
+    private static Object copy(final Object value) {
+        if (value instanceof Calendar) {
+            return ((Calendar) value).clone();
+        }
+        if (value != null && value.getClass().isArray()) {
+            final int length = Array.getLength(value);
+            final Object result = Array.newInstance(value.getClass().getComponentType(), length);
+            for (int i = 0; i < length; i++) {
+                Array.set(result, i, copy(Array.get(value, i)));
+            }
+            return result;
+        }
+        return value;
+    }
+
+    private static long estimateSize(final Object value) {
+        if (value instanceof String) {
+            return 40L + 2L * ((String) value).length();
+        }
+        if (value instanceof Calendar) {
+            return 400;
+        }
+        if (value != null && value.getClass().isArray()) {
+            long size = 16;
+            final int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                size += 8 + estimateSize(Array.get(value, i));
+            }
+            return size;
+        }
+        return 24;
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A cache of {@link PropertySnapshot}s shared by all sessions of the resource
+ * provider. Only nodes below the configured root paths are cached, which
+ * should contain content that rarely changes (like code in {@code /apps}
+ * and {@code /libs}).
+ *
+ * The cache is bounded by the number of entries and by their estimated size.
+ * Once one of the limits is exceeded, the least recently used entries are
+ * evicted in a batch. Entries are removed whenever an observation event
+ * reports a change of a node and the whole cache is only used while it is
+ * {@link #setActive(boolean) active}, which is the case as long as the
+ * observation listener is registered.
+ *
+ * As the properties a session may read depend on its user, snapshots are
+ * kept per user and only served to sessions of the same user. Users which
+ * see the same properties share a single snapshot, so content readable by
+ * everyone is held only once.
+ *
+ * As snapshots are created from the state a session sees, a snapshot is only
+ * added if no invalidation happened since the session has been opened (see
+ * {@link #getGeneration()}).
+ */
+public class SharedPropertyCache {
+
+    /** The fraction of the limits to which the cache is reduced on eviction */
+    private static final double EVICTION_TARGET = 0.9;
+
+    private final String[] roots;
+
+    private final int maxEntries;
+
+    private final long maxSize;
+
+    /** The snapshots per path and user id */
+    private final Map<String, Map<String, PropertySnapshot>> snapshots = new ConcurrentHashMap<>();
+
+    private final AtomicInteger entryCount = new AtomicInteger();
+
+    private final AtomicLong size = new AtomicLong();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private volatile boolean active;
+
+    /** Logical clock for the recency of entries, updated without synchronization as it only needs to be roughly ordered */
+    private long clock;
+
+    /**
+     * Create a new cache
+     * @param roots The root paths of the cached subtrees
+     * @param maxEntries The maximum number of cached nodes
+     * @param maxSize The maximum estimated size in bytes of all cached nodes
+     */
+    public SharedPropertyCache(final @NotNull String[] roots, final int maxEntries, final long maxSize) {
+        final Set<String> paths = new LinkedHashSet<>();
+        for (final String root : roots) {
+            String path = root.trim();
+            while (path.length() > 1 && path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            if (path.startsWith("/")) {
+                paths.add(path);
+            }
+        }
+        this.roots = paths.toArray(new String[0]);
+        this.maxEntries = maxEntries;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * The configured root paths
+     * @return The root paths
+     */
+    public @NotNull String[] getRoots() {
+        return this.roots.clone();
+    }
+
+    /**
+     * Get the root path a path belongs to
+     * @param path The path
+     * @return The root path or {@code null} if the path is not cached
+     */
+    public @Nullable String getRoot(final @NotNull String path) {
+        for (final String root : this.roots) {
+            if (isSameOrDescendant(path, root)) {
+                return root;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Enable or disable the cache. Disabling the cache clears it.
+     * @param flag Whether the cache is active
+     */
+    public void setActive(final boolean flag) {
+        this.active = flag;
+        if (!flag) {
+            this.clear();
+        }
+    }
+
+    /**
+     * Whether the cache is currently used
+     * @return {@code true} if the cache is active
+     */
+    public boolean isActive() {
+        return this.active;
+    }
+
+    /**
+     * The current generation, which changes with every invalidation. The value
+     * must be read when the session the snapshot is created with is opened.
+     * @return The generation
+     */
+    public long getGeneration() {
+        return this.generation.get();
+    }
+
+    /**
+     * Get the snapshot of the node at the path
+     * @param path The path of the node
+     * @param userId The user id of the session
+     * @return The snapshot or {@code null}
+     */
+    public @Nullable PropertySnapshot get(final @NotNull String path, final @NotNull String userId) {
+        if (!this.active) {
+            return null;
+        }
+        final Map<String, PropertySnapshot> entries = this.snapshots.get(path);
+        final PropertySnapshot snapshot = entries == null ? null : entries.get(userId);
+        if (snapshot == null) {
+            this.misses.increment();
+        } else {
+            this.hits.increment();
+            snapshot.lastAccess = ++this.clock;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Add a snapshot. If another user has a snapshot of the node with the
+     * same properties, that snapshot is used for the user as well.
+     * @param path The path of the node
+     * @param userId The user id of the session the snapshot has been created with
+     * @param snapshot The snapshot
+     * @param generation The generation read when the session has been opened
+     */
+    public void put(
+            final @NotNull String path,
+            final @NotNull String userId,
+            final @NotNull PropertySnapshot snapshot,
+            final long generation) {
+        if (!this.active || snapshot.getWeight() > this.maxSize || generation != this.generation.get()) {
+            return;
+        }
+        snapshot.lastAccess = ++this.clock;
+        this.snapshots.compute(path, (key, entries) -> {
+            final Map<String, PropertySnapshot> map = entries == null ? new ConcurrentHashMap<>() : entries;
+            PropertySnapshot shared = snapshot;
+            for (final PropertySnapshot existing : map.values()) {
+                if (existing.hasSameProperties(snapshot)) {
+                    shared = existing;
+                    break;
+                }
+            }
+            final PropertySnapshot old = map.put(userId, shared);
+            if (old == null) {
+                this.entryCount.incrementAndGet();
+            } else if (old != shared && !map.containsValue(old)) {
+                this.size.addAndGet(-old.getWeight());
+            }
+            if (shared == snapshot) {
+                this.size.addAndGet(snapshot.getWeight());
+            }
+            return map;
+        });
+        if (generation != this.generation.get()) {
+            // invalidated while adding
+            this.remove(path);
+        } else if (this.entryCount.get() > this.maxEntries || this.size.get() > this.maxSize) {
+            this.evict();
+        }
+    }
+
+    /**
+     * Remove the snapshot of a single node, e.g. if one of its properties changed.
+     * @param path The path of the node
+     */
+    public void invalidate(final @NotNull String path) {
+        this.generation.incrementAndGet();
+        this.remove(path);
+    }
+
+    /**
+     * Remove the snapshots of a node and all its descendants, e.g. if the node is removed or moved.
+     * @param path The path of the node
+     */
+    public void invalidateTree(final @NotNull String path) {
+        this.generation.incrementAndGet();
+        for (final String key : this.snapshots.keySet()) {
+            if (isSameOrDescendant(key, path)) {
+                this.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Remove all snapshots.
+     */
+    public void clear() {
+        this.generation.incrementAndGet();
+        for (final String key : this.snapshots.keySet()) {
+            this.remove(key);
+        }
+    }
+
+    /**
+     * The number of cached nodes
+     * @return The number of entries
+     */
+    public int getEntryCount() {
+        return this.entryCount.get();
+    }
+
+    /**
+     * The estimated size of all cached nodes
+     * @return The size in bytes
+     */
+    public long getSize() {
+        return this.size.get();
+    }
+
+    /**
+     * The number of lookups answered from the cache
+     * @return The number of cache hits
+     */
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    /**
+     * The number of lookups not answered from the cache
+     * @return The number of cache misses
+     */
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    private void remove(final String path) {
+        final Map<String, PropertySnapshot> entries = this.snapshots.remove(path);
+        if (entries != null) {
+            final Set<PropertySnapshot> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (final PropertySnapshot old : entries.values()) {
+                this.entryCount.decrementAndGet();
+                if (removed.add(old)) {
+                    this.size.addAndGet(-old.getWeight());
+                }
+            }
+        }
+    }
+
+    private synchronized void evict() {
+        final int targetEntries = (int) (this.maxEntries * EVICTION_TARGET);
+        final long targetSize = (long) (this.maxSize * EVICTION_TARGET);
+        if (this.entryCount.get() <= this.maxEntries && this.size.get() <= this.maxSize) {
+            // another thread evicted already
+            return;
+        }
+        final List<Entry> entries = new ArrayList<>();
+        for (final Map.Entry<String, Map<String, PropertySnapshot>> byPath : this.snapshots.entrySet()) {
+            for (final Map.Entry<String, PropertySnapshot> byUser :
+                    byPath.getValue().entrySet()) {
+                entries.add(new Entry(byPath.getKey(), byUser.getKey(), byUser.getValue()));
+            }
+        }
+        entries.sort((e1, e2) -> Long.compare(e1.snapshot.lastAccess, e2.snapshot.lastAccess));
+        final Iterator<Entry> iter = entries.iterator();
+        while (iter.hasNext() && (this.entryCount.get() > targetEntries || this.size.get() > targetSize)) {
+            final Entry entry = iter.next();
+            this.snapshots.computeIfPresent(entry.path, (key, byUser) -> {
+                if (byUser.remove(entry.userId, entry.snapshot)) {
+                    this.entryCount.decrementAndGet();
+                    if (!byUser.containsValue(entry.snapshot)) {
+                        this.size.addAndGet(-entry.snapshot.getWeight());
+                    }
+                }
+                return byUser.isEmpty() ? null : byUser;
+            });
+        }
+    }
+
+    private static final class Entry {
+
+        private final String path;
+
+        private final String userId;
+
+        private final PropertySnapshot snapshot;
+
+        Entry(final String path, final String userId, final PropertySnapshot snapshot) {
+            this.path = path;
+            this.userId = userId;
+            this.snapshot = snapshot;
+        }
+    }
+
+    private static boolean isSameOrDescendant(final String path, final String ancestor) {
+        if ("/".equals(ancestor)) {
+            return true;
+        }
+        return path.startsWith(ancestor)
+                && (path.length() == ancestor.length() || path.charAt(ancestor.length()) == '/');
+    }
+
+    @Override
+    public String toString() {
+        return "SharedPropertyCache [entries=" + this.entryCount.get() + ", size=" + this.size.get() + ", hits="
+                + this.hits.sum() + ", misses=" + this.misses.sum() + "]";
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An output stream collecting data which is read again afterwards, e.g. a
+ * serialized object which is stored as a binary. The data is kept on the heap
+ * until it exceeds the threshold, then it is moved to a temporary file.
+ *
+ * Once all data is written, the stream is closed and the data is read through
+ * {@link #getInputStream()}. The heap buffer is not copied for that. Finally
+ * {@link #discard()} removes the temporary file.
+ */
+public class SpillingOutputStream extends OutputStream {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpillingOutputStream.class);
+
+    private static final int INITIAL_SIZE = 256;
+
+    private final long threshold;
+
+    private byte[] buffer = new byte[INITIAL_SIZE];
+
+    private int count;
+
+    private File file;
+
+    private OutputStream fileOut;
+
+    /**
+     * Create a new stream
+     * @param threshold The number of bytes above which the data is moved to a
+     *        temporary file. If {@code 0} or negative, the data is always kept
+     *        on the heap.
+     */
+    public SpillingOutputStream(final long threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (this.fileOut == null && this.threshold > 0 && this.count + 1L > this.threshold) {
+            spill();
+        }
+        if (this.fileOut != null) {
+            this.fileOut.write(b);
+        } else {
+            ensureCapacity(this.count + 1);
+            this.buffer[this.count++] = (byte) b;
+        }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (this.fileOut == null && this.threshold > 0 && this.count + (long) len > this.threshold) {
+            spill();
+        }
+        if (this.fileOut != null) {
+            this.fileOut.write(b, off, len);
+        } else {
+            ensureCapacity(this.count + len);
+            System.arraycopy(b, off, this.buffer, this.count, len);
+            this.count += len;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (this.fileOut != null) {
+            this.fileOut.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.fileOut != null) {
+            this.fileOut.close();
+        }
+    }
+
+    /**
+     * Whether the data has been moved to a temporary file
+     * @return {@code true} if a temporary file is used
+     */
+    public boolean isSpilled() {
+        return this.file != null;
+    }
+
+    /**
+     * Read the written data. The stream must be closed before.
+     * @return A stream with the data
+     * @throws IOException If the temporary file can't be opened
+     */
+    public @NotNull InputStream getInputStream() throws IOException {
+        if (this.file != null) {
+            return new FileInputStream(this.file);
+        }
+        return new ByteArrayInputStream(this.buffer, 0, this.count);
+    }
+
+    /**
+     * Release the written data and remove the temporary file.
+     */
+    public void discard() {
+        this.buffer = null;
+        if (this.file != null) {
+            try {
+                this.fileOut.close();
+            } catch (final IOException e) {
+                // ignore, the file is removed anyway
+            }
+            if (!this.file.delete()) {
+                LOGGER.warn("Unable to delete temporary file {}", this.file);
+            }
+            this.file = null;
+        }
+    }
+
+    private void spill() throws IOException {
+        this.file = File.createTempFile("sling-jcr-value", ".tmp");
+        this.fileOut = new BufferedOutputStream(new FileOutputStream(this.file));
+        this.fileOut.write(this.buffer, 0, this.count);
+        this.buffer = null;
+        this.count = 0;
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity < 0) {
+            throw new OutOfMemoryError("Serialized data too large");
+        }
+        if (capacity > this.buffer.length) {
+            int newLength = this.buffer.length << 1;
+            if (newLength < capacity) {
+                newLength = capacity;
+            }
+            if (newLength < 0) {
+                newLength = Integer.MAX_VALUE - 8;
+            }
+            if (this.threshold > 0 && newLength > this.threshold) {
+                // no need to grow any further as we spill above the threshold
+                newLength = (int) Math.max(capacity, Math.min(this.threshold, Integer.MAX_VALUE - 8));
+            }
+            this.buffer = Arrays.copyOf(this.buffer, newLength);
+        }
+    }
+}
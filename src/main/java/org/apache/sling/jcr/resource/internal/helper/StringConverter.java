@@ -31,97 +31,96 @@ import org.jetbrains.annotations.NotNull;
  */
 public class StringConverter implements Converter {
 
-    private final Object value;
+    /** The shared instance */
+    public static final StringConverter INSTANCE = new StringConverter();
 
-    public StringConverter(final Object val) {
-        this.value = val;
-    }
+    protected StringConverter() {}
 
     /**
-     * @see java.lang.Object#toString()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toString(java.lang.Object)
      */
-    @Override
-    public String toString() {
-        return this.value.toString();
+    public @NotNull String toString(final @NotNull Object value) {
+        return value.toString();
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toLong()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toLong(java.lang.Object)
      */
-    public @NotNull Long toLong() {
-        return Long.parseLong(this.toString());
+    public @NotNull Long toLong(final @NotNull Object value) {
+        return Long.parseLong(this.toString(value));
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toByte()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toByte(java.lang.Object)
      */
-    public @NotNull Byte toByte() {
-        return Byte.parseByte(this.toString());
+    public @NotNull Byte toByte(final @NotNull Object value) {
+        return Byte.parseByte(this.toString(value));
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toShort()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toShort(java.lang.Object)
      */
-    public @NotNull Short toShort() {
-        return Short.parseShort(this.toString());
+    public @NotNull Short toShort(final @NotNull Object value) {
+        return Short.parseShort(this.toString(value));
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toInteger()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toInteger(java.lang.Object)
      */
-    public @NotNull Integer toInteger() {
-        return Integer.parseInt(this.toString());
+    public @NotNull Integer toInteger(final @NotNull Object value) {
+        return Integer.parseInt(this.toString(value));
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toDouble()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toDouble(java.lang.Object)
      */
-    public @NotNull Double toDouble() {
-        return Double.parseDouble(this.toString());
+    public @NotNull Double toDouble(final @NotNull Object value) {
+        return Double.parseDouble(this.toString(value));
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toFloat()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toFloat(java.lang.Object)
      */
-    public @NotNull Float toFloat() {
-        return Float.parseFloat(this.toString());
+    public @NotNull Float toFloat(final @NotNull Object value) {
+        return Float.parseFloat(this.toString(value));
     }
 
     @Override
-    public @NotNull ZonedDateTime toZonedDateTime() {
-        return new CalendarConverter(toCalendar()).toZonedDateTime();
+    public @NotNull ZonedDateTime toZonedDateTime(final @NotNull Object value) {
+        return CalendarConverter.INSTANCE.toZonedDateTime(toCalendar(value));
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toCalendar()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toCalendar(java.lang.Object)
      */
-    public @NotNull Calendar toCalendar() {
-        final Calendar c = ISO8601.parse(toString());
+    public @NotNull Calendar toCalendar(final @NotNull Object value) {
+        final String string = this.toString(value);
+        final Calendar c = ISO8601.parse(string);
         if (c == null) {
-            throw new IllegalArgumentException("Not a date string: " + toString());
+            throw new IllegalArgumentException("Not a date string: " + string);
         }
         return c;
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toDate()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toDate(java.lang.Object)
      */
-    public @NotNull Date toDate() {
-        final Calendar c = this.toCalendar();
+    public @NotNull Date toDate(final @NotNull Object value) {
+        final Calendar c = this.toCalendar(value);
         return c.getTime();
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toBoolean()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toBoolean(java.lang.Object)
      */
-    public @NotNull Boolean toBoolean() {
-        return Boolean.valueOf(this.toString());
+    public @NotNull Boolean toBoolean(final @NotNull Object value) {
+        return Boolean.valueOf(this.toString(value));
     }
 
     /**
-     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toBigDecimal()
+     * @see org.apache.sling.jcr.resource.internal.helper.Converter#toBigDecimal(java.lang.Object)
      */
-    public @NotNull BigDecimal toBigDecimal() {
-        return new BigDecimal(this.toString());
+    public @NotNull BigDecimal toBigDecimal(final @NotNull Object value) {
+        return new BigDecimal(this.toString(value));
     }
 }
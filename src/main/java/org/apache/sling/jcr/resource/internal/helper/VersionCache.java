@@ -0,0 +1,363 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A cache for resolving versioned resources (requested with a {@code v}
+ * parameter), shared by all sessions of the resource provider. It keeps
+ * <ul>
+ * <li>the versionable ancestor of a path together with the path of its
+ * version history, or the information that the path has no versionable
+ * ancestor and</li>
+ * <li>the path of the frozen node of a version, by the path of the version
+ * history and the version name or label.</li>
+ * </ul>
+ * Only paths are cached, the items are always read with the session of the
+ * caller, so access control applies as usual.
+ *
+ * Versionable ancestors are removed whenever a node is added, removed or moved
+ * or its mixins change, frozen nodes whenever the version history changes,
+ * e.g. by checking in a new version or by moving a label. The cache is only
+ * used while it is {@link #setActive(boolean) active}, which is the case as
+ * long as the observation listener is registered. If the maximum number of
+ * entries is reached, additional entries are not cached until entries have
+ * been invalidated.
+ *
+ * As entries are created from the state a session sees, an entry is only
+ * added if no invalidation happened since the session has been opened (see
+ * {@link #getGeneration()}). Reading the generation right before reading the
+ * version information is not sufficient, as the session may not have been
+ * refreshed since an earlier invalidation.
+ */
+public class VersionCache {
+
+    /** The root of the version storage */
+    public static final String VERSION_STORAGE_PATH = "/jcr:system/jcr:versionStorage";
+
+    /**
+     * The versionable ancestor of a path
+     */
+    public static final class Versionable {
+
+        private final String path;
+
+        private final String historyPath;
+
+        /**
+         * Create a new versionable
+         * @param path The path of the versionable node
+         * @param historyPath The path of its version history
+         */
+        public Versionable(final @NotNull String path, final @NotNull String historyPath) {
+            this.path = path;
+            this.historyPath = historyPath;
+        }
+
+        private Versionable() {
+            this.path = null;
+            this.historyPath = null;
+        }
+
+        /**
+         * The path of the versionable node
+         * @return The path or {@code null} for {@link VersionCache#NOT_VERSIONABLE}
+         */
+        public @Nullable String getPath() {
+            return this.path;
+        }
+
+        /**
+         * The path of the version history of the versionable node
+         * @return The path or {@code null} for {@link VersionCache#NOT_VERSIONABLE}
+         */
+        public @Nullable String getHistoryPath() {
+            return this.historyPath;
+        }
+
+        @Override
+        public String toString() {
+            return "Versionable [path=" + this.path + ", historyPath=" + this.historyPath + "]";
+        }
+    }
+
+    /** Marker for paths without versionable ancestor */
+    public static final Versionable NOT_VERSIONABLE = new Versionable();
+
+    private final int maxEntries;
+
+    /** The versionable ancestors by path, sorted to find all descendants of a path */
+    private final ConcurrentNavigableMap<String, Versionable> versionables = new ConcurrentSkipListMap<>();
+
+    /** The paths of the frozen nodes by version specifier, by the path of the version history */
+    private final ConcurrentNavigableMap<String, Map<String, String>> frozenNodes = new ConcurrentSkipListMap<>();
+
+    /** The sizes of the maps above, as the size of a skip list map is not known without counting */
+    private final AtomicInteger versionableCount = new AtomicInteger();
+
+    private final AtomicInteger historyCount = new AtomicInteger();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private volatile boolean active;
+
+    /**
+     * Create a new cache
+     * @param maxEntries The maximum number of cached paths and of cached version histories
+     */
+    public VersionCache(final int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Enable or disable the cache. Disabling the cache clears it.
+     * @param flag Whether the cache is active
+     */
+    public void setActive(final boolean flag) {
+        this.active = flag;
+        if (!flag) {
+            this.clear();
+        }
+    }
+
+    /**
+     * Whether the cache is currently used
+     * @return {@code true} if the cache is active
+     */
+    public boolean isActive() {
+        return this.active;
+    }
+
+    /**
+     * The current generation, which changes with every invalidation. The value
+     * must be read when the session the version information is read with is opened.
+     * @return The generation
+     */
+    public long getGeneration() {
+        return this.generation.get();
+    }
+
+    /**
+     * Get the versionable ancestor of a path
+     * @param path The path of an item
+     * @return The versionable node (which might be the item itself),
+     *         {@link #NOT_VERSIONABLE} or {@code null} if not cached
+     */
+    public @Nullable Versionable getVersionable(final @NotNull String path) {
+        if (!this.active) {
+            return null;
+        }
+        final Versionable versionable = this.versionables.get(path);
+        if (versionable == null) {
+            this.misses.increment();
+        } else {
+            this.hits.increment();
+        }
+        return versionable;
+    }
+
+    /**
+     * Add the versionable ancestor of a path
+     * @param path The path of an item
+     * @param versionable The versionable node or {@link #NOT_VERSIONABLE}
+     * @param generation The generation read when the session has been opened
+     */
+    public void putVersionable(
+            final @NotNull String path, final @NotNull Versionable versionable, final long generation) {
+        if (!this.active || generation != this.generation.get() || this.versionableCount.get() >= this.maxEntries) {
+            return;
+        }
+        if (this.versionables.put(path, versionable) == null) {
+            this.versionableCount.incrementAndGet();
+        }
+        if (generation != this.generation.get()) {
+            // invalidated while adding
+            remove(this.versionables, this.versionableCount, path);
+        }
+    }
+
+    /**
+     * Get the path of the frozen node of a version
+     * @param historyPath The path of the version history
+     * @param versionSpecifier The name or the label of the version
+     * @return The path of the frozen node or {@code null} if not cached
+     */
+    public @Nullable String getFrozenNodePath(
+            final @NotNull String historyPath, final @NotNull String versionSpecifier) {
+        if (!this.active) {
+            return null;
+        }
+        final Map<String, String> versions = this.frozenNodes.get(historyPath);
+        final String path = versions == null ? null : versions.get(versionSpecifier);
+        if (path == null) {
+            this.misses.increment();
+        } else {
+            this.hits.increment();
+        }
+        return path;
+    }
+
+    /**
+     * Add the path of the frozen node of a version
+     * @param historyPath The path of the version history
+     * @param versionSpecifier The name or the label of the version
+     * @param frozenNodePath The path of the frozen node
+     * @param generation The generation read when the session has been opened
+     */
+    public void putFrozenNodePath(
+            final @NotNull String historyPath,
+            final @NotNull String versionSpecifier,
+            final @NotNull String frozenNodePath,
+            final long generation) {
+        if (!this.active || generation != this.generation.get()) {
+            return;
+        }
+        Map<String, String> versions = this.frozenNodes.get(historyPath);
+        if (versions == null) {
+            if (this.historyCount.get() >= this.maxEntries) {
+                return;
+            }
+            versions = new ConcurrentHashMap<>();
+            final Map<String, String> old = this.frozenNodes.putIfAbsent(historyPath, versions);
+            if (old == null) {
+                this.historyCount.incrementAndGet();
+            } else {
+                versions = old;
+            }
+        }
+        versions.put(versionSpecifier, frozenNodePath);
+        if (generation != this.generation.get()) {
+            // invalidated while adding
+            remove(this.frozenNodes, this.historyCount, historyPath);
+        }
+    }
+
+    /**
+     * Remove the cached information for a node and all its descendants, e.g.
+     * if the node is added, removed or moved or its mixins change. For nodes
+     * in the version storage, the version histories containing the node or
+     * contained in it are removed.
+     * @param path The path of the node
+     */
+    public void invalidateTree(final @NotNull String path) {
+        this.generation.incrementAndGet();
+        if (isSameOrDescendant(path, VERSION_STORAGE_PATH)) {
+            removeTree(this.frozenNodes, this.historyCount, path);
+            // the version history is an ancestor of all its nodes
+            for (String parent = getParent(path); parent != null; parent = getParent(parent)) {
+                remove(this.frozenNodes, this.historyCount, parent);
+            }
+        } else {
+            removeTree(this.versionables, this.versionableCount, path);
+            if (isSameOrDescendant(VERSION_STORAGE_PATH, path)) {
+                removeTree(this.frozenNodes, this.historyCount, "/");
+            }
+        }
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public void clear() {
+        this.generation.incrementAndGet();
+        removeTree(this.versionables, this.versionableCount, "/");
+        removeTree(this.frozenNodes, this.historyCount, "/");
+    }
+
+    /**
+     * The number of cached paths and version histories
+     * @return The number of entries
+     */
+    public int getEntryCount() {
+        return this.versionableCount.get() + this.historyCount.get();
+    }
+
+    /**
+     * The number of lookups answered from the cache
+     * @return The number of cache hits
+     */
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    /**
+     * The number of lookups not answered from the cache
+     * @return The number of cache misses
+     */
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    private static void remove(final Map<String, ?> map, final AtomicInteger count, final String path) {
+        if (map.remove(path) != null) {
+            count.decrementAndGet();
+        }
+    }
+
+    private static void removeTree(
+            final ConcurrentNavigableMap<String, ?> map, final AtomicInteger count, final String path) {
+        final Map<String, ?> descendants;
+        if ("/".equals(path)) {
+            descendants = map;
+        } else {
+            remove(map, count, path);
+            // all descendants start with the path followed by a slash, '0' is the character following it
+            descendants = map.subMap(path.concat("/"), path.concat("0"));
+        }
+        for (final String key : descendants.keySet()) {
+            remove(map, count, key);
+        }
+    }
+
+    private static String getParent(final String path) {
+        final int lastSlash = path.lastIndexOf('/');
+        if (lastSlash <= 0) {
+            return null;
+        }
+        return path.substring(0, lastSlash);
+    }
+
+    private static boolean isSameOrDescendant(final String path, final String ancestor) {
+        if ("/".equals(ancestor)) {
+            return true;
+        }
+        return path.startsWith(ancestor)
+                && (path.length() == ancestor.length() || path.charAt(ancestor.length()) == '/');
+    }
+
+    @Override
+    public String toString() {
+        return "VersionCache [versionables=" + this.versionableCount.get() + ", histories=" + this.historyCount.get()
+                + ", hits=" + this.hits.sum() + ", misses=" + this.misses.sum() + "]";
+    }
+}
@@ -19,13 +19,20 @@
 package org.apache.sling.jcr.resource.internal.helper;
 
 import java.time.ZonedDateTime;
+import java.util.Calendar;
 import java.util.GregorianCalendar;
 
 import org.jetbrains.annotations.NotNull;
 
 public class ZonedDateTimeConverter extends CalendarConverter {
 
-    public ZonedDateTimeConverter(@NotNull ZonedDateTime value) {
-        super(GregorianCalendar.from(value));
+    /** The shared instance */
+    public static final ZonedDateTimeConverter INSTANCE = new ZonedDateTimeConverter();
+
+    protected ZonedDateTimeConverter() {}
+
+    @Override
+    public @NotNull Calendar toCalendar(final @NotNull Object value) {
+        return GregorianCalendar.from((ZonedDateTime) value);
     }
 }
@@ -40,6 +40,10 @@ final class ContextUtil {
         return getProviderState(ctx).getHelperData();
     }
 
+    static void invalidateCaches(@NotNull ResolveContext<JcrProviderState> ctx) {
+        getProviderState(ctx).invalidateCaches();
+    }
+
     /**
      * As long as the provider is active there must be a state available.
      *
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper.jcr;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.sling.api.resource.PersistenceException;
+import org.apache.sling.jcr.resource.api.BulkResourceWriter;
+import org.apache.sling.spi.resource.provider.ResolveContext;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.apache.sling.jcr.resource.internal.helper.jcr.ContextUtil.getSession;
+import static org.apache.sling.jcr.resource.internal.helper.jcr.ContextUtil.invalidateCaches;
+
+/**
+ * The {@link BulkResourceWriter} of the {@link JcrResourceProvider}.
+ *
+ * The nodes on the path of the last created node are kept, so the parent of
+ * the next node is usually known already if nodes are created in document
+ * order. Only if it is not, the parent is read from the session.
+ *
+ * For ordering children, the current order is read once and simulated while
+ * the children are moved, so only children which are not at their target
+ * position are moved.
+ */
+class JcrBulkResourceWriter implements BulkResourceWriter {
+
+    private final Logger logger = LoggerFactory.getLogger(JcrBulkResourceWriter.class);
+
+    private final ResolveContext<JcrProviderState> ctx;
+
+    /** The paths of the nodes on the path of the last created node, starting with the topmost one */
+    private final List<String> ancestorPaths = new ArrayList<>();
+
+    /** The nodes at the paths in {@link #ancestorPaths} */
+    private final List<Node> ancestors = new ArrayList<>();
+
+    private int batchSize;
+
+    private int uncommittedCount;
+
+    private long createdCount;
+
+    private long commitCount;
+
+    private long startTime;
+
+    private long lastCreateTime;
+
+    JcrBulkResourceWriter(final @NotNull ResolveContext<JcrProviderState> ctx) {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public @NotNull BulkResourceWriter setBatchSize(final int batchSize) {
+        this.batchSize = Math.max(0, batchSize);
+        return this;
+    }
+
+    @Override
+    public void create(final @NotNull String path, final @Nullable Map<String, Object> properties)
+            throws PersistenceException {
+        final int lastPos = path.lastIndexOf('/');
+        if (lastPos == -1 || lastPos == path.length() - 1) {
+            throw new PersistenceException("Unable to create node at " + path, null, path, null);
+        }
+        if (this.createdCount == 0) {
+            this.startTime = System.nanoTime();
+        }
+        invalidateCaches(this.ctx);
+        try {
+            final Node parent = getParent(lastPos == 0 ? "/" : path.substring(0, lastPos));
+            final Node node = JcrResourceProvider.createNode(this.ctx, parent, path, properties);
+            this.ancestorPaths.add(path);
+            this.ancestors.add(node);
+        } catch (final RepositoryException e) {
+            throw new PersistenceException("Unable to create node at " + path, e, path, null);
+        }
+        this.createdCount++;
+        this.lastCreateTime = System.nanoTime();
+        if (this.batchSize > 0 && ++this.uncommittedCount >= this.batchSize) {
+            commit();
+        }
+    }
+
+    @Override
+    public void createAll(final @NotNull Map<String, Map<String, Object>> resources) throws PersistenceException {
+        for (final Map.Entry<String, Map<String, Object>> entry : resources.entrySet()) {
+            create(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public boolean orderChildren(final @NotNull String path, final @NotNull List<String> names)
+            throws PersistenceException {
+        if (new HashSet<>(names).size() != names.size()) {
+            throw new PersistenceException("Unable to order children of " + path + ", a name is listed twice");
+        }
+        invalidateCaches(this.ctx);
+        try {
+            final Node parent = getSession(this.ctx).getNode(path);
+            // read the current order once as a linked list, the null key links the
+            // first and the last child
+            final Map<String, String> previous = new HashMap<>();
+            final Map<String, String> next = new HashMap<>();
+            String firstUnlisted = null;
+            String last = null;
+            final Set<String> listed = new HashSet<>(names);
+            final NodeIterator ni = parent.getNodes();
+            while (ni.hasNext()) {
+                final String name = ni.nextNode().getName();
+                if (firstUnlisted == null && !listed.contains(name)) {
+                    firstUnlisted = name;
+                }
+                next.put(last, name);
+                previous.put(name, last);
+                last = name;
+            }
+            next.put(last, null);
+            previous.put(null, last);
+
+            // check all names first, so a failure leaves the order unchanged
+            for (final String name : names) {
+                if (name == null || !previous.containsKey(name)) {
+                    throw new PersistenceException(
+                            "Unable to order children of " + path + ", there is no child " + name, null, path, null);
+                }
+            }
+
+            // place each child directly before its successor in the target order,
+            // starting with the last one
+            boolean moved = false;
+            for (int i = names.size() - 1; i >= 0; i--) {
+                final String name = names.get(i);
+                final String following = i + 1 < names.size() ? names.get(i + 1) : firstUnlisted;
+                if (!Objects.equals(next.get(name), following)) {
+                    parent.orderBefore(name, following);
+                    // unlink and insert before the following sibling
+                    final String oldPrevious = previous.get(name);
+                    final String oldNext = next.get(name);
+                    next.put(oldPrevious, oldNext);
+                    previous.put(oldNext, oldPrevious);
+                    final String newPrevious = previous.get(following);
+                    next.put(newPrevious, name);
+                    previous.put(name, newPrevious);
+                    next.put(name, following);
+                    previous.put(following, name);
+                    moved = true;
+                }
+            }
+            return moved;
+        } catch (final RepositoryException e) {
+            throw new PersistenceException("Unable to order children of " + path, e, path, null);
+        }
+    }
+
+    @Override
+    public void commit() throws PersistenceException {
+        invalidateCaches(this.ctx);
+        try {
+            getSession(this.ctx).save();
+        } catch (final RepositoryException e) {
+            throw new PersistenceException("Unable to commit changes to session.", e);
+        }
+        this.commitCount++;
+        this.uncommittedCount = 0;
+        if (logger.isDebugEnabled()) {
+            logger.debug(
+                    "Committed batch {}, created {} nodes at {} nodes/s",
+                    this.commitCount,
+                    this.createdCount,
+                    String.format("%.1f", getThroughput()));
+        }
+    }
+
+    @Override
+    public long getCreatedCount() {
+        return this.createdCount;
+    }
+
+    @Override
+    public long getCommitCount() {
+        return this.commitCount;
+    }
+
+    @Override
+    public double getThroughput() {
+        if (this.createdCount == 0) {
+            return 0;
+        }
+        final long elapsed = Math.max(1, this.lastCreateTime - this.startTime);
+        return this.createdCount * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+
+    /**
+     * Get the parent node, either from the nodes on the path of the last created
+     * node or from the session
+     */
+    private @NotNull Node getParent(final @NotNull String parentPath) throws RepositoryException {
+        int last = this.ancestorPaths.size() - 1;
+        while (last >= 0) {
+            final String path = this.ancestorPaths.get(last);
+            if (path.equals(parentPath)) {
+                return this.ancestors.get(last);
+            }
+            if (parentPath.startsWith(path) && (path.equals("/") || parentPath.charAt(path.length()) == '/')) {
+                break;
+            }
+            this.ancestorPaths.remove(last);
+            this.ancestors.remove(last);
+            last--;
+        }
+        final Session session = getSession(this.ctx);
+        final Node parent = "/".equals(parentPath) ? session.getRootNode() : (Node) session.getItem(parentPath);
+        this.ancestorPaths.add(parentPath);
+        this.ancestors.add(parent);
+        return parent;
+    }
+
+    @Override
+    public String toString() {
+        return "JcrBulkResourceWriter [created=" + this.createdCount + ", commits=" + this.commitCount + "]";
+    }
+}
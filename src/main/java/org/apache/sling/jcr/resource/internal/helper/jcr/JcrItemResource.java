@@ -25,7 +25,6 @@ import javax.jcr.PropertyType;
 import javax.jcr.RepositoryException;
 import javax.jcr.ValueFormatException;
 
-import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 
 import org.apache.sling.api.resource.AbstractResource;
@@ -34,6 +33,7 @@ import org.apache.sling.api.resource.ResourceMetadata;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.jcr.resource.api.JcrResourceConstants;
 import org.apache.sling.jcr.resource.internal.NodeUtil;
+import org.apache.sling.jcr.resource.internal.helper.JcrResourceUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -155,7 +155,7 @@ abstract class JcrItemResource<T extends Item> // this should be package private
                 LOGGER.debug("Length of Property {} cannot be retrieved, ignored ({})", property.getPath(), vfe);
             }
         } else {
-            length = property.getString().getBytes(StandardCharsets.UTF_8).length;
+            length = JcrResourceUtil.getUtf8Length(property.getString());
         }
         return length;
     }
@@ -27,7 +27,9 @@ import javax.jcr.nodetype.NodeType;
 import javax.jcr.version.VersionHistory;
 import javax.jcr.version.VersionManager;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
@@ -36,6 +38,8 @@ import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.jcr.resource.internal.HelperData;
 import org.apache.sling.jcr.resource.internal.NodeUtil;
+import org.apache.sling.jcr.resource.internal.helper.ItemCache;
+import org.apache.sling.jcr.resource.internal.helper.VersionCache;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -139,6 +143,10 @@ public class JcrItemResourceFactory {
     }
 
     private @Nullable Item getHistoricItem(Item item, String versionSpecifier) throws RepositoryException {
+        final VersionCache versionCache = helper.getVersionCache();
+        if (versionCache != null && !session.hasPendingChanges()) {
+            return getCachedHistoricItem(versionCache, item, versionSpecifier);
+        }
         Item currentItem = item;
         LinkedList<String> relPath = new LinkedList<>();
         Node version = null;
@@ -157,6 +165,72 @@ public class JcrItemResourceFactory {
         return null;
     }
 
+    /**
+     * Get the historic item using the version cache. Only the paths of the
+     * versionable ancestor and the frozen node are taken from the cache, the
+     * items are read with the session. Missing entries are only added as long
+     * as the cache has not been invalidated since the session has been opened.
+     */
+    private @Nullable Item getCachedHistoricItem(
+            @NotNull VersionCache versionCache, @NotNull Item item, @NotNull String versionSpecifier)
+            throws RepositoryException {
+        final String path = item.getPath();
+        VersionCache.Versionable versionable = versionCache.getVersionable(path);
+        if (versionable == null) {
+            final long generation = helper.getVersionCacheView();
+            // walk up until a versionable node or a cached ancestor is found
+            final List<String> paths = new ArrayList<>();
+            Item currentItem = item;
+            while (versionable == null) {
+                final String currentPath = currentItem.getPath();
+                if (currentItem != item) {
+                    versionable = versionCache.getVersionable(currentPath);
+                    if (versionable != null) {
+                        break;
+                    }
+                }
+                if ("/".equals(currentPath)) {
+                    versionable = VersionCache.NOT_VERSIONABLE;
+                } else if (isVersionable(currentItem)) {
+                    final VersionHistory history =
+                            session.getWorkspace().getVersionManager().getVersionHistory(currentPath);
+                    versionable = new VersionCache.Versionable(currentPath, history.getPath());
+                } else {
+                    currentItem = currentItem.getParent();
+                }
+                paths.add(currentPath);
+            }
+            for (final String p : paths) {
+                versionCache.putVersionable(p, versionable, generation);
+            }
+        }
+        final String versionablePath = versionable.getPath();
+        final String historyPath = versionable.getHistoryPath();
+        if (versionablePath == null || historyPath == null) {
+            return null;
+        }
+
+        Node frozenNode;
+        final String frozenNodePath = versionCache.getFrozenNodePath(historyPath, versionSpecifier);
+        if (frozenNodePath != null) {
+            final Item frozenItem = getItemOrNull(frozenNodePath);
+            frozenNode = frozenItem != null && frozenItem.isNode() ? (Node) frozenItem : null;
+        } else {
+            final long generation = helper.getVersionCacheView();
+            frozenNode = getFrozenNode(
+                    session.getWorkspace().getVersionManager().getVersionHistory(versionablePath), versionSpecifier);
+            if (frozenNode != null) {
+                versionCache.putFrozenNodePath(historyPath, versionSpecifier, frozenNode.getPath(), generation);
+            }
+        }
+        if (frozenNode == null) {
+            return null;
+        }
+        return getSubitem(
+                frozenNode,
+                path.length() == versionablePath.length() ? "" : path.substring(versionablePath.length() + 1));
+    }
+
     private static @Nullable Item getSubitem(@NotNull Node node, @NotNull String relPath) {
         try {
             if (relPath.isEmpty()) {
@@ -176,7 +250,11 @@ public class JcrItemResourceFactory {
     private @Nullable Node getFrozenNode(@NotNull Node node, @NotNull String versionSpecifier)
             throws RepositoryException {
         final VersionManager versionManager = session.getWorkspace().getVersionManager();
-        final VersionHistory history = versionManager.getVersionHistory(node.getPath());
+        return getFrozenNode(versionManager.getVersionHistory(node.getPath()), versionSpecifier);
+    }
+
+    private static @Nullable Node getFrozenNode(@NotNull VersionHistory history, @NotNull String versionSpecifier)
+            throws RepositoryException {
         if (history.hasVersionLabel(versionSpecifier)) {
             return history.getVersionByLabel(versionSpecifier).getFrozenNode();
         }
@@ -198,10 +276,19 @@ public class JcrItemResourceFactory {
             return null;
         }
 
+        // check if the lookup is by ID
+        final boolean byId = JcrResourceProvider.isIdAddressingEnabled() && path.startsWith(SEARCH_BY_ID_PREFIX);
+        final ItemCache itemCache = byId ? null : helper.getItemCache();
+        if (itemCache != null) {
+            final Item cachedItem = itemCache.get(path);
+            if (cachedItem != null) {
+                return cachedItem;
+            }
+        }
+
         Item item = null;
         try {
-            // check if the lookup is by ID
-            if (JcrResourceProvider.isIdAddressingEnabled() && path.startsWith(SEARCH_BY_ID_PREFIX)) {
+            if (byId) {
                 item = session.getNodeByIdentifier(path.substring(SEARCH_BY_ID_PREFIX.length()));
             } else if (this.isJackrabbit) {
                 // Use fast getItemOrNull if session is a JackrabbitSession
@@ -215,6 +302,9 @@ public class JcrItemResourceFactory {
             log.debug("Unable to access item at " + path + ", possibly invalid path", e);
         }
 
+        if (item != null && itemCache != null) {
+            itemCache.put(path, item);
+        }
         return item;
     }
 
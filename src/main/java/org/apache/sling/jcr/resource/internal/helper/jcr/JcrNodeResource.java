@@ -45,6 +45,7 @@ import org.apache.sling.jcr.resource.internal.JcrModifiableValueMap;
 import org.apache.sling.jcr.resource.internal.JcrValueMap;
 import org.apache.sling.jcr.resource.internal.NodeUtil;
 import org.apache.sling.jcr.resource.internal.helper.AccessLogger;
+import org.apache.sling.jcr.resource.internal.helper.PropertySnapshot;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
@@ -104,7 +105,13 @@ class JcrNodeResource extends JcrItemResource<Node> { // this should be package
     public @NotNull String getResourceType() {
         if (this.resourceType == null) {
             try {
-                this.resourceType = getResourceTypeForNode(getNode());
+                final PropertySnapshot snapshot = this.helper.getPropertySnapshot(getNode());
+                if (snapshot != null) {
+                    this.resourceType = getResourceTypeForSnapshot(snapshot);
+                }
+                if (this.resourceType == null) {
+                    this.resourceType = getResourceTypeForNode(getNode());
+                }
             } catch (final RepositoryException e) {
                 LOGGER.error("Unable to get resource type for node " + getNode(), e);
                 this.resourceType = "<unknown resource type>";
@@ -119,6 +126,15 @@ class JcrNodeResource extends JcrItemResource<Node> { // this should be package
     @Override
     public String getResourceSuperType() {
         // Yes, this isn't how you're supposed to compare Strings, but this is intentional.
+        if (resourceSuperType == UNSET_RESOURCE_SUPER_TYPE) {
+            final PropertySnapshot snapshot = this.helper.getPropertySnapshot(getNode());
+            if (snapshot != null) {
+                final Object value = snapshot.getValue(JcrResourceConstants.SLING_RESOURCE_SUPER_TYPE_PROPERTY);
+                if (value == null || value instanceof String) {
+                    resourceSuperType = (String) value;
+                }
+            }
+        }
         if (resourceSuperType == UNSET_RESOURCE_SUPER_TYPE) {
             try {
                 Property property =
@@ -174,6 +190,24 @@ class JcrNodeResource extends JcrItemResource<Node> { // this should be package
 
     // ---------- internal -----------------------------------------------------
 
+    /**
+     * Same as {@link #getResourceTypeForNode(Node)} but based on the shared snapshot
+     * @return The resource type or {@code null} if it needs to be read from the node
+     */
+    private static @Nullable String getResourceTypeForSnapshot(final @NotNull PropertySnapshot snapshot) {
+        final Object type = snapshot.getValue(JcrResourceConstants.SLING_RESOURCE_TYPE_PROPERTY);
+        if (type instanceof String && !((String) type).isEmpty()) {
+            return (String) type;
+        }
+        if (type == null || type instanceof String) {
+            final Object primaryType = snapshot.getValue(Property.JCR_PRIMARY_TYPE);
+            if (primaryType instanceof String) {
+                return (String) primaryType;
+            }
+        }
+        return null;
+    }
+
     private @NotNull Node getNode() {
         return getItem();
     }
@@ -228,6 +262,23 @@ class JcrNodeResource extends JcrItemResource<Node> { // this should be package
         return null;
     }
 
+    /**
+     * Check the node for children instead of listing them. If other resource
+     * providers serve paths below this resource, the resource resolver is asked.
+     */
+    @Override
+    public boolean hasChildren() {
+        if (this.helper.getExcludedPaths().getSubset(path).iterator().hasNext()) {
+            return super.hasChildren();
+        }
+        try {
+            return getNode().hasNodes();
+        } catch (final RepositoryException re) {
+            LOGGER.error("hasChildren: Cannot check children of " + this, re);
+        }
+        return false;
+    }
+
     @Override
     @Nullable
     Iterator<Resource> listJcrChildren() {
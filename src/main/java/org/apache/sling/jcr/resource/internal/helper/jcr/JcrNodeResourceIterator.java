@@ -125,8 +125,8 @@ public class JcrNodeResourceIterator implements Iterator<Resource> {
                     LOGGER.debug("seek: Returning Resource {}", resource);
                     return resource;
                 }
-            } catch (final Throwable t) {
-                LOGGER.error("seek: Problem creating Resource for next node, skipping", t);
+            } catch (final RepositoryException | RuntimeException e) {
+                LOGGER.error("seek: Problem creating Resource for next node, skipping", e);
             }
         }
 
@@ -34,7 +34,6 @@ import java.util.Iterator;
 import org.apache.sling.adapter.annotations.Adaptable;
 import org.apache.sling.adapter.annotations.Adapter;
 import org.apache.sling.api.resource.Resource;
-import org.apache.sling.api.resource.ResourceMetadata;
 import org.apache.sling.api.resource.ResourceResolver;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -73,7 +72,7 @@ class JcrPropertyResource extends JcrItemResource<Property> { // this should be
     /** default log */
     private static final Logger LOGGER = LoggerFactory.getLogger(JcrPropertyResource.class);
 
-    private final String resourceType;
+    private String resourceType;
 
     public JcrPropertyResource(
             final @NotNull ResourceResolver resourceResolver,
@@ -81,17 +80,23 @@ class JcrPropertyResource extends JcrItemResource<Property> { // this should be
             final @Nullable String version,
             final @NotNull Property property)
             throws RepositoryException {
-        super(resourceResolver, path, version, property, new ResourceMetadata());
-        this.resourceType = getResourceTypeForNode(property.getParent()) + "/" + property.getName();
+        super(resourceResolver, path, version, property, new JcrPropertyResourceMetadata(property));
         if (PropertyType.BINARY != getProperty().getType()) {
             this.getResourceMetadata().setContentType("text/plain");
             this.getResourceMetadata().setCharacterEncoding("UTF-8");
         }
-
-        this.getResourceMetadata().setContentLength(getContentLength(property));
     }
 
     public @NotNull String getResourceType() {
+        if (this.resourceType == null) {
+            try {
+                this.resourceType = getResourceTypeForNode(getProperty().getParent()) + "/"
+                        + getProperty().getName();
+            } catch (final RepositoryException e) {
+                LOGGER.error("Unable to get resource type for property " + getProperty(), e);
+                this.resourceType = "<unknown resource type>";
+            }
+        }
         return resourceType;
     }
 
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper.jcr;
+
+import javax.jcr.Property;
+import javax.jcr.RepositoryException;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.sling.api.resource.ResourceMetadata;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The metadata of a {@link JcrPropertyResource}. The content length is only
+ * computed when it is requested, as it requires reading the value.
+ */
+class JcrPropertyResourceMetadata extends ResourceMetadata {
+
+    private static final long serialVersionUID = 1L;
+
+    /** default log */
+    private static final Logger LOGGER = LoggerFactory.getLogger(JcrPropertyResourceMetadata.class);
+
+    private final Property property;
+
+    private boolean populated = false;
+
+    public JcrPropertyResourceMetadata(final @NotNull Property property) {
+        this.property = property;
+    }
+
+    @Override
+    public Object get(final Object key) {
+        final Object result = super.get(key);
+        if (result != null) {
+            return result;
+        }
+
+        if (CONTENT_LENGTH.equals(key) && !populated) {
+            long contentLength = -1;
+            try {
+                contentLength = JcrItemResource.getContentLength(property);
+            } catch (final RepositoryException re) {
+                LOGGER.info("get: Problem getting the content length of property {}", property, re);
+            }
+            internalPut(CONTENT_LENGTH, contentLength);
+            populated = true;
+            return contentLength;
+        }
+        return null;
+    }
+
+    private void populate() {
+        if (!populated) {
+            get(CONTENT_LENGTH);
+        }
+    }
+
+    @Override
+    public @NotNull Set<Map.Entry<String, Object>> entrySet() {
+        populate();
+        return super.entrySet();
+    }
+
+    @Override
+    public @NotNull Set<String> keySet() {
+        populate();
+        return super.keySet();
+    }
+
+    @Override
+    public @NotNull Collection<Object> values() {
+        populate();
+        return super.values();
+    }
+
+    @Override
+    public int size() {
+        populate();
+        return super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return false;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return super.containsKey(key) || CONTENT_LENGTH.equals(key);
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        populate();
+        return super.containsValue(value);
+    }
+}
@@ -24,13 +24,18 @@ import java.io.Closeable;
 
 import org.apache.sling.jcr.api.SlingRepository;
 import org.apache.sling.jcr.resource.internal.HelperData;
+import org.apache.sling.jcr.resource.internal.helper.ItemCache;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 class JcrProviderState implements Closeable {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(JcrProviderState.class);
+
     private final Session session;
 
     private final BundleContext bundleContext;
@@ -76,12 +81,24 @@ class JcrProviderState implements Closeable {
         return helperData;
     }
 
+    /**
+     * Invalidate all data cached for the session, called whenever the
+     * session is modified, saved or refreshed.
+     */
+    void invalidateCaches() {
+        helperData.invalidateCaches();
+    }
+
     @Override
     public void close() {
         logout();
     }
 
     void logout() {
+        final ItemCache itemCache = helperData.getItemCache();
+        if (itemCache != null) {
+            LOGGER.debug("Item cache statistics for session {}: {}", session.getUserID(), itemCache);
+        }
         if (logout) {
             session.logout();
         }
@@ -34,6 +34,8 @@ import org.apache.sling.commons.classloader.DynamicClassLoaderManager;
 import org.apache.sling.jcr.api.SlingRepository;
 import org.apache.sling.jcr.resource.api.JcrResourceConstants;
 import org.apache.sling.jcr.resource.internal.HelperData;
+import org.apache.sling.jcr.resource.internal.JcrProviderSettings;
+import org.apache.sling.jcr.resource.internal.helper.ItemCache;
 import org.apache.sling.spi.resource.provider.ResourceProvider;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -56,15 +58,32 @@ public class JcrProviderStateFactory {
     private final AtomicReference<DynamicClassLoaderManager> dynamicClassLoaderManagerReference;
     private final AtomicReference<URIProvider[]> uriProviderReference;
 
+    private final JcrProviderSettings settings;
+
     public JcrProviderStateFactory(
             final ServiceReference<SlingRepository> repositoryReference,
             final SlingRepository repository,
             final AtomicReference<DynamicClassLoaderManager> dynamicClassLoaderManagerReference,
             final AtomicReference<URIProvider[]> uriProviderReference) {
+        this(
+                repositoryReference,
+                repository,
+                dynamicClassLoaderManagerReference,
+                uriProviderReference,
+                new JcrProviderSettings());
+    }
+
+    public JcrProviderStateFactory(
+            final ServiceReference<SlingRepository> repositoryReference,
+            final SlingRepository repository,
+            final AtomicReference<DynamicClassLoaderManager> dynamicClassLoaderManagerReference,
+            final AtomicReference<URIProvider[]> uriProviderReference,
+            final @NotNull JcrProviderSettings settings) {
         this.repository = repository;
         this.repositoryReference = repositoryReference;
         this.dynamicClassLoaderManagerReference = dynamicClassLoaderManagerReference;
         this.uriProviderReference = uriProviderReference;
+        this.settings = settings;
     }
 
     /** Get the calling Bundle from auth info, fail if not provided
@@ -174,7 +193,10 @@ public class JcrProviderStateFactory {
         // if we're actually impersonating, we're responsible for closing the session we've created, regardless
         // of what the original logoutSession value was.
         boolean doLogoutSession = logoutSession || (impersonatedSession != session);
-        final HelperData data = new HelperData(this.dynamicClassLoaderManagerReference, this.uriProviderReference);
+        final ItemCache itemCache =
+                this.settings.getItemCacheSize() > 0 ? new ItemCache(this.settings.getItemCacheSize()) : null;
+        final HelperData data = new HelperData(
+                this.dynamicClassLoaderManagerReference, this.uriProviderReference, itemCache, this.settings);
         return new JcrProviderState(
                 impersonatedSession, data, doLogoutSession, ctx, ctx == null ? null : repositoryReference);
     }
@@ -21,16 +21,21 @@ package org.apache.sling.jcr.resource.internal.helper.jcr;
 import javax.jcr.Item;
 import javax.jcr.Node;
 import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
+import javax.jcr.nodetype.NodeType;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.security.Principal;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
@@ -52,12 +57,24 @@ import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.resource.ResourceResolverFactory;
 import org.apache.sling.api.resource.ResourceUtil;
 import org.apache.sling.api.resource.external.URIProvider;
+import org.apache.sling.api.resource.path.PathSet;
 import org.apache.sling.commons.classloader.DynamicClassLoaderManager;
 import org.apache.sling.jcr.api.SlingRepository;
+import org.apache.sling.jcr.resource.api.BulkResourceWriter;
 import org.apache.sling.jcr.resource.api.JcrResourceConstants;
 import org.apache.sling.jcr.resource.internal.JcrListenerBaseConfig;
 import org.apache.sling.jcr.resource.internal.JcrModifiableValueMap;
+import org.apache.sling.jcr.resource.internal.JcrProviderSettings;
 import org.apache.sling.jcr.resource.internal.JcrResourceListener;
+import org.apache.sling.jcr.resource.internal.NamespacePrefixListener;
+import org.apache.sling.jcr.resource.internal.ResourceChangeQueue;
+import org.apache.sling.jcr.resource.internal.ResourceChangeQueueStatistics;
+import org.apache.sling.jcr.resource.internal.ResourceChangeQueueStatisticsMBean;
+import org.apache.sling.jcr.resource.internal.SharedPropertyCacheListener;
+import org.apache.sling.jcr.resource.internal.VersionCacheListener;
+import org.apache.sling.jcr.resource.internal.helper.NamespacePrefixCache;
+import org.apache.sling.jcr.resource.internal.helper.SharedPropertyCache;
+import org.apache.sling.jcr.resource.internal.helper.VersionCache;
 import org.apache.sling.spi.resource.provider.ObserverConfiguration;
 import org.apache.sling.spi.resource.provider.ProviderContext;
 import org.apache.sling.spi.resource.provider.QueryLanguageProvider;
@@ -68,6 +85,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.osgi.framework.Constants;
 import org.osgi.framework.ServiceReference;
+import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -84,6 +102,7 @@ import org.slf4j.LoggerFactory;
 import static org.apache.sling.jcr.resource.internal.helper.jcr.ContextUtil.getHelperData;
 import static org.apache.sling.jcr.resource.internal.helper.jcr.ContextUtil.getResourceFactory;
 import static org.apache.sling.jcr.resource.internal.helper.jcr.ContextUtil.getSession;
+import static org.apache.sling.jcr.resource.internal.helper.jcr.ContextUtil.invalidateCaches;
 
 @Adaptable(
         adaptableClass = ResourceProvider.class,
@@ -141,9 +160,24 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
     /** The JCR listener base configuration. */
     private volatile JcrListenerBaseConfig listenerConfig;
 
+    /** The registration of the statistics of the dispatch queues, if changes are queued. */
+    private volatile ServiceRegistration<ResourceChangeQueueStatisticsMBean> queueStatisticsRegistration;
+
     /** The JCR observation listeners. */
     private final Map<ObserverConfiguration, Closeable> listeners = new HashMap<>();
 
+    /** The settings and the caches shared by all resolvers. */
+    private volatile JcrProviderSettings settings;
+
+    /** The listener invalidating the shared cache. */
+    private volatile Closeable sharedPropertyCacheListener;
+
+    /** The listener clearing the namespace prefix cache. */
+    private volatile Closeable namespacePrefixListener;
+
+    /** The listener invalidating the version cache. */
+    private volatile Closeable versionCacheListener;
+
     /**
      * Map of bound URIProviders sorted by service ranking in descending order (highest ranking first).
      * Key = service reference, value = service implementation
@@ -159,8 +193,13 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
 
     private final AtomicReference<URIProvider[]> uriProviderReference = new AtomicReference<>();
 
+    private final AtomicReference<PathSet> excludedPathsReference = new AtomicReference<>();
+
     private static boolean idAddressing;
 
+    /** Whether copies are done through the workspace if the session has no pending changes. */
+    private volatile boolean workspaceCopy;
+
     @ObjectClassDefinition(
             name = "Apache Sling JCR Resource Provider",
             description = "The JCR Resource Provider provides access to the JCR repository.")
@@ -171,6 +210,128 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
                 description = "If enabled, the resource provider will enable addressing resources by their JCR UUID "
                         + "by using the special path prefix '/jcr:id/'.")
         boolean resource_addressingById() default false;
+
+        @AttributeDefinition(
+                name = "Item Cache Size",
+                description = "Maximum number of JCR items cached per resource resolver, so repeated lookups of the "
+                        + "same path do not traverse the repository again. The cache is cleared whenever the "
+                        + "session is modified through the resource provider, saved, reverted or refreshed. "
+                        + "A value of 0 disables the cache.")
+        int resource_itemCacheSize() default 0;
+
+        @AttributeDefinition(
+                name = "Shared Property Cache Roots",
+                description = "Root paths of subtrees whose node properties are cached across all resource "
+                        + "resolvers, e.g. /apps and /libs. Use this only for content which rarely changes: entries "
+                        + "are removed by observation events, so changes become visible asynchronously. "
+                        + "If empty, the shared cache is disabled.")
+        String[] resource_sharedPropertyCacheRoots() default {};
+
+        @AttributeDefinition(
+                name = "Shared Property Cache Entries",
+                description = "Maximum number of nodes held in the shared property cache.")
+        int resource_sharedPropertyCacheMaxEntries() default 10000;
+
+        @AttributeDefinition(
+                name = "Shared Property Cache Size",
+                description = "Maximum estimated size in bytes of all nodes held in the shared property cache.")
+        long resource_sharedPropertyCacheMaxSize() default 64L * 1024 * 1024;
+
+        @AttributeDefinition(
+                name = "Namespace Prefix Cache",
+                description = "If enabled, the namespace prefixes of the repository and the escaped names of value "
+                        + "map keys are shared by all resource resolvers and cleared whenever the namespace "
+                        + "registry changes. Otherwise each resource resolver reads the prefixes from its session.")
+        boolean resource_namespacePrefixCache() default true;
+
+        @AttributeDefinition(
+                name = "Serialization Spill Threshold",
+                description = "Size in bytes above which serializable objects stored as binary properties are "
+                        + "buffered in a temporary file instead of on the heap while they are written to the "
+                        + "repository. A value of 0 always buffers them on the heap.")
+        long resource_serializationSpillThreshold() default 1024L * 1024;
+
+        @AttributeDefinition(
+                name = "Workspace Copy",
+                description = "If enabled, resources are copied through the JCR workspace as long as the session "
+                        + "has no pending changes. Such a copy is persisted right away and can't be reverted. "
+                        + "Otherwise the nodes are copied in the session and are persisted on commit.")
+        boolean resource_workspaceCopy() default false;
+
+        @AttributeDefinition(
+                name = "Version Cache Size",
+                description = "Maximum number of paths whose versionable ancestor is cached across all resource "
+                        + "resolvers, which is also the maximum number of version histories whose frozen nodes are "
+                        + "cached. This avoids walking up the tree and reading the version history whenever a "
+                        + "resource is requested in a specific version. Entries are removed by observation events, "
+                        + "which requires an additional listener for the whole repository. A value of 0 disables "
+                        + "the cache.")
+        int resource_versionCacheSize() default 0;
+
+        @AttributeDefinition(
+                name = "Shared Observation Listener",
+                description = "If enabled, a single JCR observation listener is registered for the paths of all "
+                        + "resource change listeners and each change is passed to the listeners observing its path. "
+                        + "Otherwise a JCR observation listener is registered per resource change listener, so the "
+                        + "repository filters and processes each change once per listener. The shared listener "
+                        + "reports the changes to the resource change listeners one after the other on a single "
+                        + "observation thread, so a slow listener delays all others. Configure a dispatch queue "
+                        + "size or a coalescing window as well to report the changes of each listener on the "
+                        + "dispatch threads.")
+        boolean resource_sharedObservationListener() default false;
+
+        @AttributeDefinition(
+                name = "Dispatch Queue Size",
+                description = "Maximum number of resource changes queued per resource change listener. If set, "
+                        + "changes are reported to the listeners by a separate executor, so a slow listener does "
+                        + "not hold up the JCR observation thread. The depth, lag and dropped changes of the queues "
+                        + "are exposed through JMX as " + ResourceChangeQueueStatistics.OBJECT_NAME + ". A value "
+                        + "of 0 reports changes on the observation thread.")
+        int resource_dispatchQueueSize() default 0;
+
+        @AttributeDefinition(
+                name = "Dispatch Overflow Policy",
+                description = "What happens with changes if the queue of a listener is full: COALESCE merges the "
+                        + "queued changes per path and drops the changes if they still don't fit, DROP discards the "
+                        + "changes, both count the dropped changes. BLOCK waits until there is room, which delays "
+                        + "the observation of the whole repository for all listeners.")
+        ResourceChangeQueue.OverflowPolicy resource_dispatchOverflowPolicy() default
+                ResourceChangeQueue.OverflowPolicy.COALESCE;
+
+        @AttributeDefinition(
+                name = "Dispatch Threads",
+                description = "Number of threads reporting queued or coalesced changes to the listeners.")
+        int resource_dispatchThreads() default 1;
+
+        @AttributeDefinition(
+                name = "Dispatch Virtual Threads",
+                description =
+                        "If enabled, queued or coalesced changes are reported by virtual threads instead of a fixed "
+                                + "number of threads, if the Java runtime supports them.")
+        boolean resource_dispatchVirtualThreads() default false;
+
+        @AttributeDefinition(
+                name = "Coalescing Window",
+                description = "Time in milliseconds each resource change listener collects changes before they "
+                        + "are reported. Within the window the changes are merged per path, where a removal wins "
+                        + "over an addition which wins over a change, so bursts like package installations cause "
+                        + "fewer reports. The merged changes are reported by the dispatch threads. A value of 0 "
+                        + "reports the changes of each observation event batch.")
+        long resource_coalesceWindow() default 0;
+
+        @AttributeDefinition(
+                name = "Coalescing Maximum Changes",
+                description = "Maximum number of merged changes after which a coalescing window ends early. "
+                        + "A value of 0 doesn't limit the number of changes.")
+        int resource_coalesceMaxChanges() default 1000;
+
+        @AttributeDefinition(
+                name = "Collapse Subtrees",
+                description = "If enabled, the changes below an added or removed resource are not reported to "
+                        + "a resource change listener if it observes the addition or removal itself, so removing "
+                        + "a large tree results in a single change. Listeners must then treat an addition or "
+                        + "removal as one for the whole subtree.")
+        boolean resource_collapseSubtrees() default false;
     }
 
     @Activate
@@ -186,14 +347,81 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
 
         this.repository = slingRepository;
 
+        this.settings = createSettings(configuration, this.excludedPathsReference);
         this.stateFactory = new JcrProviderStateFactory(
-                repositoryReference, slingRepository, classLoaderManagerReference, uriProviderReference);
+                repositoryReference, slingRepository, classLoaderManagerReference, uriProviderReference, this.settings);
 
         idAddressing = configuration.resource_addressingById();
+        this.workspaceCopy = configuration.resource_workspaceCopy();
+        if (this.settings.isSharedObservationListener()
+                && this.settings.getDispatchQueueSize() <= 0
+                && this.settings.getCoalesceWindow() <= 0) {
+            logger.info("activate: The shared observation listener reports changes to all resource change listeners "
+                    + "on a single thread, configure a dispatch queue size to report them asynchronously");
+        }
+
+        if (this.settings.getDispatchQueueSize() > 0) {
+            final Dictionary<String, Object> props = new Hashtable<>();
+            props.put("jmx.objectname", ResourceChangeQueueStatistics.OBJECT_NAME);
+            this.queueStatisticsRegistration = context.getBundleContext()
+                    .registerService(
+                            ResourceChangeQueueStatisticsMBean.class,
+                            new ResourceChangeQueueStatistics(() -> this.listenerConfig),
+                            props);
+        }
+    }
+
+    /**
+     * Create the settings from the configuration, together with the caches
+     * shared by all resolvers
+     * @param configuration The configuration
+     * @param excludedPathsReference The paths served by other resource providers
+     * @return The settings
+     */
+    private static @NotNull JcrProviderSettings createSettings(
+            final @NotNull Configuration configuration,
+            final @NotNull AtomicReference<PathSet> excludedPathsReference) {
+        final JcrProviderSettings settings = new JcrProviderSettings();
+        settings.setItemCacheSize(configuration.resource_itemCacheSize());
+        final String[] sharedCacheRoots = configuration.resource_sharedPropertyCacheRoots();
+        if (sharedCacheRoots != null && sharedCacheRoots.length > 0) {
+            settings.setSharedPropertyCache(new SharedPropertyCache(
+                    sharedCacheRoots,
+                    configuration.resource_sharedPropertyCacheMaxEntries(),
+                    configuration.resource_sharedPropertyCacheMaxSize()));
+        }
+        if (configuration.resource_namespacePrefixCache()) {
+            settings.setNamespacePrefixCache(new NamespacePrefixCache());
+        }
+        settings.setSerializationSpillThreshold(configuration.resource_serializationSpillThreshold());
+        settings.setExcludedPathsReference(excludedPathsReference);
+        if (configuration.resource_versionCacheSize() > 0) {
+            settings.setVersionCache(new VersionCache(configuration.resource_versionCacheSize()));
+        }
+        settings.setSharedObservationListener(configuration.resource_sharedObservationListener());
+        settings.setDispatchQueueSize(configuration.resource_dispatchQueueSize());
+        settings.setDispatchOverflowPolicy(configuration.resource_dispatchOverflowPolicy());
+        settings.setDispatchThreads(configuration.resource_dispatchThreads());
+        settings.setDispatchVirtualThreads(configuration.resource_dispatchVirtualThreads());
+        settings.setCoalesceWindow(configuration.resource_coalesceWindow());
+        settings.setCoalesceMaxChanges(configuration.resource_coalesceMaxChanges());
+        settings.setCollapseSubtrees(configuration.resource_collapseSubtrees());
+        return settings;
     }
 
     @Deactivate
     protected void deactivate() {
+        if (this.queueStatisticsRegistration != null) {
+            this.queueStatisticsRegistration.unregister();
+            this.queueStatisticsRegistration = null;
+        }
+        final JcrProviderSettings current = this.settings;
+        if (current != null && current.getSharedPropertyCache() != null) {
+            logger.debug("Shared property cache statistics: {}", current.getSharedPropertyCache());
+        }
+        if (current != null && current.getVersionCache() != null) {
+            logger.debug("Version cache statistics: {}", current.getVersionCache());
+        }
         this.stateFactory = null;
     }
 
@@ -239,18 +467,24 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
     @Override
     public void start(final @NotNull ProviderContext ctx) {
         super.start(ctx);
+        this.excludedPathsReference.set(ctx.getExcludedPaths());
         this.registerListeners();
     }
 
     @Override
     public void stop() {
         this.unregisterListeners();
+        this.excludedPathsReference.set(null);
         super.stop();
     }
 
     @Override
     public void update(final long changeSet) {
         super.update(changeSet);
+        final ProviderContext ctx = this.getProviderContext();
+        if (ctx != null) {
+            this.excludedPathsReference.set(ctx.getExcludedPaths());
+        }
         this.updateListeners();
     }
 
@@ -282,15 +516,34 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
     private void registerListeners() {
         if (this.repository != null) {
             logger.debug("Registering resource listeners...");
+            final JcrProviderSettings current = this.settings;
             try {
-                this.listenerConfig =
-                        new JcrListenerBaseConfig(this.getProviderContext().getObservationReporter(), this.repository);
+                this.listenerConfig = new JcrListenerBaseConfig(
+                        this.getProviderContext().getObservationReporter(), this.repository, current);
                 for (final ObserverConfiguration config :
                         this.getProviderContext().getObservationReporter().getObserverConfigurations()) {
                     logger.debug("Registering listener for {}", config.getPaths());
                     final Closeable listener = new JcrResourceListener(this.listenerConfig, config);
                     this.listeners.put(config, listener);
                 }
+                final SharedPropertyCache sharedPropertyCache = current.getSharedPropertyCache();
+                if (sharedPropertyCache != null) {
+                    logger.debug("Registering shared property cache listener for {}", (Object)
+                            sharedPropertyCache.getRoots());
+                    this.sharedPropertyCacheListener =
+                            new SharedPropertyCacheListener(this.listenerConfig, sharedPropertyCache);
+                }
+                final NamespacePrefixCache namespacePrefixCache = current.getNamespacePrefixCache();
+                if (namespacePrefixCache != null) {
+                    logger.debug("Registering namespace prefix listener");
+                    this.namespacePrefixListener =
+                            new NamespacePrefixListener(this.listenerConfig, namespacePrefixCache);
+                }
+                final VersionCache versionCache = current.getVersionCache();
+                if (versionCache != null) {
+                    logger.debug("Registering version cache listener");
+                    this.versionCacheListener = new VersionCacheListener(this.listenerConfig, versionCache);
+                }
             } catch (final RepositoryException e) {
                 throw new SlingException("Can't create the JCR event listener.", e);
             }
@@ -314,6 +567,30 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
             }
         }
         this.listeners.clear();
+        if (this.sharedPropertyCacheListener != null) {
+            try {
+                this.sharedPropertyCacheListener.close();
+            } catch (final IOException e) {
+                // ignore this as the method above does not throw it
+            }
+            this.sharedPropertyCacheListener = null;
+        }
+        if (this.namespacePrefixListener != null) {
+            try {
+                this.namespacePrefixListener.close();
+            } catch (final IOException e) {
+                // ignore this as the method above does not throw it
+            }
+            this.namespacePrefixListener = null;
+        }
+        if (this.versionCacheListener != null) {
+            try {
+                this.versionCacheListener.close();
+            } catch (final IOException e) {
+                // ignore this as the method above does not throw it
+            }
+            this.versionCacheListener = null;
+        }
         if (this.listenerConfig != null) {
             this.listenerConfig.close();
             this.listenerConfig = null;
@@ -487,8 +764,8 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
         if (path == null) {
             throw new PersistenceException("Unable to create node with [path=null]");
         }
+        invalidateCaches(ctx);
         try {
-            Node node;
             final int lastPos = path.lastIndexOf('/');
             final Node parent;
             if (lastPos == 0) {
@@ -496,18 +773,7 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
             } else {
                 parent = (Node) getSession(ctx).getItem(path.substring(0, lastPos));
             }
-            final String name = path.substring(lastPos + 1);
-            // extract the nodetype
-            final String nodeType = getNodeType(properties, ctx);
-            if (nodeType != null) {
-                node = parent.addNode(name, nodeType);
-            } else {
-                node = parent.addNode(name);
-            }
-
-            if (properties != null) {
-                populateProperties(node, properties, ctx, path);
-            }
+            final Node node = createNode(ctx, parent, path, properties);
 
             return new JcrNodeResource(ctx.getResourceResolver(), path, null, node, getHelperData(ctx));
         } catch (final RepositoryException e) {
@@ -515,6 +781,38 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
         }
     }
 
+    /**
+     * Add a node with its properties
+     * @param ctx The resolve context
+     * @param parent The parent node
+     * @param path The path of the new node
+     * @param properties The properties, might be {@code null}
+     * @return The new node
+     * @throws PersistenceException If a property can't be stored
+     * @throws RepositoryException If adding the node fails
+     */
+    static @NotNull Node createNode(
+            final @NotNull ResolveContext<JcrProviderState> ctx,
+            final @NotNull Node parent,
+            final @NotNull String path,
+            final @Nullable Map<String, Object> properties)
+            throws PersistenceException, RepositoryException {
+        final String name = path.substring(path.lastIndexOf('/') + 1);
+        // extract the nodetype
+        final String nodeType = getNodeType(properties, ctx);
+        final Node node;
+        if (nodeType != null) {
+            node = parent.addNode(name, nodeType);
+        } else {
+            node = parent.addNode(name);
+        }
+
+        if (properties != null) {
+            populateProperties(node, properties, ctx, path);
+        }
+        return node;
+    }
+
     protected static @Nullable String getNodeType(
             @Nullable Map<String, Object> properties, @NotNull ResolveContext<JcrProviderState> ctx) {
         if (properties == null) {
@@ -557,12 +855,12 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
         // check mixin types first
         final Object value = properties.get(JcrConstants.JCR_MIXINTYPES);
         if (value != null) {
-            jcrMap.put(JcrConstants.JCR_MIXINTYPES, value);
+            jcrMap.write(JcrConstants.JCR_MIXINTYPES, value);
         }
         for (final Map.Entry<String, Object> entry : properties.entrySet()) {
             if (!IGNORED_PROPERTIES.contains(entry.getKey())) {
                 try {
-                    jcrMap.put(entry.getKey(), entry.getValue());
+                    jcrMap.write(entry.getKey(), entry.getValue());
                 } catch (final IllegalArgumentException iae) {
                     try {
                         node.remove();
@@ -600,30 +898,27 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
         }
     }
 
+    /**
+     * Check whether the child is already directly before its following sibling
+     * (or the last child). The children are only iterated until the first of
+     * both is found.
+     */
     private static boolean requiresReorder(
             @NotNull Node node, @NotNull String name, @Nullable String followingSiblingName)
             throws RepositoryException {
-        NodeIterator nodeIterator = node.getNodes();
-        long existingNodePosition = -1;
-        long index = 0;
+        final NodeIterator nodeIterator = node.getNodes();
         while (nodeIterator.hasNext()) {
-            Node childNode = nodeIterator.nextNode();
-            if (childNode.getName().equals(name)) {
-                existingNodePosition = index;
-            }
-            if (existingNodePosition >= 0) {
-                // is existing resource already at the desired position?
-                if (childNode.getName().equals(followingSiblingName)) {
-                    if (existingNodePosition == index - 1) {
-                        return false;
-                    }
-                }
-                // is the existing node already the last one in the list?
-                else if (followingSiblingName == null && existingNodePosition == nodeIterator.getSize() - 1) {
-                    return false;
+            final String childName = nodeIterator.nextNode().getName();
+            if (childName.equals(name)) {
+                if (!nodeIterator.hasNext()) {
+                    return followingSiblingName != null;
                 }
+                return !nodeIterator.nextNode().getName().equals(followingSiblingName);
+            }
+            if (childName.equals(followingSiblingName)) {
+                // the following sibling comes first
+                return true;
             }
-            index++;
         }
         return true;
     }
@@ -631,6 +926,7 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
     @Override
     public void delete(final @NotNull ResolveContext<JcrProviderState> ctx, final @NotNull Resource resource)
             throws PersistenceException {
+        invalidateCaches(ctx);
         // try to adapt to Item
         Item item = resource.adaptTo(Item.class);
         try {
@@ -645,6 +941,7 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
 
     @Override
     public void revert(final @NotNull ResolveContext<JcrProviderState> ctx) {
+        invalidateCaches(ctx);
         try {
             getSession(ctx).refresh(false);
         } catch (final RepositoryException ignore) {
@@ -654,6 +951,7 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
 
     @Override
     public void commit(final @NotNull ResolveContext<JcrProviderState> ctx) throws PersistenceException {
+        invalidateCaches(ctx);
         try {
             getSession(ctx).save();
         } catch (final RepositoryException e) {
@@ -673,6 +971,7 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
 
     @Override
     public void refresh(final @NotNull ResolveContext<JcrProviderState> ctx) {
+        invalidateCaches(ctx);
         try {
             getSession(ctx).refresh(true);
         } catch (final RepositoryException ignore) {
@@ -687,6 +986,8 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
         Session session = getSession(ctx);
         if (type == Session.class) {
             return (AdapterType) session;
+        } else if (type == BulkResourceWriter.class) {
+            return (AdapterType) new JcrBulkResourceWriter(ctx);
         } else if (type == Principal.class) {
             try {
                 if (session instanceof JackrabbitSession && session.getUserID() != null) {
@@ -711,8 +1012,60 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
     public boolean copy(
             final @NotNull ResolveContext<JcrProviderState> ctx,
             final @NotNull String srcAbsPath,
-            final @NotNull String destAbsPath) {
-        return false;
+            final @NotNull String destAbsPath)
+            throws PersistenceException {
+        final String name = ResourceUtil.getName(srcAbsPath);
+        final String dstNodePath = ("/".equals(destAbsPath) ? "" : destAbsPath) + '/' + name;
+        if (dstNodePath.equals(srcAbsPath) || dstNodePath.startsWith(srcAbsPath + '/')) {
+            // copying a node into itself, leave it to the resource resolver
+            return false;
+        }
+        invalidateCaches(ctx);
+        final Session session = getSession(ctx);
+        try {
+            if (this.workspaceCopy && !session.hasPendingChanges()) {
+                session.getWorkspace().copy(srcAbsPath, dstNodePath);
+            } else {
+                final Node src = session.getNode(srcAbsPath);
+                final Node destParent = session.getNode(destAbsPath);
+                copyNode(src, destParent, name);
+            }
+            return true;
+        } catch (final RepositoryException e) {
+            throw new PersistenceException("Unable to copy resource to " + destAbsPath, e, srcAbsPath, null);
+        }
+    }
+
+    /**
+     * Copy a node with all its descendants in the session. Protected properties
+     * like jcr:uuid are not copied but are created again by the repository.
+     * Protected child nodes like access control policies (rep:policy) can't be
+     * added through the node API and are not copied either.
+     */
+    private static void copyNode(final @NotNull Node src, final @NotNull Node destParent, final @NotNull String name)
+            throws RepositoryException {
+        final Node dest = destParent.addNode(name, src.getPrimaryNodeType().getName());
+        for (final NodeType mixin : src.getMixinNodeTypes()) {
+            dest.addMixin(mixin.getName());
+        }
+        final PropertyIterator pi = src.getProperties();
+        while (pi.hasNext()) {
+            final Property prop = pi.nextProperty();
+            if (!prop.getDefinition().isProtected()) {
+                if (prop.isMultiple()) {
+                    dest.setProperty(prop.getName(), prop.getValues(), prop.getType());
+                } else {
+                    dest.setProperty(prop.getName(), prop.getValue());
+                }
+            }
+        }
+        final NodeIterator ni = src.getNodes();
+        while (ni.hasNext()) {
+            final Node child = ni.nextNode();
+            if (!child.getDefinition().isProtected()) {
+                copyNode(child, dest, child.getName());
+            }
+        }
     }
 
     @Override
@@ -723,6 +1076,7 @@ public class JcrResourceProvider extends ResourceProvider<JcrProviderState> {
             throws PersistenceException {
         final String srcNodePath = srcAbsPath;
         final String dstNodePath = destAbsPath + '/' + ResourceUtil.getName(srcAbsPath);
+        invalidateCaches(ctx);
         try {
             getSession(ctx).move(srcNodePath, dstNodePath);
             return true;
@@ -53,6 +53,7 @@ import org.apache.sling.api.resource.ValueMap;
 import org.apache.sling.jcr.resource.internal.helper.jcr.SlingRepositoryTestBase;
 
 import static org.apache.sling.jcr.resource.internal.AssertCalendar.assertEqualsCalendar;
+import static org.junit.Assert.assertArrayEquals;
 
 public class JcrModifiableValueMapTest extends SlingRepositoryTestBase {
 
@@ -175,6 +176,38 @@ public class JcrModifiableValueMapTest extends SlingRepositoryTestBase {
         assertContains(pvm2, currentlyStored);
     }
 
+    public void testWrite() throws Exception {
+        getSession().refresh(false);
+        final JcrModifiableValueMap pvm = new JcrModifiableValueMap(this.rootNode, getHelperData());
+        // read all properties before writing
+        assertContains(pvm, initialSet());
+
+        pvm.write("something", "Another value");
+        pvm.write("string", "overwrite");
+        pvm.write("longs", new long[] {1L, 2L});
+
+        final Map<String, Object> currentlyStored = this.initialSet();
+        currentlyStored.put("something", "Another value");
+        currentlyStored.put("string", "overwrite");
+        assertContains(pvm, currentlyStored);
+        assertTrue(pvm.keySet().contains("something"));
+        assertArrayEquals(new Long[] {1L, 2L}, pvm.get("longs", Long[].class));
+        assertEquals("Another value", this.rootNode.getProperty("something").getString());
+
+        final Map<String, Object> values = new HashMap<>();
+        values.put("putAll", 5L);
+        values.put("bool", Boolean.FALSE);
+        pvm.putAll(values);
+        assertEquals(Long.valueOf(5L), pvm.get("putAll", Long.class));
+        assertEquals(Boolean.FALSE, pvm.get("bool"));
+
+        try {
+            pvm.write("something", pvm);
+            fail("Write with non serializable class");
+        } catch (IllegalArgumentException iae) {
+        }
+    }
+
     public void testRemove() throws Exception {
         getSession().refresh(false);
         final ModifiableValueMap pvm = new JcrModifiableValueMap(this.rootNode, getHelperData());
@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import javax.jcr.RepositoryException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.apache.sling.api.resource.path.PathSet;
+import org.apache.sling.spi.resource.provider.ObservationReporter;
+import org.apache.sling.spi.resource.provider.ObserverConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testcase for {@link JcrResourceChangeDispatcher}
+ */
+public class JcrResourceChangeDispatcherTest {
+
+    private final Map<ObserverConfiguration, List<String>> reported = new ConcurrentHashMap<>();
+
+    private JcrListenerBaseConfig baseConfig;
+
+    private JcrResourceChangeDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        final ObservationReporter reporter = mock(ObservationReporter.class);
+        doAnswer(invocation -> {
+                    final List<String> list = this.reported.computeIfAbsent(
+                            invocation.getArgument(0), key -> Collections.synchronizedList(new ArrayList<>()));
+                    for (final ResourceChange change : (Iterable<ResourceChange>) invocation.getArgument(1)) {
+                        list.add(change.getType() + " " + change.getPath());
+                    }
+                    return null;
+                })
+                .when(reporter)
+                .reportChanges(any(ObserverConfiguration.class), any(), anyBoolean());
+        this.baseConfig = mock(JcrListenerBaseConfig.class);
+        when(this.baseConfig.getReporter()).thenReturn(reporter);
+        this.dispatcher = new JcrResourceChangeDispatcher();
+    }
+
+    private static ObserverConfiguration config(
+            final boolean includeExternal, final String[] excludedPaths, final String... paths) {
+        final ObserverConfiguration config = mock(ObserverConfiguration.class);
+        when(config.getPaths()).thenReturn(PathSet.fromStrings(paths));
+        when(config.getExcludedPaths()).thenReturn(PathSet.fromStrings(excludedPaths));
+        when(config.includeExternal()).thenReturn(includeExternal);
+        when(config.getChangeTypes()).thenReturn(EnumSet.allOf(ChangeType.class));
+        return config;
+    }
+
+    private ObserverConfiguration register(final ObserverConfiguration config) throws RepositoryException {
+        this.dispatcher.add(new JcrResourceListener(this.baseConfig, config), config);
+        return config;
+    }
+
+    private static ResourceChange change(final ChangeType type, final String path, final boolean external) {
+        return new ResourceChange(type, path, external);
+    }
+
+    @Test
+    public void testDispatch() throws RepositoryException {
+        final ObserverConfiguration content = register(config(true, new String[0], "/content"));
+        final ObserverConfiguration site = register(config(true, new String[0], "/content/site", "/content/site/a"));
+        final ObserverConfiguration apps = register(config(true, new String[0], "/apps", "/libs"));
+
+        this.dispatcher.dispatch(Arrays.asList(
+                change(ChangeType.ADDED, "/content/site/a/b", false),
+                change(ChangeType.CHANGED, "/content/other", false),
+                change(ChangeType.CHANGED, "/libs/foo", false),
+                change(ChangeType.CHANGED, "/var/foo", false)));
+
+        assertEquals(Arrays.asList("ADDED /content/site/a/b", "CHANGED /content/other"), this.reported.get(content));
+        assertEquals(Arrays.asList("ADDED /content/site/a/b"), this.reported.get(site));
+        assertEquals(Arrays.asList("CHANGED /libs/foo"), this.reported.get(apps));
+    }
+
+    @Test
+    public void testRemovedAncestor() throws RepositoryException {
+        final ObserverConfiguration site = register(config(true, new String[0], "/content/site"));
+        final ObserverConfiguration apps = register(config(true, new String[0], "/apps"));
+
+        this.dispatcher.dispatch(Arrays.asList(
+                change(ChangeType.REMOVED, "/content", false), change(ChangeType.CHANGED, "/content", false)));
+
+        assertEquals(Arrays.asList("REMOVED /content"), this.reported.get(site));
+        assertNull(this.reported.get(apps));
+    }
+
+    @Test
+    public void testGlobExcludedAndExternal() throws RepositoryException {
+        final ObserverConfiguration glob = register(config(true, new String[0], "glob:/*/test/**"));
+        final ObserverConfiguration excluded = register(config(true, new String[] {"/content/dam"}, "/content"));
+        final ObserverConfiguration local = register(config(false, new String[0], "/"));
+
+        this.dispatcher.dispatch(Arrays.asList(
+                change(ChangeType.ADDED, "/apps/test/foo", true),
+                change(ChangeType.ADDED, "/apps/other/foo", false),
+                change(ChangeType.CHANGED, "/content/dam/asset", false),
+                change(ChangeType.CHANGED, "/content/page", true)));
+
+        assertEquals(Arrays.asList("ADDED /apps/test/foo"), this.reported.get(glob));
+        assertEquals(Arrays.asList("CHANGED /content/page"), this.reported.get(excluded));
+        assertEquals(Arrays.asList("ADDED /apps/other/foo", "CHANGED /content/dam/asset"), this.reported.get(local));
+    }
+
+    @Test
+    public void testCollapsible() throws RepositoryException {
+        this.dispatcher = new JcrResourceChangeDispatcher(true);
+        register(config(false, new String[0], "/"));
+        register(config(false, new String[] {"/content/dam"}, "/content"));
+
+        assertTrue(this.dispatcher.isCollapsible(change(ChangeType.REMOVED, "/content/site", false)));
+        assertFalse(this.dispatcher.isCollapsible(change(ChangeType.CHANGED, "/content/site", false)));
+        assertFalse(this.dispatcher.isCollapsible(change(ChangeType.REMOVED, "/content/site", true)));
+        // not observed by all listeners
+        assertFalse(this.dispatcher.isCollapsible(change(ChangeType.REMOVED, "/apps", false)));
+        assertFalse(this.dispatcher.isCollapsible(change(ChangeType.ADDED, "/content/dam/asset", false)));
+    }
+
+    @Test
+    public void testUnion() throws RepositoryException {
+        final ObserverConfiguration content = config(false, new String[] {"/content/dam", "/var"}, "/content");
+        final JcrResourceListener listener = new JcrResourceListener(this.baseConfig, content);
+        this.dispatcher.add(listener, content);
+        final ObserverConfiguration apps = config(true, new String[] {"/var"}, "/apps", "glob:/libs/**/*.jsp");
+        when(apps.getChangeTypes()).thenReturn(EnumSet.of(ChangeType.CHANGED));
+        this.dispatcher.add(new JcrResourceListener(this.baseConfig, apps), apps);
+
+        assertEquals(
+                new HashSet<>(Arrays.asList("/content", "/apps", "glob:/libs/**/*.jsp")), this.dispatcher.getPaths());
+        assertEquals(Collections.singleton("/var"), this.dispatcher.getExcludedPaths());
+        assertTrue(this.dispatcher.includeExternal());
+        assertEquals(EnumSet.allOf(ChangeType.class), this.dispatcher.getChangeTypes());
+
+        assertTrue(this.dispatcher.remove(listener));
+        assertFalse(this.dispatcher.remove(listener));
+        assertEquals(EnumSet.of(ChangeType.CHANGED), this.dispatcher.getChangeTypes());
+        this.dispatcher.dispatch(Arrays.asList(change(ChangeType.CHANGED, "/content/page", false)));
+        assertNull(this.reported.get(content));
+    }
+}
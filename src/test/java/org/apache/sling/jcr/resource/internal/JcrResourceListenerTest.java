@@ -89,82 +89,97 @@ public class JcrResourceListenerTest {
     }
 
     private void registerListener(String paths) throws RepositoryException {
+        registerListener(paths, false);
+    }
+
+    private void registerListener(String paths, boolean sharedListener) throws RepositoryException {
+        registerListener(paths, sharedListener, 0);
+    }
+
+    private void registerListener(String paths, boolean sharedListener, int dispatchQueueSize)
+            throws RepositoryException {
         unregisterListener();
         events.clear();
         ObservationReporter observationReporter = getObservationReporter(paths);
-        this.config = new JcrListenerBaseConfig(observationReporter, new SlingRepository() {
-
-            @Override
-            public Session login(Credentials credentials, String workspaceName) throws RepositoryException {
-                return repository.login(credentials, workspaceName);
-            }
-
-            @Override
-            public Session login(String workspaceName) throws RepositoryException {
-                return repository.login(workspaceName);
-            }
-
-            @Override
-            public Session login(Credentials credentials) throws RepositoryException {
-                return repository.login(credentials);
-            }
-
-            @Override
-            public Session login() throws RepositoryException {
-                return repository.login();
-            }
-
-            @Override
-            public boolean isStandardDescriptor(String key) {
-                return repository.isStandardDescriptor(key);
-            }
-
-            @Override
-            public boolean isSingleValueDescriptor(String key) {
-                return repository.isSingleValueDescriptor(key);
-            }
-
-            @Override
-            public Value[] getDescriptorValues(String key) {
-                return repository.getDescriptorValues(key);
-            }
-
-            @Override
-            public Value getDescriptorValue(String key) {
-                return repository.getDescriptorValue(key);
-            }
-
-            @Override
-            public String[] getDescriptorKeys() {
-                return repository.getDescriptorKeys();
-            }
-
-            @Override
-            public String getDescriptor(String key) {
-                return repository.getDescriptor(key);
-            }
-
-            @Override
-            public Session loginService(String subServiceName, String workspace) throws RepositoryException {
-                return repository.loginAdministrative(workspace);
-            }
-
-            @Override
-            public Session loginAdministrative(String workspace) throws RepositoryException {
-                return repository.loginAdministrative(workspace);
-            }
-
-            @Override
-            public String getDefaultWorkspace() {
-                return repository.getDefaultWorkspace();
-            }
-
-            @Override
-            public Session impersonateFromService(String s, Credentials credentials, String s1)
-                    throws LoginException, RepositoryException {
-                return loginAdministrative(s1).impersonate(credentials);
-            }
-        });
+        final JcrProviderSettings settings = new JcrProviderSettings();
+        settings.setSharedObservationListener(sharedListener);
+        settings.setDispatchQueueSize(dispatchQueueSize);
+        this.config = new JcrListenerBaseConfig(
+                observationReporter,
+                new SlingRepository() {
+
+                    @Override
+                    public Session login(Credentials credentials, String workspaceName) throws RepositoryException {
+                        return repository.login(credentials, workspaceName);
+                    }
+
+                    @Override
+                    public Session login(String workspaceName) throws RepositoryException {
+                        return repository.login(workspaceName);
+                    }
+
+                    @Override
+                    public Session login(Credentials credentials) throws RepositoryException {
+                        return repository.login(credentials);
+                    }
+
+                    @Override
+                    public Session login() throws RepositoryException {
+                        return repository.login();
+                    }
+
+                    @Override
+                    public boolean isStandardDescriptor(String key) {
+                        return repository.isStandardDescriptor(key);
+                    }
+
+                    @Override
+                    public boolean isSingleValueDescriptor(String key) {
+                        return repository.isSingleValueDescriptor(key);
+                    }
+
+                    @Override
+                    public Value[] getDescriptorValues(String key) {
+                        return repository.getDescriptorValues(key);
+                    }
+
+                    @Override
+                    public Value getDescriptorValue(String key) {
+                        return repository.getDescriptorValue(key);
+                    }
+
+                    @Override
+                    public String[] getDescriptorKeys() {
+                        return repository.getDescriptorKeys();
+                    }
+
+                    @Override
+                    public String getDescriptor(String key) {
+                        return repository.getDescriptor(key);
+                    }
+
+                    @Override
+                    public Session loginService(String subServiceName, String workspace) throws RepositoryException {
+                        return repository.loginAdministrative(workspace);
+                    }
+
+                    @Override
+                    public Session loginAdministrative(String workspace) throws RepositoryException {
+                        return repository.loginAdministrative(workspace);
+                    }
+
+                    @Override
+                    public String getDefaultWorkspace() {
+                        return repository.getDefaultWorkspace();
+                    }
+
+                    @Override
+                    public Session impersonateFromService(String s, Credentials credentials, String s1)
+                            throws LoginException, RepositoryException {
+                        return loginAdministrative(s1).impersonate(credentials);
+                    }
+                },
+                settings);
         this.listener = new JcrResourceListener(
                 this.config, observationReporter.getObserverConfigurations().get(0));
     }
@@ -458,6 +473,92 @@ public class JcrResourceListenerTest {
         }
     }
 
+    @Test
+    public void testSharedListener() throws Exception {
+        registerListener("/apps", true);
+        assertTrue(this.config.isSharedListener());
+        final ObserverConfiguration libsConfig =
+                getObservationReporter("/libs").getObserverConfigurations().get(0);
+        final String name = "shared" + System.currentTimeMillis();
+        try (final JcrResourceListener libsListener = new JcrResourceListener(this.config, libsConfig)) {
+            for (final String path : new String[] {"/apps", "/libs", "/content"}) {
+                createNode(adminSession, path + "/" + name);
+            }
+            adminSession.getNode("/libs/" + name).setProperty("foo", "bar");
+            adminSession.save();
+            Thread.sleep(3500);
+
+            final Set<String> changes = new HashSet<>();
+            for (final ResourceChange event : new ArrayList<>(events)) {
+                changes.add(event.getType() + " " + event.getPath());
+            }
+            assertTrue("Received: " + changes, changes.contains("ADDED /apps/" + name));
+            assertTrue("Received: " + changes, changes.contains("ADDED /libs/" + name));
+            assertTrue("Received: " + changes, changes.contains("CHANGED /libs/" + name));
+            assertFalse("Received: " + changes, changes.stream().anyMatch(c -> c.contains("/content")));
+        } finally {
+            for (final String path : new String[] {"/libs/" + name, "/content/" + name}) {
+                if (adminSession.nodeExists(path)) {
+                    adminSession.removeItem(path);
+                }
+            }
+            adminSession.save();
+        }
+    }
+
+    @Test
+    public void testPropertyNames() throws Exception {
+        final Node node = createNode(adminSession, createdPath);
+        node.setProperty("foo", "bar");
+        node.setProperty("remove", "me");
+        adminSession.save();
+        Thread.sleep(1000);
+        events.clear();
+
+        node.setProperty("foo", "baz");
+        node.setProperty("added", "value");
+        node.getProperty("remove").remove();
+        adminSession.save();
+        Thread.sleep(3500);
+
+        JcrResourceChange change = null;
+        for (final ResourceChange event : new ArrayList<>(events)) {
+            if (event.getType() == ChangeType.CHANGED && createdPath.equals(event.getPath())) {
+                change = (JcrResourceChange) event;
+            }
+        }
+        assertNotNull("Received: " + events, change);
+        assertEquals(Collections.singleton("added"), change.getAddedPropertyNames());
+        assertEquals(Collections.singleton("foo"), change.getChangedPropertyNames());
+        assertEquals(Collections.singleton("remove"), change.getRemovedPropertyNames());
+    }
+
+    @Test
+    public void testQueuedDispatch() throws Exception {
+        registerListener("/", false, 100);
+        assertNotNull(this.listener.getQueue());
+        generateEvents(adminSession);
+
+        final Set<String> changes = new HashSet<>();
+        for (final ResourceChange event : new ArrayList<>(events)) {
+            changes.add(event.getType() + " " + event.getPath());
+        }
+        assertTrue("Received: " + changes, changes.contains("ADDED " + createdPath));
+        assertTrue("Received: " + changes, changes.contains("CHANGED " + pathToModify));
+        assertTrue("Received: " + changes, changes.contains("REMOVED " + pathToDelete));
+        assertEquals(0, this.listener.getQueue().getDepth());
+        assertEquals(events.size(), this.listener.getQueue().getReportedCount());
+
+        final ResourceChangeQueueStatistics statistics = new ResourceChangeQueueStatistics(() -> this.config);
+        assertEquals(1, statistics.getQueueCount());
+        assertEquals(0, statistics.getDepth());
+        assertEquals(events.size(), statistics.getReportedCount());
+        assertEquals(0, statistics.getDroppedCount());
+
+        this.listener.close();
+        assertEquals(0, statistics.getQueueCount());
+    }
+
     private static Node createNode(final Session session, final String path) throws RepositoryException {
         Node n = JcrUtils.getOrCreateByPath(path, "nt:unstructured", session);
         session.save();
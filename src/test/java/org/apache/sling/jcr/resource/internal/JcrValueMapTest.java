@@ -19,7 +19,20 @@
 package org.apache.sling.jcr.resource.internal;
 
 import javax.jcr.Node;
+import javax.jcr.Property;
+import javax.jcr.Session;
+import javax.jcr.SimpleCredentials;
 
+import java.io.ByteArrayInputStream;
+import java.util.Calendar;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.jackrabbit.api.JackrabbitSession;
+import org.apache.jackrabbit.api.security.user.User;
+import org.apache.jackrabbit.commons.jackrabbit.authorization.AccessControlUtils;
+import org.apache.jackrabbit.oak.spi.security.principal.EveryonePrincipal;
+import org.apache.sling.jcr.resource.internal.helper.NamespacePrefixCache;
+import org.apache.sling.jcr.resource.internal.helper.SharedPropertyCache;
 import org.apache.sling.jcr.resource.internal.helper.jcr.SlingRepositoryTestBase;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -39,6 +52,18 @@ public class JcrValueMapTest extends SlingRepositoryTestBase {
         helperData = Mockito.mock(HelperData.class);
     }
 
+    private static HelperData newHelperData(final SharedPropertyCache cache) {
+        final JcrProviderSettings settings = new JcrProviderSettings();
+        settings.setSharedPropertyCache(cache);
+        return new HelperData(new AtomicReference<>(), new AtomicReference<>(), null, settings);
+    }
+
+    private static HelperData newHelperData(final NamespacePrefixCache cache) {
+        final JcrProviderSettings settings = new JcrProviderSettings();
+        settings.setNamespacePrefixCache(cache);
+        return new HelperData(new AtomicReference<>(), new AtomicReference<>(), null, settings);
+    }
+
     //  Tests with null as default value and class must pass, see https://issues.apache.org/jira/browse/SLING-11567
 
     @Test
@@ -55,4 +80,205 @@ public class JcrValueMapTest extends SlingRepositoryTestBase {
         assertEquals("test", vm.get("string", String.class));
         assertEquals("test", vm.get("string", null));
     }
+
+    @Test
+    public void testSharedPropertyCache() throws Exception {
+        final Calendar date = Calendar.getInstance();
+        rootNode.setProperty("date", date);
+        rootNode.setProperty(
+                "binary", getSession().getValueFactory().createBinary(new ByteArrayInputStream(new byte[] {1, 2})));
+        AccessControlUtils.addAccessControlEntry(
+                getSession(), rootNode.getPath(), EveryonePrincipal.getInstance(), new String[] {"jcr:read"}, true);
+        getSession().save();
+
+        final SharedPropertyCache cache = new SharedPropertyCache(new String[] {rootNode.getPath()}, 10, 100000);
+        cache.setActive(true);
+        final HelperData helper = newHelperData(cache);
+
+        JcrValueMap vm = new JcrValueMap(rootNode, helper);
+        assertEquals("test", vm.get("string"));
+        assertEquals(1, cache.getEntryCount());
+        vm.get("date", Calendar.class).add(Calendar.YEAR, 1);
+        assertEquals(2L, vm.get("binary", Long.class).longValue());
+
+        // a change not yet reported by observation is not visible
+        rootNode.setProperty("string", "changed");
+        getSession().save();
+        vm = new JcrValueMap(rootNode, helper);
+        assertEquals("test", vm.get("string"));
+        assertEquals(date.getTimeInMillis(), vm.get("date", Calendar.class).getTimeInMillis());
+        assertEquals(
+                rootNode.getProperty("string").getPath(),
+                vm.get("string", Property.class).getPath());
+        assertEquals(1, cache.getHitCount());
+
+        // pending changes and modifiable value maps bypass the cache
+        rootNode.setProperty("pending", "value");
+        assertEquals("value", new JcrValueMap(rootNode, helper).get("pending"));
+        getSession().refresh(false);
+        assertEquals("changed", new JcrModifiableValueMap(rootNode, helper).get("string"));
+
+        // the cache is bypassed once it has been invalidated after the session has been opened
+        cache.invalidate(rootNode.getPath());
+        assertEquals("changed", new JcrValueMap(rootNode, helper).get("string"));
+        assertEquals(0, cache.getEntryCount());
+        assertEquals("changed", new JcrValueMap(rootNode, newHelperData(cache)).get("string"));
+        assertEquals(1, cache.getEntryCount());
+
+        // sessions of other users get their own entry, which shares equal snapshots
+        final long size = cache.getSize();
+        final String userId = "user_" + System.currentTimeMillis();
+        final User user = ((JackrabbitSession) getSession()).getUserManager().createUser(userId, "pwd");
+        getSession().save();
+        final Session userSession = getRepository().login(new SimpleCredentials(userId, "pwd".toCharArray()));
+        try {
+            final Node node = userSession.getNode(rootNode.getPath());
+            final HelperData other = newHelperData(cache);
+            assertEquals("changed", new JcrValueMap(node, other).get("string"));
+            assertEquals(2, cache.getEntryCount());
+            assertEquals(size, cache.getSize());
+            assertEquals(1, cache.getHitCount());
+        } finally {
+            userSession.logout();
+            user.remove();
+            getSession().save();
+        }
+    }
+
+    @Test
+    public void testSharedPropertyCacheStaleView() throws Exception {
+        final SharedPropertyCache cache = new SharedPropertyCache(new String[] {rootNode.getPath()}, 10, 100000);
+        cache.setActive(true);
+        final HelperData helper = newHelperData(cache);
+        final Session stale = getRepository().loginAdministrative(null);
+        try {
+            final Node node = stale.getNode(rootNode.getPath());
+            node.getProperty("string");
+
+            // changed and invalidated after the session has been opened
+            rootNode.setProperty("string", "changed");
+            getSession().save();
+            cache.invalidate(rootNode.getPath());
+
+            // the shared cache is bypassed without refreshing the session
+            new JcrValueMap(node, helper).get("string");
+            assertEquals(0, cache.getEntryCount());
+            assertEquals(0, cache.getMissCount());
+
+            // but used by sessions opened afterwards
+            assertEquals("changed", new JcrValueMap(rootNode, newHelperData(cache)).get("string"));
+            assertEquals(1, cache.getEntryCount());
+        } finally {
+            stale.logout();
+        }
+    }
+
+    @Test
+    public void testGetAll() throws Exception {
+        rootNode.setProperty("long", 42L);
+        rootNode.setProperty("jcr:title", "title");
+        getSession().save();
+
+        Mockito.when(helperData.isNamespacePrefix(getSession(), "jcr")).thenReturn(true);
+
+        JcrValueMap vm = new JcrValueMap(rootNode, helperData);
+        Object[] values = vm.getAll(
+                new String[] {"string", "long", "./long", "jcr:title", "nonexistent"},
+                new Class<?>[] {String.class, String.class, null, String.class, String.class});
+        assertEquals(5, values.length);
+        assertEquals("test", values[0]);
+        assertEquals("42", values[1]);
+        assertEquals(42L, values[2]);
+        assertEquals("title", values[3]);
+        assertNull(values[4]);
+        // only the requested properties have been read
+        assertEquals(3, vm.cache.size());
+    }
+
+    @Test
+    public void testGetAllReadsAllProperties() throws Exception {
+        final String[] names = new String[JcrValueMap.BULK_READ_THRESHOLD];
+        final Class<?>[] types = new Class<?>[names.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "prop" + i;
+            types[i] = Long.class;
+            rootNode.setProperty(names[i], String.valueOf(i));
+        }
+        getSession().save();
+
+        JcrValueMap vm = new JcrValueMap(rootNode, helperData);
+        Object[] values = vm.getAll(names, types);
+        for (int i = 0; i < names.length; i++) {
+            assertEquals(Long.valueOf(i), values[i]);
+        }
+        // all properties have been read in one pass
+        assertEquals(rootNode.getProperties().getSize(), vm.cache.size());
+    }
+
+    @Test
+    public void testGetAllOfLargeNodeReadsRequestedProperties() throws Exception {
+        final String[] names = new String[JcrValueMap.BULK_READ_THRESHOLD];
+        final Class<?>[] types = new Class<?>[names.length];
+        for (int i = 0; i < names.length * 4; i++) {
+            rootNode.setProperty("prop" + i, String.valueOf(i));
+        }
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "prop" + i;
+            types[i] = Long.class;
+        }
+        getSession().save();
+
+        JcrValueMap vm = new JcrValueMap(rootNode, helperData);
+        Object[] values = vm.getAll(names, types);
+        for (int i = 0; i < names.length; i++) {
+            assertEquals(Long.valueOf(i), values[i]);
+        }
+        // the requested properties are only a small part of the node, so they are read one by one
+        assertEquals(names.length, vm.cache.size());
+    }
+
+    @Test
+    public void testGetAllWithDifferentLengths() {
+        try {
+            new JcrValueMap(rootNode, helperData).getAll(new String[] {"string"}, new Class<?>[0]);
+            fail("IllegalArgumentException expected");
+        } catch (final IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testNamespacePrefixCache() throws Exception {
+        rootNode.setProperty("jcr:title", "title");
+        getSession().save();
+
+        final NamespacePrefixCache cache = new NamespacePrefixCache();
+        cache.setActive(true);
+        final HelperData helper = newHelperData(cache);
+        assertEquals("title", new JcrValueMap(rootNode, helper).get("jcr:title"));
+        assertEquals("nofoo%3Abar", new JcrValueMap(rootNode, helper).escapeKeyName("nofoo:bar"));
+        assertEquals("jcr:title", cache.getEscapedName("jcr:title"));
+        assertEquals("nofoo%3Abar", cache.getEscapedName("nofoo:bar"));
+    }
+
+    @Test
+    public void testNamespacePrefixCacheWithRemappedPrefix() throws Exception {
+        final NamespacePrefixCache cache = new NamespacePrefixCache();
+        cache.setActive(true);
+        final Session remapped = getRepository().loginAdministrative(null);
+        try {
+            remapped.setNamespacePrefix("myjcr", "http://www.jcp.org/jcr/1.0");
+            final HelperData helper = newHelperData(cache);
+            final JcrValueMap vm = new JcrValueMap(remapped.getNode(rootNode.getPath()), helper);
+
+            // the session local prefixes are used, the shared cache is bypassed
+            assertNull(helper.getNamespacePrefixCache(remapped));
+            assertEquals("myjcr:title", vm.escapeKeyName("myjcr:title"));
+            assertNull(cache.getEscapedName("myjcr:title"));
+        } finally {
+            remapped.logout();
+        }
+        assertNotNull(newHelperData(cache).getNamespacePrefixCache(getSession()));
+        assertFalse(cache.isPrefix(getSession(), "myjcr"));
+    }
 }
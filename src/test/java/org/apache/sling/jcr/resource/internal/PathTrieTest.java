@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Testcase for {@link PathTrie}
+ */
+public class PathTrieTest {
+
+    private static List<String> collect(final PathTrie<String> trie, final String path, final boolean descendants) {
+        final List<String> result = new ArrayList<>();
+        trie.collect(path, descendants, result::add);
+        Collections.sort(result);
+        return result;
+    }
+
+    @Test
+    public void testCollect() {
+        final PathTrie<String> trie = new PathTrie<>();
+        trie.add("/", "root");
+        trie.add("/content", "content");
+        trie.add("/content/site", "site");
+        trie.add("/content/site", "site2");
+        trie.add("/content/site/page/deep", "deep");
+        trie.add("/apps", "apps");
+
+        assertEquals(Arrays.asList("root"), collect(trie, "/", false));
+        assertEquals(Arrays.asList("content", "root"), collect(trie, "/content", false));
+        assertEquals(Arrays.asList("content", "root", "site", "site2"), collect(trie, "/content/site/page", false));
+        assertEquals(Arrays.asList("content", "root"), collect(trie, "/content/sites", false));
+        assertEquals(Arrays.asList("root"), collect(trie, "/var/audit", false));
+    }
+
+    @Test
+    public void testCollectWithDescendants() {
+        final PathTrie<String> trie = new PathTrie<>();
+        trie.add("/content", "content");
+        trie.add("/content/site", "site");
+        trie.add("/content/site/page/deep", "deep");
+        trie.add("/apps", "apps");
+
+        assertEquals(Arrays.asList("content", "deep", "site"), collect(trie, "/content", true));
+        assertEquals(Arrays.asList("content", "deep", "site"), collect(trie, "/content/site/page", true));
+        assertEquals(Arrays.asList("apps", "content", "deep", "site"), collect(trie, "/", true));
+        assertEquals(Collections.emptyList(), collect(trie, "/var", true));
+    }
+
+    @Test
+    public void testGlobs() {
+        final PathTrie<String> trie = new PathTrie<>();
+        trie.add("glob:/*/test/**", "any");
+        trie.add("glob:/content/*/jcr:content", "pages");
+        trie.add("glob:/content/site/page.html", "plain");
+
+        assertEquals(Arrays.asList("any"), collect(trie, "/apps/test/foo", false));
+        assertEquals(Arrays.asList("any", "pages"), collect(trie, "/content/site/jcr:content", false));
+        assertEquals(Arrays.asList("any", "pages", "plain"), collect(trie, "/content/site/page.html", false));
+    }
+
+    @Test
+    public void testGetStaticPrefix() {
+        assertEquals("/content/site", PathTrie.getStaticPrefix("/content/site"));
+        assertEquals("/", PathTrie.getStaticPrefix("glob:/*/test/**"));
+        assertEquals("/", PathTrie.getStaticPrefix("glob:/content*"));
+        assertEquals("/content", PathTrie.getStaticPrefix("glob:/content/*.html"));
+        assertEquals("/content/site", PathTrie.getStaticPrefix("glob:/content/site/pa?e"));
+        assertEquals("/content/site", PathTrie.getStaticPrefix("glob:/content/site"));
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Testcase for {@link ResourceChangeCoalescer}
+ */
+public class ResourceChangeCoalescerTest {
+
+    private final List<List<ResourceChange>> reported = new ArrayList<>();
+
+    private ScheduledExecutorService scheduler;
+
+    private ScheduledFuture<?> future;
+
+    @Before
+    public void setUp() {
+        this.scheduler = mock(ScheduledExecutorService.class);
+        this.future = mock(ScheduledFuture.class);
+        doReturn(this.future).when(this.scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    private ResourceChangeCoalescer newCoalescer(final int maxChanges) {
+        return new ResourceChangeCoalescer(
+                this.scheduler, 100, maxChanges, newQueue(Runnable::run, this.reported::add), null);
+    }
+
+    private static ResourceChangeQueue newQueue(
+            final Executor executor, final Consumer<List<ResourceChange>> consumer) {
+        return new ResourceChangeQueue(executor, Integer.MAX_VALUE, ResourceChangeQueue.OverflowPolicy.DROP, consumer);
+    }
+
+    private static ResourceChange change(final ChangeType type, final String path) {
+        return new ResourceChange(type, path, false);
+    }
+
+    @Test
+    public void testMergeWithinWindow() {
+        final ResourceChangeCoalescer coalescer = newCoalescer(0);
+        final ResourceChange added = change(ChangeType.ADDED, "/a");
+        final ResourceChange removed = change(ChangeType.REMOVED, "/b");
+        coalescer.add(Arrays.asList(added, change(ChangeType.ADDED, "/b")));
+        coalescer.add(Arrays.asList(change(ChangeType.CHANGED, "/a"), removed));
+        assertTrue(this.reported.isEmpty());
+
+        final ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(this.scheduler, times(1)).schedule(task.capture(), eq(100L), eq(TimeUnit.MILLISECONDS));
+        task.getValue().run();
+        assertEquals(Collections.singletonList(Arrays.asList(added, removed)), this.reported);
+        assertEquals(4, coalescer.getReceivedCount());
+        assertEquals(2, coalescer.getReportedCount());
+
+        // the next change starts a new window
+        coalescer.add(Collections.singletonList(change(ChangeType.CHANGED, "/a")));
+        verify(this.scheduler, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void testMaxChanges() {
+        final ResourceChangeCoalescer coalescer = newCoalescer(2);
+        coalescer.add(Collections.singletonList(change(ChangeType.CHANGED, "/a")));
+        coalescer.add(Collections.singletonList(change(ChangeType.CHANGED, "/a")));
+        assertTrue(this.reported.isEmpty());
+        coalescer.add(Collections.singletonList(change(ChangeType.CHANGED, "/b")));
+        assertEquals(1, this.reported.size());
+        assertEquals(2, this.reported.get(0).size());
+        verify(this.future).cancel(false);
+    }
+
+    @Test
+    public void testAddAfterRemove() {
+        final ResourceChangeCoalescer coalescer = newCoalescer(0);
+        final ResourceChange removed = change(ChangeType.REMOVED, "/a");
+        final ResourceChange added = change(ChangeType.ADDED, "/a");
+        coalescer.add(Collections.singletonList(removed));
+        coalescer.add(Collections.singletonList(added));
+        coalescer.flush();
+        assertEquals(
+                Arrays.asList(Collections.singletonList(removed), Collections.singletonList(added)), this.reported);
+    }
+
+    @Test
+    public void testReportOnExecutor() throws Exception {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+        final AtomicReference<ResourceChangeCoalescer> coalescer = new AtomicReference<>();
+        final AtomicBoolean unlocked = new AtomicBoolean();
+        final ResourceChangeQueue queue = newQueue(tasks::add, changes -> {
+            // another thread can use the coalescer while the changes are reported
+            final Thread other = new Thread(() -> unlocked.set(coalescer.get().getReceivedCount() == 2));
+            other.start();
+            try {
+                other.join(5000);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.reported.add(changes);
+        });
+        coalescer.set(new ResourceChangeCoalescer(this.scheduler, 100, 0, queue, null));
+        final ResourceChange removed = change(ChangeType.REMOVED, "/a");
+        final ResourceChange added = change(ChangeType.ADDED, "/a");
+        coalescer.get().add(Collections.singletonList(removed));
+        coalescer.get().add(Collections.singletonList(added));
+        assertTrue(this.reported.isEmpty());
+
+        // the windows are handed to the queue of the listener and reported in order by a task of the executor
+        coalescer.get().flush();
+        assertEquals(2, queue.getDepth());
+        assertEquals(1, tasks.size());
+        tasks.poll().run();
+        assertTrue(unlocked.get());
+        assertEquals(
+                Arrays.asList(Collections.singletonList(removed), Collections.singletonList(added)), this.reported);
+    }
+
+    @Test
+    public void testClose() {
+        final ResourceChangeCoalescer coalescer = newCoalescer(0);
+        coalescer.add(Collections.singletonList(change(ChangeType.CHANGED, "/a")));
+        coalescer.close();
+        coalescer.add(Collections.singletonList(change(ChangeType.CHANGED, "/b")));
+        coalescer.flush();
+        assertTrue(this.reported.isEmpty());
+        verify(this.scheduler, times(1)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        verify(this.future).cancel(false);
+    }
+}
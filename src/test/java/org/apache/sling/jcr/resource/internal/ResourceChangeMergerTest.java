@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.apache.sling.jcr.resource.api.JcrResourceChange;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Testcase for {@link ResourceChangeMerger}
+ */
+public class ResourceChangeMergerTest {
+
+    private static ResourceChange change(final ChangeType type, final String path) {
+        return new ResourceChange(type, path, false);
+    }
+
+    private static Set<String> getChanges(final ResourceChangeMerger merger) {
+        final Set<String> result = new HashSet<>();
+        for (final ResourceChange change : merger.getChanges()) {
+            result.add(change.getType() + " " + change.getPath());
+        }
+        return result;
+    }
+
+    @Test
+    public void testMerge() {
+        final ResourceChangeMerger merger = new ResourceChangeMerger();
+        merger.addAll(Arrays.asList(
+                change(ChangeType.CHANGED, "/a"),
+                change(ChangeType.ADDED, "/a"),
+                change(ChangeType.ADDED, "/b"),
+                change(ChangeType.REMOVED, "/b"),
+                change(ChangeType.REMOVED, "/c"),
+                change(ChangeType.CHANGED, "/c"),
+                change(ChangeType.CHANGED, "/d"),
+                change(ChangeType.CHANGED, "/d")));
+        assertEquals(4, merger.size());
+        assertEquals(
+                new HashSet<>(Arrays.asList("ADDED /a", "REMOVED /b", "REMOVED /c", "CHANGED /d")), getChanges(merger));
+        assertTrue(merger.isRemoved("/b"));
+        assertFalse(merger.isRemoved("/a"));
+    }
+
+    @Test
+    public void testMergePropertyNames() {
+        final ResourceChangeMerger merger = new ResourceChangeMerger();
+        merger.add(new JcrResourceChange(
+                ChangeType.CHANGED,
+                "/a",
+                false,
+                "user",
+                "data",
+                Collections.singleton("foo"),
+                Collections.emptySet(),
+                Collections.emptySet()));
+        merger.add(new JcrResourceChange(
+                ChangeType.CHANGED,
+                "/a",
+                false,
+                "other",
+                null,
+                Collections.emptySet(),
+                Collections.singleton("foo"),
+                Collections.singleton("bar")));
+        assertEquals(1, merger.size());
+        final JcrResourceChange change = (JcrResourceChange) merger.getChanges().get(0);
+        assertEquals("user", change.getUserId());
+        assertEquals("data", change.getUserData());
+        assertEquals(Collections.singleton("foo"), change.getAddedPropertyNames());
+        assertEquals(Collections.singleton("foo"), change.getChangedPropertyNames());
+        assertEquals(Collections.singleton("bar"), change.getRemovedPropertyNames());
+
+        // without property names the first change is kept
+        merger.add(change(ChangeType.CHANGED, "/a"));
+        assertSame(change, merger.getChanges().get(0));
+    }
+
+    @Test
+    public void testNoCollapse() {
+        final ResourceChangeMerger merger = new ResourceChangeMerger();
+        merger.addAll(Arrays.asList(change(ChangeType.REMOVED, "/a"), change(ChangeType.REMOVED, "/a/b")));
+        assertEquals(2, merger.size());
+        assertFalse(merger.isCollapsed("/a/b"));
+    }
+
+    @Test
+    public void testCollapse() {
+        final ResourceChangeMerger merger = new ResourceChangeMerger(change -> true);
+        merger.addAll(Arrays.asList(
+                change(ChangeType.REMOVED, "/a/b/c"),
+                change(ChangeType.CHANGED, "/a/b"),
+                change(ChangeType.REMOVED, "/a"),
+                change(ChangeType.REMOVED, "/a/d"),
+                change(ChangeType.CHANGED, "/ab"),
+                change(ChangeType.ADDED, "/e"),
+                change(ChangeType.ADDED, "/e/f"),
+                change(ChangeType.CHANGED, "/e/f")));
+        assertEquals(new HashSet<>(Arrays.asList("REMOVED /a", "CHANGED /ab", "ADDED /e")), getChanges(merger));
+        assertTrue(merger.isCollapsed("/a/x/y"));
+        assertFalse(merger.isCollapsed("/a"));
+        assertFalse(merger.isCollapsed("/ab/c"));
+    }
+
+    @Test
+    public void testCollapseRoot() {
+        final ResourceChangeMerger merger = new ResourceChangeMerger(change -> true);
+        merger.addAll(Arrays.asList(change(ChangeType.REMOVED, "/a"), change(ChangeType.REMOVED, "/")));
+        assertEquals(new HashSet<>(Arrays.asList("REMOVED /")), getChanges(merger));
+        assertTrue(merger.isCollapsed("/b"));
+    }
+
+    @Test
+    public void testCollapseNotAllowed() {
+        final ResourceChangeMerger merger =
+                new ResourceChangeMerger(change -> change.getPath().startsWith("/content"));
+        merger.addAll(Arrays.asList(
+                change(ChangeType.REMOVED, "/apps"),
+                change(ChangeType.REMOVED, "/apps/a"),
+                change(ChangeType.REMOVED, "/content"),
+                change(ChangeType.REMOVED, "/content/a")));
+        assertEquals(
+                new HashSet<>(Arrays.asList("REMOVED /apps", "REMOVED /apps/a", "REMOVED /content")),
+                getChanges(merger));
+    }
+}
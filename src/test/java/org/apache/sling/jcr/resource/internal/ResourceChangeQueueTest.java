@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import org.apache.sling.api.resource.observation.ResourceChange;
+import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Testcase for {@link ResourceChangeQueue}
+ */
+public class ResourceChangeQueueTest {
+
+    /** An executor running the tasks only when asked to */
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    private final Executor executor = this.tasks::add;
+
+    private final List<ResourceChange> reported = new ArrayList<>();
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = this.tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private ResourceChangeQueue newQueue(final int capacity, final ResourceChangeQueue.OverflowPolicy policy) {
+        return new ResourceChangeQueue(this.executor, capacity, policy, this.reported::addAll);
+    }
+
+    private static ResourceChange change(final ChangeType type, final String path) {
+        return new ResourceChange(type, path, false);
+    }
+
+    @Test
+    public void testReportInOrder() {
+        final ResourceChangeQueue queue = newQueue(10, ResourceChangeQueue.OverflowPolicy.BLOCK);
+        final ResourceChange first = change(ChangeType.ADDED, "/a");
+        final ResourceChange second = change(ChangeType.CHANGED, "/a");
+        queue.offer(Collections.singletonList(first));
+        queue.offer(Collections.singletonList(second));
+        assertEquals(1, this.tasks.size());
+        assertEquals(2, queue.getDepth());
+        assertTrue(this.reported.isEmpty());
+
+        this.runTasks();
+        assertEquals(Arrays.asList(first, second), this.reported);
+        assertEquals(0, queue.getDepth());
+        assertEquals(0, queue.getLag());
+        assertEquals(2, queue.getReportedCount());
+    }
+
+    @Test
+    public void testRescheduleAfterMaxBatches() {
+        final ResourceChangeQueue queue = newQueue(100, ResourceChangeQueue.OverflowPolicy.BLOCK);
+        for (int i = 0; i < ResourceChangeQueue.MAX_BATCHES_PER_TASK + 1; i++) {
+            queue.offer(Collections.singletonList(change(ChangeType.CHANGED, "/" + i)));
+        }
+        this.tasks.poll().run();
+        assertEquals(ResourceChangeQueue.MAX_BATCHES_PER_TASK, this.reported.size());
+        assertEquals(1, this.tasks.size());
+        this.runTasks();
+        assertEquals(ResourceChangeQueue.MAX_BATCHES_PER_TASK + 1, this.reported.size());
+    }
+
+    @Test
+    public void testDrop() {
+        final ResourceChangeQueue queue = newQueue(2, ResourceChangeQueue.OverflowPolicy.DROP);
+        queue.offer(Arrays.asList(change(ChangeType.CHANGED, "/a"), change(ChangeType.CHANGED, "/b")));
+        queue.offer(Collections.singletonList(change(ChangeType.CHANGED, "/c")));
+        assertEquals(2, queue.getDepth());
+        assertEquals(1, queue.getDroppedCount());
+
+        this.runTasks();
+        assertEquals(2, this.reported.size());
+    }
+
+    @Test
+    public void testOversizedBatch() {
+        final ResourceChangeQueue queue = newQueue(1, ResourceChangeQueue.OverflowPolicy.DROP);
+        // accepted as the queue is empty
+        queue.offer(Arrays.asList(change(ChangeType.CHANGED, "/a"), change(ChangeType.CHANGED, "/b")));
+        assertEquals(2, queue.getDepth());
+        assertEquals(0, queue.getDroppedCount());
+    }
+
+    @Test
+    public void testCoalesceDropsIfStillFull() {
+        final ResourceChangeQueue queue = newQueue(2, ResourceChangeQueue.OverflowPolicy.COALESCE);
+        queue.offer(Arrays.asList(change(ChangeType.CHANGED, "/a"), change(ChangeType.CHANGED, "/b")));
+        queue.offer(Collections.singletonList(change(ChangeType.CHANGED, "/c")));
+        assertEquals(2, queue.getDepth());
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    @Test
+    public void testCoalesce() {
+        final ResourceChangeQueue queue = newQueue(2, ResourceChangeQueue.OverflowPolicy.COALESCE);
+        final ResourceChange removed = change(ChangeType.REMOVED, "/a");
+        final ResourceChange changed = change(ChangeType.CHANGED, "/b");
+        queue.offer(Arrays.asList(change(ChangeType.ADDED, "/a"), changed));
+        queue.offer(Arrays.asList(removed, change(ChangeType.CHANGED, "/b")));
+        assertEquals(2, queue.getDepth());
+        assertEquals(2, queue.getCoalescedCount());
+
+        this.runTasks();
+        assertEquals(Arrays.asList(removed, changed), this.reported);
+    }
+
+    @Test
+    public void testCoalesceAddAfterRemove() {
+        final ResourceChangeQueue queue = newQueue(2, ResourceChangeQueue.OverflowPolicy.COALESCE);
+        final ResourceChange removed = change(ChangeType.REMOVED, "/a");
+        queue.offer(Arrays.asList(change(ChangeType.CHANGED, "/a"), removed));
+        // the addition is not merged with the removal and dropped instead of waiting for it to be reported
+        queue.offer(Collections.singletonList(change(ChangeType.ADDED, "/a")));
+        assertEquals(0, queue.getCoalescedCount());
+        assertEquals(1, queue.getDroppedCount());
+
+        this.runTasks();
+        assertEquals(2, this.reported.size());
+        assertEquals(removed, this.reported.get(1));
+    }
+
+    @Test
+    public void testBlock() throws Exception {
+        final ResourceChangeQueue queue = newQueue(1, ResourceChangeQueue.OverflowPolicy.BLOCK);
+        queue.offer(Collections.singletonList(change(ChangeType.CHANGED, "/a")));
+        final Thread producer =
+                new Thread(() -> queue.offer(Collections.singletonList(change(ChangeType.CHANGED, "/b"))));
+        producer.start();
+        producer.join(200);
+        assertTrue(producer.isAlive());
+
+        // reporting the first change makes room for the second one
+        this.tasks.poll().run();
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+        this.runTasks();
+        assertEquals(2, this.reported.size());
+        assertEquals(0, queue.getDepth());
+    }
+
+    @Test
+    public void testClose() {
+        final ResourceChangeQueue queue = newQueue(10, ResourceChangeQueue.OverflowPolicy.BLOCK);
+        queue.offer(Collections.singletonList(change(ChangeType.CHANGED, "/a")));
+        queue.close();
+        queue.offer(Collections.singletonList(change(ChangeType.CHANGED, "/b")));
+        this.runTasks();
+        assertTrue(this.reported.isEmpty());
+        assertEquals(0, queue.getDepth());
+    }
+}
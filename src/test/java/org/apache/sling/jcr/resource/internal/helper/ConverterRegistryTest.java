@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper;
+
+import java.math.BigDecimal;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Testcase for {@link ConverterRegistry}
+ */
+public class ConverterRegistryTest {
+
+    @Test
+    public void testStringConversions() {
+        assertEquals(Long.valueOf(42), ConverterRegistry.convert("42", Long.class));
+        assertEquals(Integer.valueOf(42), ConverterRegistry.convert("42", Integer.class));
+        assertEquals(Short.valueOf((short) 42), ConverterRegistry.convert("42", Short.class));
+        assertEquals(Byte.valueOf((byte) 42), ConverterRegistry.convert("42", Byte.class));
+        assertEquals(Double.valueOf(1.5), ConverterRegistry.convert("1.5", Double.class));
+        assertEquals(Float.valueOf(1.5f), ConverterRegistry.convert("1.5", Float.class));
+        assertEquals(new BigDecimal("1.5"), ConverterRegistry.convert("1.5", BigDecimal.class));
+        assertEquals(Boolean.TRUE, ConverterRegistry.convert("true", Boolean.class));
+
+        final Calendar calendar = ConverterRegistry.convert("2026-10-17T10:00:00.000+02:00", Calendar.class);
+        assertEquals(
+                TimeZone.getTimeZone("GMT+02:00").getRawOffset(),
+                calendar.getTimeZone().getRawOffset());
+        assertEquals(calendar.getTime(), ConverterRegistry.convert("2026-10-17T10:00:00.000+02:00", Date.class));
+        assertEquals(
+                ZonedDateTime.of(2026, 10, 17, 10, 0, 0, 0, ZoneOffset.ofHours(2)),
+                ConverterRegistry.convert("2026-10-17T10:00:00.000+02:00", ZonedDateTime.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidNumber() {
+        ConverterRegistry.convert("abc", Long.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidDate() {
+        ConverterRegistry.convert("abc", Calendar.class);
+    }
+
+    @Test
+    public void testNumberConversions() {
+        assertEquals("42", ConverterRegistry.convert(42L, String.class));
+        assertEquals(Integer.valueOf(42), ConverterRegistry.convert(42L, Integer.class));
+        assertEquals(Long.valueOf(1), ConverterRegistry.convert(1.5d, Long.class));
+        assertEquals(new BigDecimal("1.5"), ConverterRegistry.convert(1.5d, BigDecimal.class));
+        assertEquals(Boolean.FALSE, ConverterRegistry.convert(1L, Boolean.class));
+        assertEquals(new Date(1000L), ConverterRegistry.convert(1000L, Date.class));
+        assertEquals(1000L, ConverterRegistry.convert(1000L, Calendar.class).getTimeInMillis());
+    }
+
+    @Test
+    public void testBooleanConversions() {
+        assertEquals("true", ConverterRegistry.convert(true, String.class));
+        assertEquals(Long.valueOf(1), ConverterRegistry.convert(true, Long.class));
+        assertEquals(Integer.valueOf(0), ConverterRegistry.convert(false, Integer.class));
+    }
+
+    @Test
+    public void testDateConversions() {
+        final Calendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        calendar.setTimeInMillis(1000L);
+        assertEquals("1970-01-01T00:00:01.000Z", ConverterRegistry.convert(calendar, String.class));
+        assertEquals(Long.valueOf(1000L), ConverterRegistry.convert(calendar, Long.class));
+        assertEquals(new Date(1000L), ConverterRegistry.convert(calendar, Date.class));
+        assertEquals(
+                ZonedDateTime.of(1970, 1, 1, 0, 0, 1, 0, ZoneOffset.UTC),
+                ConverterRegistry.convert(calendar, ZonedDateTime.class));
+
+        // subclasses of the source classes use the same conversions
+        assertEquals(Long.valueOf(1000L), ConverterRegistry.convert(new java.sql.Timestamp(1000L), Long.class));
+
+        final ZonedDateTime zdt = ZonedDateTime.of(1970, 1, 1, 0, 0, 1, 0, ZoneOffset.UTC);
+        assertEquals(Long.valueOf(1000L), ConverterRegistry.convert(zdt, Long.class));
+        assertEquals(new Date(1000L), ConverterRegistry.convert(zdt, Date.class));
+    }
+
+    @Test
+    public void testUnsupportedType() {
+        assertNull(ConverterRegistry.convert("42", StringBuilder.class));
+        assertNull(ConverterRegistry.convert(42L, Object.class));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper;
+
+import javax.jcr.InvalidItemStateException;
+import javax.jcr.Item;
+import javax.jcr.RepositoryException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testcase for {@link ItemCache}
+ */
+public class ItemCacheTest {
+
+    private static Item mockItem(final String path) throws RepositoryException {
+        final Item item = mock(Item.class);
+        when(item.getPath()).thenReturn(path);
+        return item;
+    }
+
+    @Test
+    public void testHitAndMiss() throws RepositoryException {
+        final ItemCache cache = new ItemCache(10);
+        final Item item = mockItem("/a");
+        assertNull(cache.get("/a"));
+        cache.put("/a", item);
+        assertSame(item, cache.get("/a"));
+        assertSame(item, cache.get("/a"));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() throws RepositoryException {
+        final ItemCache cache = new ItemCache(2);
+        final Item a = mockItem("/a");
+        cache.put("/a", a);
+        cache.put("/b", mockItem("/b"));
+        // access /a so /b becomes the eldest entry
+        assertSame(a, cache.get("/a"));
+        cache.put("/c", mockItem("/c"));
+        assertSame(a, cache.get("/a"));
+        assertNull(cache.get("/b"));
+    }
+
+    @Test
+    public void testStaleItemIsNotReturned() throws RepositoryException {
+        final ItemCache cache = new ItemCache(10);
+        final Item removed = mock(Item.class);
+        when(removed.getPath()).thenThrow(new InvalidItemStateException());
+        cache.put("/removed", removed);
+        assertNull(cache.get("/removed"));
+
+        // moved items are reported at a different path
+        cache.put("/moved", mockItem("/target"));
+        assertNull(cache.get("/moved"));
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void testClear() throws RepositoryException {
+        final ItemCache cache = new ItemCache(10);
+        cache.put("/a", mockItem("/a"));
+        cache.clear();
+        assertNull(cache.get("/a"));
+    }
+}
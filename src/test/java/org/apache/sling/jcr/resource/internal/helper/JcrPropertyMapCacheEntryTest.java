@@ -35,10 +35,12 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Calendar;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.TimeZone;
 
 import com.google.common.collect.Maps;
 import org.apache.jackrabbit.value.BooleanValue;
@@ -46,6 +48,7 @@ import org.apache.jackrabbit.value.ValueFactoryImpl;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -442,6 +445,73 @@ public class JcrPropertyMapCacheEntryTest {
         verifyNoMoreInteractions(prop);
     }
 
+    @Test
+    public void testPrimitiveProperties() throws Exception {
+        Calendar cal = Calendar.getInstance(TimeZone.getTimeZone("GMT+02:00"));
+        Value date = vf.createValue(cal);
+
+        JcrPropertyMapCacheEntry entry = new JcrPropertyMapCacheEntry(mockProperty(vf.createValue(42L)));
+        assertEquals(Long.valueOf(42L), entry.convertToType(Long.class, node, null));
+        assertEquals("42", entry.convertToType(String.class, node, null));
+        assertEquals(Integer.valueOf(42), entry.convertToType(Integer.class, node, null));
+        assertEquals(42L, entry.getPropertyValue());
+
+        entry = new JcrPropertyMapCacheEntry(mockProperty(vf.createValue(1.5d)));
+        assertEquals(Double.valueOf(1.5d), entry.convertToType(Double.class, node, null));
+        assertEquals("1.5", entry.convertToType(String.class, node, null));
+        assertEquals(1.5d, entry.getPropertyValue());
+
+        entry = new JcrPropertyMapCacheEntry(mockProperty(vf.createValue(true)));
+        assertEquals(Boolean.TRUE, entry.convertToType(Boolean.class, node, null));
+        assertEquals("true", entry.convertToType(String.class, node, null));
+        assertEquals(Boolean.TRUE, entry.getPropertyValue());
+
+        entry = new JcrPropertyMapCacheEntry(mockProperty(date));
+        assertEquals(cal.getTime(), entry.convertToType(Date.class, node, null));
+        assertEquals(date.getDate(), entry.getPropertyValue());
+        // the calendar is only created once
+        assertSame(entry.getPropertyValue(), entry.convertToType(Calendar.class, node, null));
+    }
+
+    @Test
+    public void testPrimitiveMvProperties() throws Exception {
+        JcrPropertyMapCacheEntry entry =
+                new JcrPropertyMapCacheEntry(mockProperty(vf.createValue(1L), vf.createValue(2L)));
+        assertTrue(entry.isArray());
+        assertArrayEquals(new Long[] {1L, 2L}, entry.convertToType(Long[].class, node, null));
+        assertArrayEquals(new String[] {"1", "2"}, entry.convertToType(String[].class, node, null));
+        assertEquals(Long.valueOf(1L), entry.convertToType(Long.class, node, null));
+        assertArrayEquals(new Long[] {1L, 2L}, (Long[]) entry.getPropertyValue());
+
+        entry = new JcrPropertyMapCacheEntry(mockProperty(vf.createValue(1.5d), vf.createValue(2.5d)));
+        assertArrayEquals(new Double[] {1.5d, 2.5d}, (Double[]) entry.getPropertyValue());
+
+        entry = new JcrPropertyMapCacheEntry(mockProperty(vf.createValue(true), vf.createValue(false)));
+        assertArrayEquals(new Boolean[] {true, false}, (Boolean[]) entry.getPropertyValue());
+    }
+
+    @Test
+    public void testConversionResultsOfMutableValuesAreNotRemembered() throws Exception {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(0);
+        JcrPropertyMapCacheEntry entry = new JcrPropertyMapCacheEntry(cal, node);
+        assertEquals(Long.valueOf(0), entry.convertToType(Long.class, node, null));
+        cal.setTimeInMillis(1000);
+        assertEquals(Long.valueOf(1000), entry.convertToType(Long.class, node, null));
+    }
+
+    private static Property mockProperty(final Value... values) throws RepositoryException {
+        Property prop = mock(Property.class);
+        when(prop.getType()).thenReturn(values[0].getType());
+        if (values.length == 1) {
+            when(prop.getValue()).thenReturn(values[0]);
+        } else {
+            when(prop.isMultiple()).thenReturn(true);
+            when(prop.getValues()).thenReturn(values);
+        }
+        return prop;
+    }
+
     @Test
     public void testCreateFromSerializable() throws Exception {
         Object value = new HashMap<>();
@@ -450,6 +520,18 @@ public class JcrPropertyMapCacheEntryTest {
         assertTrue(propValue instanceof HashMap);
     }
 
+    @Test
+    public void testSerializableIsBufferedInTemporaryFile() throws Exception {
+        HashMap<String, String> value = new HashMap<>();
+        value.put("key", new String(new char[1000]).replace('\0', 'x'));
+        Value result = (Value) JcrPropertyMapCacheEntry.toJcrValue(value, node, 100);
+        assertNotNull(result);
+        assertEquals(PropertyType.BINARY, result.getType());
+        try (ObjectInputStream ois = new ObjectInputStream(result.getBinary().getStream())) {
+            assertEquals(value, ois.readObject());
+        }
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testCreateFromNonSerializableComplexValue() throws Exception {
         Object value = new TestClass();
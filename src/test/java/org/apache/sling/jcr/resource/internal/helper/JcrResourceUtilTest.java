@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Testcase for {@link JcrResourceUtil}
+ */
+public class JcrResourceUtilTest {
+
+    private static void assertUtf8Length(final String value) {
+        assertEquals(value, value.getBytes(StandardCharsets.UTF_8).length, JcrResourceUtil.getUtf8Length(value));
+    }
+
+    @Test
+    public void testUtf8Length() {
+        assertUtf8Length("");
+        assertUtf8Length("ascii");
+        assertUtf8Length("Übersättigung");
+        assertUtf8Length("русский язык");
+        assertUtf8Length("贛語");
+        assertUtf8Length("\u007f\u0080߿ࠀ￿");
+    }
+
+    @Test
+    public void testUtf8LengthWithSurrogates() {
+        assertUtf8Length("😀");
+        assertUtf8Length("emoji 😀 and 🎉");
+        // unpaired surrogates are encoded as '?'
+        assertUtf8Length("\uD83D");
+        assertUtf8Length("\uDE00\uD83D");
+        assertUtf8Length("a\uD83Db");
+        assertUtf8Length("\uD83D😀");
+    }
+
+    @Test
+    public void testUtf8LengthOfCharSequence() {
+        assertEquals(5, JcrResourceUtil.getUtf8Length(new StringBuilder("süß")));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper;
+
+import javax.jcr.NamespaceRegistry;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Workspace;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testcase for {@link NamespacePrefixCache}
+ */
+public class NamespacePrefixCacheTest {
+
+    private final Session session = mock(Session.class);
+
+    private final NamespaceRegistry registry = mock(NamespaceRegistry.class);
+
+    private final NamespacePrefixCache cache = new NamespacePrefixCache();
+
+    @Before
+    public void before() throws RepositoryException {
+        final Workspace workspace = mock(Workspace.class);
+        when(session.getWorkspace()).thenReturn(workspace);
+        when(workspace.getNamespaceRegistry()).thenReturn(registry);
+        when(registry.getPrefixes()).thenReturn(new String[] {"jcr", "sling"});
+        cache.setActive(true);
+    }
+
+    @Test
+    public void testPrefixes() throws RepositoryException {
+        assertTrue(cache.isPrefix(session, "jcr"));
+        assertTrue(cache.isPrefix(session, "sling"));
+        assertFalse(cache.isPrefix(session, "foo"));
+        // the prefixes are only read once
+        verify(registry).getPrefixes();
+
+        // until the namespace registry changes
+        when(registry.getPrefixes()).thenReturn(new String[] {"jcr", "sling", "foo"});
+        cache.clear();
+        assertTrue(cache.isPrefix(session, "foo"));
+        verify(registry, times(2)).getPrefixes();
+    }
+
+    @Test
+    public void testEscapedNames() {
+        cache.putEscapedName("jcr:title", "jcr:title");
+        assertEquals("jcr:title", cache.getEscapedName("jcr:title"));
+        assertNull(cache.getEscapedName("sling:resourceType"));
+
+        cache.clear();
+        assertNull(cache.getEscapedName("jcr:title"));
+    }
+
+    @Test
+    public void testEscapedNamesAreBounded() {
+        for (int i = 0; i < NamespacePrefixCache.MAX_ESCAPED_NAMES; i++) {
+            cache.putEscapedName("key" + i, "key" + i);
+        }
+        // make sure the first name has been used recently
+        assertEquals("key0", cache.getEscapedName("key0"));
+        final String last = "key" + NamespacePrefixCache.MAX_ESCAPED_NAMES;
+        cache.putEscapedName(last, last);
+        assertEquals("key0", cache.getEscapedName("key0"));
+        assertEquals(last, cache.getEscapedName(last));
+        assertNull(cache.getEscapedName("key1"));
+    }
+
+    @Test
+    public void testInactiveCache() throws RepositoryException {
+        cache.putEscapedName("jcr:title", "jcr:title");
+        cache.setActive(false);
+        assertNull(cache.getEscapedName("jcr:title"));
+        cache.putEscapedName("jcr:title", "jcr:title");
+        cache.setActive(true);
+        assertNull(cache.getEscapedName("jcr:title"));
+
+        // prefixes read while inactive are not kept
+        cache.setActive(false);
+        assertTrue(cache.isPrefix(session, "jcr"));
+        assertTrue(cache.isPrefix(session, "jcr"));
+        verify(registry, times(2)).getPrefixes();
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper;
+
+import javax.jcr.Node;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
+import javax.jcr.PropertyType;
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Testcase for {@link SharedPropertyCache} and {@link PropertySnapshot}
+ */
+public class SharedPropertyCacheTest {
+
+    private static final String USER = "user";
+
+    private static PropertySnapshot snapshot(final String... namesAndValues) throws RepositoryException {
+        final List<Property> props = new ArrayList<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            final Property prop = mock(Property.class);
+            final Value value = mock(Value.class);
+            when(prop.getName()).thenReturn(namesAndValues[i]);
+            when(prop.getType()).thenReturn(PropertyType.STRING);
+            when(prop.getValue()).thenReturn(value);
+            when(value.getType()).thenReturn(PropertyType.STRING);
+            when(value.getString()).thenReturn(namesAndValues[i + 1]);
+            props.add(prop);
+        }
+        return PropertySnapshot.create(mockNode(props));
+    }
+
+    private static Node mockNode(final List<Property> props) throws RepositoryException {
+        final Iterator<Property> iter = props.iterator();
+        final PropertyIterator pi = mock(PropertyIterator.class);
+        when(pi.hasNext()).thenAnswer(invocation -> iter.hasNext());
+        when(pi.nextProperty()).thenAnswer(invocation -> iter.next());
+        final Node node = mock(Node.class);
+        when(node.getProperties()).thenReturn(pi);
+        return node;
+    }
+
+    private static SharedPropertyCache newCache(final int maxEntries, final long maxSize) {
+        final SharedPropertyCache cache =
+                new SharedPropertyCache(new String[] {"/apps/", " /libs"}, maxEntries, maxSize);
+        cache.setActive(true);
+        return cache;
+    }
+
+    @Test
+    public void testRoots() {
+        final SharedPropertyCache cache = newCache(10, 100000);
+        assertArrayEquals(new String[] {"/apps", "/libs"}, cache.getRoots());
+        assertEquals("/apps", cache.getRoot("/apps"));
+        assertEquals("/apps", cache.getRoot("/apps/a/b"));
+        assertEquals("/libs", cache.getRoot("/libs/a"));
+        assertNull(cache.getRoot("/applications"));
+        assertNull(cache.getRoot("/content/apps"));
+    }
+
+    @Test
+    public void testSnapshot() throws RepositoryException {
+        final PropertySnapshot snapshot = snapshot("a", "1", "b", "2");
+        assertEquals(2, snapshot.size());
+        assertEquals("a", snapshot.getName(0));
+        assertEquals("2", snapshot.getValue(1));
+        assertEquals("1", snapshot.getValue("a"));
+        assertNull(snapshot.getValue("c"));
+    }
+
+    @Test
+    public void testGetAndPut() throws RepositoryException {
+        final SharedPropertyCache cache = newCache(10, 100000);
+        final PropertySnapshot snapshot = snapshot("a", "1");
+        assertNull(cache.get("/apps/a", USER));
+        cache.put("/apps/a", USER, snapshot, cache.getGeneration());
+        assertSame(snapshot, cache.get("/apps/a", USER));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(snapshot.getWeight(), cache.getSize());
+    }
+
+    @Test
+    public void testSnapshotsArePerUser() throws RepositoryException {
+        final SharedPropertyCache cache = newCache(10, 100000);
+        cache.put("/apps/a", USER, snapshot("a", "1"), cache.getGeneration());
+        assertNull(cache.get("/apps/a", "other"));
+        cache.put("/apps/a", "other", snapshot("a", "2"), cache.getGeneration());
+        assertEquals(2, cache.getEntryCount());
+        assertEquals("1", cache.get("/apps/a", USER).getValue("a"));
+        assertEquals("2", cache.get("/apps/a", "other").getValue("a"));
+
+        cache.invalidate("/apps/a");
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testEqualSnapshotsAreShared() throws RepositoryException {
+        final SharedPropertyCache cache = newCache(10, 100000);
+        final PropertySnapshot snapshot = snapshot("a", "1", "b", "2");
+        cache.put("/apps/a", USER, snapshot, cache.getGeneration());
+        cache.put("/apps/a", "other", snapshot("a", "1", "b", "2"), cache.getGeneration());
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(snapshot.getWeight(), cache.getSize());
+        assertSame(snapshot, cache.get("/apps/a", "other"));
+
+        // replacing the shared snapshot of one user keeps it for the other
+        final PropertySnapshot changed = snapshot("a", "1");
+        cache.put("/apps/a", "other", changed, cache.getGeneration());
+        assertEquals(snapshot.getWeight() + changed.getWeight(), cache.getSize());
+        cache.put("/apps/a", USER, snapshot("a", "1"), cache.getGeneration());
+        assertSame(changed, cache.get("/apps/a", USER));
+        assertEquals(changed.getWeight(), cache.getSize());
+
+        cache.invalidate("/apps/a");
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testInactiveCache() throws RepositoryException {
+        final SharedPropertyCache cache = newCache(10, 100000);
+        cache.put("/apps/a", USER, snapshot("a", "1"), cache.getGeneration());
+        cache.setActive(false);
+        assertNull(cache.get("/apps/a", USER));
+        cache.put("/apps/a", USER, snapshot("a", "1"), cache.getGeneration());
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testOutdatedSnapshotIsNotAdded() throws RepositoryException {
+        final SharedPropertyCache cache = newCache(10, 100000);
+        final long generation = cache.getGeneration();
+        cache.invalidate("/apps/other");
+        cache.put("/apps/a", USER, snapshot("a", "1"), generation);
+        assertNull(cache.get("/apps/a", USER));
+    }
+
+    @Test
+    public void testInvalidation() throws RepositoryException {
+        final SharedPropertyCache cache = newCache(10, 100000);
+        for (final String path : new String[] {"/apps/a", "/apps/a/b", "/apps/ab", "/libs/a"}) {
+            cache.put(path, USER, snapshot("a", "1"), cache.getGeneration());
+        }
+        cache.invalidate("/apps/ab");
+        assertNull(cache.get("/apps/ab", USER));
+        assertNotNull(cache.get("/apps/a/b", USER));
+
+        cache.put("/apps/ab", USER, snapshot("a", "1"), cache.getGeneration());
+        cache.invalidateTree("/apps/a");
+        assertNull(cache.get("/apps/a", USER));
+        assertNull(cache.get("/apps/a/b", USER));
+        assertNotNull(cache.get("/apps/ab", USER));
+        assertNotNull(cache.get("/libs/a", USER));
+
+        cache.invalidateTree("/");
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testEvictionByEntries() throws RepositoryException {
+        final SharedPropertyCache cache = newCache(10, 100000);
+        for (int i = 0; i < 10; i++) {
+            cache.put("/apps/" + i, USER, snapshot("a", "1"), cache.getGeneration());
+        }
+        // make sure the first entry has been used recently
+        assertNotNull(cache.get("/apps/0", USER));
+        cache.put("/apps/10", USER, snapshot("a", "1"), cache.getGeneration());
+        assertEquals(9, cache.getEntryCount());
+        assertNotNull(cache.get("/apps/0", USER));
+        assertNotNull(cache.get("/apps/10", USER));
+        assertNull(cache.get("/apps/1", USER));
+    }
+
+    @Test
+    public void testEvictionBySize() throws RepositoryException {
+        final PropertySnapshot snapshot = snapshot("a", "1");
+        final SharedPropertyCache cache = newCache(100, snapshot.getWeight() * 3);
+        for (int i = 0; i < 4; i++) {
+            cache.put("/apps/" + i, USER, snapshot("a", "1"), cache.getGeneration());
+        }
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(snapshot.getWeight() * 2, cache.getSize());
+
+        // too large to be cached at all
+        cache.put("/apps/large", USER, snapshot("a", new String(new char[1000])), cache.getGeneration());
+        assertNull(cache.get("/apps/large", USER));
+    }
+
+    @Test
+    public void testMutableValuesAreCopied() throws RepositoryException {
+        final Property prop = mock(Property.class);
+        final Value value = mock(Value.class);
+        final Calendar calendar = Calendar.getInstance();
+        when(prop.getName()).thenReturn("date");
+        when(prop.getType()).thenReturn(PropertyType.DATE);
+        when(prop.isMultiple()).thenReturn(true);
+        when(prop.getValues()).thenReturn(new Value[] {value});
+        when(value.getType()).thenReturn(PropertyType.DATE);
+        when(value.getDate()).thenReturn(calendar);
+
+        final PropertySnapshot snapshot = PropertySnapshot.create(mockNode(Collections.singletonList(prop)));
+        final Calendar[] first = (Calendar[]) snapshot.getValue(0);
+        assertEquals(calendar, first[0]);
+        assertNotSame(calendar, first[0]);
+        first[0].add(Calendar.YEAR, 1);
+        first[0] = null;
+        final Calendar[] second = (Calendar[]) snapshot.getValue("date");
+        assertEquals(calendar, second[0]);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Testcase for {@link SpillingOutputStream}
+ */
+public class SpillingOutputStreamTest {
+
+    private static byte[] data(final int length) {
+        final byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+
+    private static byte[] read(final SpillingOutputStream out) throws IOException {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (InputStream in = out.getInputStream()) {
+            final byte[] buffer = new byte[100];
+            int l;
+            while ((l = in.read(buffer)) != -1) {
+                result.write(buffer, 0, l);
+            }
+        }
+        return result.toByteArray();
+    }
+
+    @Test
+    public void testKeptOnHeap() throws IOException {
+        final byte[] data = data(1000);
+        final SpillingOutputStream out = new SpillingOutputStream(1000);
+        out.write(data, 0, 500);
+        out.write(data, 500, 499);
+        out.write(data[999]);
+        out.close();
+        assertFalse(out.isSpilled());
+        assertArrayEquals(data, read(out));
+        out.discard();
+    }
+
+    @Test
+    public void testNoThreshold() throws IOException {
+        final byte[] data = data(10000);
+        final SpillingOutputStream out = new SpillingOutputStream(0);
+        out.write(data);
+        out.close();
+        assertFalse(out.isSpilled());
+        assertArrayEquals(data, read(out));
+        out.discard();
+    }
+
+    @Test
+    public void testSpilled() throws IOException {
+        final byte[] data = data(1000);
+        final SpillingOutputStream out = new SpillingOutputStream(100);
+        for (int i = 0; i < 500; i++) {
+            out.write(data[i]);
+        }
+        assertTrue(out.isSpilled());
+        out.write(data, 500, 500);
+        out.close();
+        assertArrayEquals(data, read(out));
+        out.discard();
+        assertFalse(out.isSpilled());
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.sling.jcr.resource.internal.helper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Testcase for {@link VersionCache}
+ */
+public class VersionCacheTest {
+
+    private static final String HISTORY = VersionCache.VERSION_STORAGE_PATH + "/1a/2b/3c/history";
+
+    private static VersionCache newCache(final int maxEntries) {
+        final VersionCache cache = new VersionCache(maxEntries);
+        cache.setActive(true);
+        return cache;
+    }
+
+    @Test
+    public void testInactive() {
+        final VersionCache cache = new VersionCache(10);
+        cache.putVersionable("/content", VersionCache.NOT_VERSIONABLE, cache.getGeneration());
+        cache.putFrozenNodePath(HISTORY, "1.0", HISTORY + "/1.0/jcr:frozenNode", cache.getGeneration());
+        assertNull(cache.getVersionable("/content"));
+        assertNull(cache.getFrozenNodePath(HISTORY, "1.0"));
+        assertEquals(0, cache.getEntryCount());
+    }
+
+    @Test
+    public void testGetAndPut() {
+        final VersionCache cache = newCache(10);
+        final VersionCache.Versionable page = new VersionCache.Versionable("/content/page", HISTORY);
+        cache.putVersionable("/content/page/jcr:content", page, cache.getGeneration());
+        cache.putVersionable("/content/other", VersionCache.NOT_VERSIONABLE, cache.getGeneration());
+        cache.putFrozenNodePath(HISTORY, "1.0", HISTORY + "/1.0/jcr:frozenNode", cache.getGeneration());
+
+        assertSame(page, cache.getVersionable("/content/page/jcr:content"));
+        assertSame(VersionCache.NOT_VERSIONABLE, cache.getVersionable("/content/other"));
+        assertNull(cache.getVersionable("/content/page"));
+        assertEquals(HISTORY + "/1.0/jcr:frozenNode", cache.getFrozenNodePath(HISTORY, "1.0"));
+        assertNull(cache.getFrozenNodePath(HISTORY, "1.1"));
+        assertEquals(3, cache.getEntryCount());
+        assertEquals(3, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void testOutdatedGeneration() {
+        final VersionCache cache = newCache(10);
+        final long generation = cache.getGeneration();
+        cache.invalidateTree("/somewhere/else");
+        cache.putVersionable("/content", VersionCache.NOT_VERSIONABLE, generation);
+        cache.putFrozenNodePath(HISTORY, "1.0", HISTORY + "/1.0/jcr:frozenNode", generation);
+        assertNull(cache.getVersionable("/content"));
+        assertNull(cache.getFrozenNodePath(HISTORY, "1.0"));
+    }
+
+    @Test
+    public void testMaxEntries() {
+        final VersionCache cache = newCache(2);
+        for (int i = 0; i < 3; i++) {
+            cache.putVersionable("/content/" + i, VersionCache.NOT_VERSIONABLE, cache.getGeneration());
+            cache.putFrozenNodePath(HISTORY + i, "1.0", HISTORY + i + "/1.0/jcr:frozenNode", cache.getGeneration());
+        }
+        assertEquals(4, cache.getEntryCount());
+        assertNull(cache.getVersionable("/content/2"));
+        assertNull(cache.getFrozenNodePath(HISTORY + 2, "1.0"));
+
+        // versions of a cached history are still added
+        cache.putFrozenNodePath(HISTORY + 1, "1.1", HISTORY + "1/1.1/jcr:frozenNode", cache.getGeneration());
+        assertEquals(HISTORY + "1/1.1/jcr:frozenNode", cache.getFrozenNodePath(HISTORY + 1, "1.1"));
+
+        // invalidated entries make room for new ones
+        cache.invalidateTree("/content/0");
+        cache.putVersionable("/content/2", VersionCache.NOT_VERSIONABLE, cache.getGeneration());
+        assertSame(VersionCache.NOT_VERSIONABLE, cache.getVersionable("/content/2"));
+    }
+
+    @Test
+    public void testInvalidateTree() {
+        final VersionCache cache = newCache(10);
+        for (final String path : new String[] {"/content", "/content/a", "/content/a/b", "/content/ab", "/other"}) {
+            cache.putVersionable(path, VersionCache.NOT_VERSIONABLE, cache.getGeneration());
+        }
+        cache.putFrozenNodePath(HISTORY, "1.0", HISTORY + "/1.0/jcr:frozenNode", cache.getGeneration());
+
+        cache.invalidateTree("/content/a");
+        assertSame(VersionCache.NOT_VERSIONABLE, cache.getVersionable("/content"));
+        assertNull(cache.getVersionable("/content/a"));
+        assertNull(cache.getVersionable("/content/a/b"));
+        assertSame(VersionCache.NOT_VERSIONABLE, cache.getVersionable("/content/ab"));
+        assertEquals(HISTORY + "/1.0/jcr:frozenNode", cache.getFrozenNodePath(HISTORY, "1.0"));
+        assertEquals(4, cache.getEntryCount());
+
+        cache.invalidateTree("/");
+        assertNull(cache.getVersionable("/content"));
+        assertNull(cache.getVersionable("/other"));
+        assertNull(cache.getFrozenNodePath(HISTORY, "1.0"));
+        assertEquals(0, cache.getEntryCount());
+    }
+
+    @Test
+    public void testInvalidateVersionHistory() {
+        final VersionCache cache = newCache(10);
+        final String otherHistory = VersionCache.VERSION_STORAGE_PATH + "/1a/2b/4d/history";
+        cache.putVersionable("/content", VersionCache.NOT_VERSIONABLE, cache.getGeneration());
+        cache.putFrozenNodePath(HISTORY, "1.0", HISTORY + "/1.0/jcr:frozenNode", cache.getGeneration());
+        cache.putFrozenNodePath(otherHistory, "1.0", otherHistory + "/1.0/jcr:frozenNode", cache.getGeneration());
+
+        // e.g. a label has been moved
+        cache.invalidateTree(HISTORY + "/jcr:versionLabels");
+        assertNull(cache.getFrozenNodePath(HISTORY, "1.0"));
+        assertEquals(otherHistory + "/1.0/jcr:frozenNode", cache.getFrozenNodePath(otherHistory, "1.0"));
+        assertSame(VersionCache.NOT_VERSIONABLE, cache.getVersionable("/content"));
+
+        // e.g. the intermediate node containing the history has been removed
+        cache.invalidateTree(VersionCache.VERSION_STORAGE_PATH + "/1a/2b");
+        assertNull(cache.getFrozenNodePath(otherHistory, "1.0"));
+        assertEquals(1, cache.getEntryCount());
+    }
+
+    @Test
+    public void testDeactivate() {
+        final VersionCache cache = newCache(10);
+        cache.putVersionable("/content", VersionCache.NOT_VERSIONABLE, cache.getGeneration());
+        cache.setActive(false);
+        cache.setActive(true);
+        assertNull(cache.getVersionable("/content"));
+        assertEquals(0, cache.getEntryCount());
+    }
+}
@@ -24,8 +24,11 @@ import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.security.Privilege;
+import javax.jcr.version.VersionHistory;
+import javax.jcr.version.VersionManager;
 
 import java.lang.reflect.Proxy;
+import java.util.Collections;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.jackrabbit.JcrConstants;
@@ -33,7 +36,12 @@ import org.apache.jackrabbit.commons.JcrUtils;
 import org.apache.jackrabbit.commons.jackrabbit.authorization.AccessControlUtils;
 import org.apache.jackrabbit.oak.commons.PathUtils;
 import org.apache.jackrabbit.oak.spi.security.principal.EveryonePrincipal;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.jcr.resource.internal.HelperData;
+import org.apache.sling.jcr.resource.internal.JcrProviderSettings;
+import org.apache.sling.jcr.resource.internal.helper.ItemCache;
+import org.apache.sling.jcr.resource.internal.helper.VersionCache;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.osgi.service.component.ComponentContext;
@@ -96,6 +104,12 @@ public class JcrItemResourceFactoryTest extends SlingRepositoryTestBase {
         compareGetItemOrNull("", null);
     }
 
+    private static HelperData newHelperData(final ItemCache itemCache, final VersionCache versionCache) {
+        final JcrProviderSettings settings = new JcrProviderSettings();
+        settings.setVersionCache(versionCache);
+        return new HelperData(new AtomicReference<>(), new AtomicReference<>(), itemCache, settings);
+    }
+
     private void compareGetItemOrNull(String path, String expectedPath) throws RepositoryException {
         HelperData helper = new HelperData(new AtomicReference<>(), new AtomicReference<>());
         Item item1 = new JcrItemResourceFactory(session, helper).getItemOrNull(path);
@@ -185,6 +199,102 @@ public class JcrItemResourceFactoryTest extends SlingRepositoryTestBase {
         assertNull(referenceableItem);
     }
 
+    public void testGetItemOrNullWithItemCache() throws RepositoryException {
+        ItemCache itemCache = new ItemCache(10);
+        HelperData helper = newHelperData(itemCache, null);
+        JcrItemResourceFactory factory = new JcrItemResourceFactory(session, helper);
+
+        Item item = factory.getItemOrNull(EXISTING_NODE_PATH);
+        assertNotNull(item);
+        assertSame(item, factory.getItemOrNull(EXISTING_NODE_PATH));
+        assertEquals(1, itemCache.getHitCount());
+        assertEquals(1, itemCache.getMissCount());
+
+        assertNull(factory.getItemOrNull(NON_EXISTING_NODE_PATH));
+        assertEquals(2, itemCache.getMissCount());
+
+        // removing the node through the session is detected
+        node.remove();
+        try {
+            assertNull(factory.getItemOrNull(EXISTING_NODE_PATH));
+        } finally {
+            session.refresh(false);
+        }
+
+        helper.invalidateCaches();
+        item = factory.getItemOrNull(EXISTING_NODE_PATH);
+        assertNotNull(item);
+        assertEquals(EXISTING_NODE_PATH, item.getPath());
+        assertEquals(1, itemCache.getHitCount());
+    }
+
+    public void testCreateResourceWithVersionCache() throws RepositoryException {
+        final Node versionable = session.getRootNode().addNode("versionable", JcrConstants.NT_UNSTRUCTURED);
+        try {
+            versionable.addMixin(JcrConstants.MIX_VERSIONABLE);
+            versionable.addNode("child", JcrConstants.NT_UNSTRUCTURED).setProperty("title", "first");
+            session.save();
+            final VersionManager versionManager = session.getWorkspace().getVersionManager();
+            versionManager.checkpoint(versionable.getPath());
+            versionable.getNode("child").setProperty("title", "second");
+            session.save();
+            versionManager.checkpoint(versionable.getPath());
+            final VersionHistory history = versionManager.getVersionHistory(versionable.getPath());
+            history.addVersionLabel("1.0", "live", false);
+
+            final VersionCache versionCache = new VersionCache(10);
+            versionCache.setActive(true);
+            final HelperData helper = newHelperData(null, versionCache);
+            final JcrItemResourceFactory factory = new JcrItemResourceFactory(session, helper);
+
+            assertEquals("first", getVersionedTitle(factory, "1.0"));
+            // the versionable ancestor of the property, the child and the node itself and the version are cached
+            assertEquals(4, versionCache.getEntryCount());
+            final long misses = versionCache.getMissCount();
+            assertEquals("first", getVersionedTitle(factory, "1.0"));
+            assertEquals(misses, versionCache.getMissCount());
+            assertEquals("second", getVersionedTitle(factory, "1.1"));
+            assertEquals("first", getVersionedTitle(factory, "live"));
+            assertNull(getVersionedTitle(factory, "unknown"));
+
+            // a moved label is visible once the version history has been invalidated,
+            // resolvers opened before the invalidation bypass the cache
+            history.addVersionLabel("1.1", "live", true);
+            versionCache.invalidateTree(history.getPath() + "/" + JcrConstants.JCR_VERSIONLABELS);
+            assertEquals("second", getVersionedTitle(factory, "live"));
+            final JcrItemResourceFactory other = new JcrItemResourceFactory(session, newHelperData(null, versionCache));
+            assertEquals("second", getVersionedTitle(other, "live"));
+
+            // paths without versionable ancestor are cached as well
+            assertNull(other.createResource(
+                    mock(ResourceResolver.class), EXISTING_NODE_PATH, null, Collections.singletonMap("v", "1.0")));
+            assertSame(VersionCache.NOT_VERSIONABLE, versionCache.getVersionable(EXISTING_NODE_PATH));
+        } finally {
+            versionable.remove();
+            session.save();
+        }
+    }
+
+    public void testVersionCacheIsBypassedAfterInvalidation() throws RepositoryException {
+        final VersionCache versionCache = new VersionCache(10);
+        versionCache.setActive(true);
+        final HelperData helper = newHelperData(null, versionCache);
+        assertSame(versionCache, helper.getVersionCache());
+        assertEquals(versionCache.getGeneration(), helper.getVersionCacheView());
+
+        // the session is not refreshed, so the cache can't be used anymore
+        versionCache.invalidateTree("/versionable");
+        assertNull(helper.getVersionCache());
+        assertSame(versionCache, newHelperData(null, versionCache).getVersionCache());
+    }
+
+    private static String getVersionedTitle(final JcrItemResourceFactory factory, final String version)
+            throws RepositoryException {
+        final Resource resource = factory.createResource(
+                mock(ResourceResolver.class), "/versionable/child/title", null, Collections.singletonMap("v", version));
+        return resource == null ? null : resource.adaptTo(String.class);
+    }
+
     private void compareGetParentOrNull(Session s, String path, boolean nullExpected) throws RepositoryException {
         HelperData helper = new HelperData(new AtomicReference<>(), new AtomicReference<>());
 
@@ -35,9 +35,16 @@ import org.apache.jackrabbit.JcrConstants;
 import org.apache.sling.api.resource.ModifiableValueMap;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceMetadata;
+import org.apache.sling.api.resource.ResourceResolver;
 import org.apache.sling.api.resource.ValueMap;
+import org.apache.sling.api.resource.path.PathSet;
 import org.apache.sling.jcr.resource.api.JcrResourceConstants;
 import org.apache.sling.jcr.resource.internal.HelperData;
+import org.apache.sling.jcr.resource.internal.JcrProviderSettings;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class JcrNodeResourceTest extends JcrItemResourceTestBase {
 
@@ -349,4 +356,23 @@ public class JcrNodeResourceTest extends JcrItemResourceTestBase {
         props.put(JcrConstants.JCR_MIMETYPE, "all");
         props.putAll(Collections.singletonMap(JcrConstants.JCR_MIMETYPE, "value"));
     }
+
+    public void testHasChildren() throws Exception {
+        Node parent = rootNode.addNode("haschildren", JcrConstants.NT_UNSTRUCTURED);
+        Node leaf = parent.addNode("leaf", JcrConstants.NT_UNSTRUCTURED);
+        getSession().save();
+
+        assertTrue(new JcrNodeResource(null, parent.getPath(), null, parent, getHelperData()).hasChildren());
+        assertFalse(new JcrNodeResource(null, leaf.getPath(), null, leaf, getHelperData()).hasChildren());
+
+        // another provider serves a path below the leaf, so the resolver is asked
+        final ResourceResolver resolver = mock(ResourceResolver.class);
+        final JcrProviderSettings settings = new JcrProviderSettings();
+        settings.setExcludedPathsReference(new AtomicReference<>(PathSet.fromStrings(leaf.getPath() + "/mounted")));
+        final HelperData helper = new HelperData(new AtomicReference<>(), new AtomicReference<>(), null, settings);
+        final JcrNodeResource jnr = new JcrNodeResource(resolver, leaf.getPath(), null, leaf, helper);
+        when(resolver.hasChildren(jnr)).thenReturn(true);
+        assertTrue(jnr.hasChildren());
+        verify(resolver).hasChildren(jnr);
+    }
 }
@@ -54,6 +54,8 @@ public class JcrPropertyResourceTest {
                 put("русский язык", PropertyType.STRING);
                 put("贛語", PropertyType.STRING);
                 put("string with ümlaut", PropertyType.STRING);
+                put("surrogate pair \uD83D\uDE00", PropertyType.STRING);
+                put("unpaired surrogate \uD83D", PropertyType.STRING);
                 put(true, PropertyType.BOOLEAN);
                 put(1000L, PropertyType.LONG);
                 put(BigDecimal.TEN, PropertyType.DECIMAL);
@@ -89,4 +91,31 @@ public class JcrPropertyResourceTest {
                     propResource.getResourceMetadata().getContentLength());
         }
     }
+
+    @Test
+    public void testLazyResourceTypeAndContentLength() throws RepositoryException {
+        final ResourceResolver resolver = this.context.mock(ResourceResolver.class);
+        final Property property = this.context.mock(Property.class);
+        this.context.checking(new Expectations() {
+            {
+                // neither the parent nor the value are read when creating the resource
+                allowing(property).getType();
+                will(returnValue(PropertyType.STRING));
+            }
+        });
+        final JcrPropertyResource propResource =
+                new JcrPropertyResource(resolver, "/path/to/string-property", null, property);
+        assertEquals("text/plain", propResource.getResourceMetadata().getContentType());
+
+        this.context.checking(new Expectations() {
+            {
+                oneOf(property).isMultiple();
+                will(returnValue(false));
+                oneOf(property).getString();
+                will(returnValue("value"));
+            }
+        });
+        assertEquals(5, propResource.getResourceMetadata().getContentLength());
+        assertEquals(5, propResource.getResourceMetadata().getContentLength());
+    }
 }
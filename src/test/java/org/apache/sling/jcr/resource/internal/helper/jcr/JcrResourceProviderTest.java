@@ -19,20 +19,28 @@
 package org.apache.sling.jcr.resource.internal.helper.jcr;
 
 import javax.jcr.Node;
+import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 
 import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.jackrabbit.JcrConstants;
 import org.apache.jackrabbit.commons.JcrUtils;
+import org.apache.jackrabbit.commons.jackrabbit.authorization.AccessControlUtils;
 import org.apache.jackrabbit.oak.commons.PathUtils;
+import org.apache.jackrabbit.oak.spi.security.principal.EveryonePrincipal;
 import org.apache.sling.api.resource.PersistenceException;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.jcr.resource.api.BulkResourceWriter;
 import org.apache.sling.jcr.resource.api.JcrResourceConstants;
 import org.apache.sling.jcr.resource.internal.HelperData;
 import org.apache.sling.spi.resource.provider.ResolveContext;
@@ -227,6 +235,174 @@ public class JcrResourceProviderTest extends SlingRepositoryTestBase {
         assertEquals("admin", grandchild.getItem().getProperty("jcr:createdBy").getString());
     }
 
+    @Test
+    public void testBulkResourceWriter() throws PersistenceException, RepositoryException {
+        ResolveContext ctx = mockResolveContext();
+        BulkResourceWriter writer = jcrResourceProvider.adaptTo(ctx, BulkResourceWriter.class);
+        assertNotNull(writer);
+        writer.setBatchSize(2);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(JcrConstants.JCR_PRIMARYTYPE, NT_UNSTRUCTURED);
+        properties.put("title", "Title");
+        Map<String, Map<String, Object>> resources = new LinkedHashMap<>();
+        resources.put("/parent", properties);
+        resources.put("/parent/a", properties);
+        resources.put("/parent/a/b", null);
+        resources.put("/parent/c", properties);
+        resources.put("/parent/c/d", properties);
+        writer.createAll(resources);
+
+        assertEquals(5, writer.getCreatedCount());
+        assertEquals(2, writer.getCommitCount());
+        Assert.assertTrue(writer.getThroughput() > 0);
+        Assert.assertTrue(session.hasPendingChanges());
+        writer.commit();
+        Assert.assertFalse(session.hasPendingChanges());
+
+        assertEquals(
+                "Title", session.getNode("/parent/c/d").getProperty("title").getString());
+        Assert.assertTrue(session.nodeExists("/parent/a/b"));
+        // the children are created in document order
+        assertEquals("a", session.getNode("/parent").getNodes().nextNode().getName());
+
+        try {
+            writer.create("/parent/missing/child", null);
+            Assert.fail("Creating a node below a missing parent must fail");
+        } catch (PersistenceException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testOrderChildren() throws RepositoryException, PersistenceException {
+        Node parentNode = session.getRootNode().addNode("parent", NT_UNSTRUCTURED);
+        for (int i = 0; i < 6; i++) {
+            parentNode.addNode("child" + i, NT_UNSTRUCTURED);
+        }
+        session.save();
+
+        BulkResourceWriter writer = jcrResourceProvider.adaptTo(mockResolveContext(), BulkResourceWriter.class);
+        assertNotNull(writer);
+        Assert.assertTrue(writer.orderChildren("/parent", Arrays.asList("child5", "child2", "child0")));
+        List<String> names = new ArrayList<>();
+        for (NodeIterator iter = parentNode.getNodes(); iter.hasNext(); ) {
+            names.add(iter.nextNode().getName());
+        }
+        assertEquals(Arrays.asList("child5", "child2", "child0", "child1", "child3", "child4"), names);
+
+        // order already established
+        Assert.assertFalse(writer.orderChildren("/parent", Arrays.asList("child5", "child2")));
+
+        try {
+            writer.orderChildren("/parent", Arrays.asList("child1", "child6"));
+            Assert.fail("Ordering a missing child must fail");
+        } catch (PersistenceException e) {
+            // expected
+        }
+        try {
+            writer.orderChildren("/parent", Arrays.asList("child6", "child4", "child3"));
+            Assert.fail("Ordering a missing child must fail");
+        } catch (PersistenceException e) {
+            // expected
+        }
+        names.clear();
+        for (NodeIterator iter = parentNode.getNodes(); iter.hasNext(); ) {
+            names.add(iter.nextNode().getName());
+        }
+        // the order is unchanged if a name is missing
+        assertEquals(Arrays.asList("child5", "child2", "child0", "child1", "child3", "child4"), names);
+        try {
+            writer.orderChildren("/parent", Arrays.asList("child1", "child1"));
+            Assert.fail("Listing a child twice must fail");
+        } catch (PersistenceException e) {
+            // expected
+        }
+    }
+
+    private Node createCopySource() throws RepositoryException {
+        Node parentNode = session.getRootNode().addNode("parent", NT_UNSTRUCTURED);
+        Node src = parentNode.addNode("src", NT_UNSTRUCTURED);
+        src.addMixin(JcrConstants.MIX_REFERENCEABLE);
+        src.setProperty("title", "Title");
+        src.setProperty("tags", new String[] {"a", "b"});
+        src.addNode("child2", NT_UNSTRUCTURED).addNode("grandchild", NT_UNSTRUCTURED);
+        src.addNode("child1", NT_UNSTRUCTURED);
+        parentNode.addNode("dest", NT_UNSTRUCTURED);
+        return src;
+    }
+
+    @Test
+    public void testCopy() throws RepositoryException, PersistenceException {
+        Node src = createCopySource();
+        session.save();
+
+        ResolveContext ctx = mockResolveContext();
+        Assert.assertTrue(jcrResourceProvider.copy(ctx, "/parent/src", "/parent/dest"));
+        // the copy is transient
+        Assert.assertTrue(session.hasPendingChanges());
+
+        Node copy = session.getNode("/parent/dest/src");
+        assertEquals("Title", copy.getProperty("title").getString());
+        assertEquals(2, copy.getProperty("tags").getValues().length);
+        Assert.assertTrue(copy.isNodeType(JcrConstants.MIX_REFERENCEABLE));
+        Assert.assertNotEquals(src.getIdentifier(), copy.getIdentifier());
+        assertEquals("child2", copy.getNodes().nextNode().getName());
+        Assert.assertTrue(copy.hasNode("child2/grandchild"));
+
+        jcrResourceProvider.revert(ctx);
+        Assert.assertFalse(session.nodeExists("/parent/dest/src"));
+
+        // copying into itself is left to the resource resolver
+        Assert.assertFalse(jcrResourceProvider.copy(ctx, "/parent/src", "/parent/src/child1"));
+    }
+
+    @Test
+    public void testCopyWithAccessControl() throws RepositoryException, PersistenceException {
+        createCopySource();
+        AccessControlUtils.addAccessControlEntry(
+                session, "/parent/src/child2", EveryonePrincipal.getInstance(), new String[] {"jcr:read"}, true);
+        session.save();
+        Assert.assertTrue(session.nodeExists("/parent/src/child2/rep:policy"));
+
+        ResolveContext ctx = mockResolveContext();
+        Assert.assertTrue(jcrResourceProvider.copy(ctx, "/parent/src", "/parent/dest"));
+        // the access control policy is not copied
+        Assert.assertTrue(session.nodeExists("/parent/dest/src/child2/grandchild"));
+        Assert.assertFalse(session.nodeExists("/parent/dest/src/child2/rep:policy"));
+        session.save();
+    }
+
+    @Test
+    public void testCopyUncommittedSource() throws RepositoryException, PersistenceException {
+        JcrResourceProvider.Configuration configuration = mock(JcrResourceProvider.Configuration.class);
+        when(configuration.resource_workspaceCopy()).thenReturn(true);
+        jcrResourceProvider.activate(ctx, configuration);
+
+        createCopySource();
+        ResolveContext ctx = mockResolveContext();
+        Assert.assertTrue(jcrResourceProvider.copy(ctx, "/parent/src", "/parent/dest"));
+        Assert.assertTrue(session.getNode("/parent/dest/src").hasNode("child2/grandchild"));
+    }
+
+    @Test
+    public void testWorkspaceCopy() throws RepositoryException, PersistenceException {
+        JcrResourceProvider.Configuration configuration = mock(JcrResourceProvider.Configuration.class);
+        when(configuration.resource_workspaceCopy()).thenReturn(true);
+        jcrResourceProvider.activate(ctx, configuration);
+
+        createCopySource();
+        session.save();
+
+        ResolveContext ctx = mockResolveContext();
+        Assert.assertTrue(jcrResourceProvider.copy(ctx, "/parent/src", "/parent/dest"));
+        // the copy has been persisted through the workspace
+        Assert.assertFalse(session.hasPendingChanges());
+        Node copy = session.getNode("/parent/dest/src");
+        assertEquals("Title", copy.getProperty("title").getString());
+        Assert.assertTrue(copy.hasNode("child2/grandchild"));
+    }
+
     @Test
     public void getResourceByIdentifierConfigurationEnabled() throws RepositoryException {
         JcrResourceProvider.Configuration configuration = mock(JcrResourceProvider.Configuration.class);